@@ -0,0 +1,61 @@
+package com.example.Skoolo.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * The bulk-imported entities (users, students, teachers, parents, setup tokens) take their ids from
+ * pooled sequences rather than IDENTITY columns: Hibernate cannot batch an insert whose id only
+ * exists after it runs, so IDENTITY turned every saveAll into one round-trip per row. One call to a
+ * sequence reserves {@value #ALLOCATION_SIZE} ids, the same as hibernate.jdbc.batch_size, so a full
+ * batch costs one sequence call and one JDBC batch.
+ * <p>
+ * The sequences are created by the schema update and start at 1, while existing tables already
+ * hold rows numbered by their old identity columns. Before anything can insert, each sequence is
+ * moved past the table's highest id. The step only ever moves a sequence forward.
+ */
+@Component
+public class IdSequences {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequences.class);
+
+    public static final int ALLOCATION_SIZE = 500;
+
+    // table -> sequence named in its @SequenceGenerator
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "users", "users_seq",
+            "students", "students_seq",
+            "teachers", "teachers_seq",
+            "parents", "parents_seq",
+            "password_reset_tokens", "password_reset_tokens_seq");
+
+    // Hibernate hands out (v - ALLOCATION_SIZE, v] for a sequence value v, so the next v must be at least max(id) + ALLOCATION_SIZE
+    private static final String ALIGN = """
+            SELECT setval('%2$s', t.max_id + %3$d, false)
+            FROM (SELECT COALESCE(max(id), 0) AS max_id FROM %1$s) t, %2$s s
+            WHERE CASE WHEN s.is_called THEN s.last_value + %3$d ELSE s.last_value END < t.max_id + %3$d
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Only injected so this runs after the schema update has created the sequences
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Fails startup rather than let inserts collide with existing ids
+    @PostConstruct
+    public void align() {
+        SEQUENCES.forEach((table, sequence) -> jdbcTemplate.query(ALIGN.formatted(table, sequence, ALLOCATION_SIZE),
+                rs -> {
+                    log.info("Moved {} past the existing ids in {}", sequence, table);
+                }));
+    }
+}
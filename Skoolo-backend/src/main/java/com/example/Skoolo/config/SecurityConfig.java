@@ -60,6 +60,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/teacher/**").hasAnyRole("TEACHER", "ADMIN","PARENT")
                         .requestMatchers("/api/subjects/**").hasAnyRole("TEACHER", "ADMIN")
                         .requestMatchers("/api/parents/**").hasAnyRole("PARENT", "ADMIN","TEACHER")
+                        .requestMatchers("/api/leave-requests/**").hasAnyRole("PARENT", "ADMIN", "TEACHER")
                         .requestMatchers("/api/student/**").hasRole("STUDENT")
                         .requestMatchers("/api/classes/**").hasAnyRole("ADMIN", "TEACHER")
                         .requestMatchers("/api/syllabus/**").hasAnyRole("ADMIN", "TEACHER", "PARENT")
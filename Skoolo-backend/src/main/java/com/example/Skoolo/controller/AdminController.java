@@ -1,9 +1,11 @@
 package com.example.Skoolo.controller;
 
+import com.example.Skoolo.dto.ImportResultDTO;
 import com.example.Skoolo.dto.ParentDTO;
 import com.example.Skoolo.dto.PromotionRequest;
 import com.example.Skoolo.dto.StudentAddRequest;
 import com.example.Skoolo.dto.StudentUpdateRequest;
+import com.example.Skoolo.model.AbsenceAlert;
 import com.example.Skoolo.model.ClassEntity;
 import com.example.Skoolo.model.ClassHistory;
 import com.example.Skoolo.model.Section;
@@ -13,7 +15,9 @@ import com.example.Skoolo.repo.ClassRepository;
 import com.example.Skoolo.repo.SectionRepository;
 import com.example.Skoolo.repo.StudentRepository;
 import com.example.Skoolo.service.*;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -52,21 +56,27 @@ public class AdminController {
     @Autowired
     private ClassHistoryRepository classHistoryRepository;
 
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private AbsenceAlertService absenceAlertService;
+
+    @Autowired
+    private PunchLogService punchLogService;
+
     @PostMapping("/upload-users")
-    public ResponseEntity<?> uploadUsers(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadUsers(@RequestParam("file") MultipartFile file,
+                                         @RequestParam(defaultValue = "false") boolean dryRun) {
         String filename = file.getOriginalFilename();
         if (filename == null) return ResponseEntity.badRequest().body("Invalid file");
 
-        try {
-            if (filename.endsWith(".csv")) {
-                userService.processCsv(file);
-            } else if (filename.endsWith(".xls") || filename.endsWith(".xlsx")) {
-                userService.processExcel(file);
-            } else {
-                return ResponseEntity.badRequest().body("Unsupported file type. Upload .csv or .xlsx");
-            }
+        if (!filename.endsWith(".csv") && !filename.endsWith(".xls") && !filename.endsWith(".xlsx")) {
+            return ResponseEntity.badRequest().body("Unsupported file type. Upload .csv or .xlsx");
+        }
 
-            return ResponseEntity.ok("Users uploaded successfully.");
+        try {
+            return ResponseEntity.ok(userService.processUserFile(file, dryRun));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to upload users: " + e.getMessage());
@@ -77,11 +87,12 @@ public class AdminController {
     public ResponseEntity<?> uploadStudents(
             @RequestParam("file") MultipartFile file,
             @RequestParam Long classId,
-            @RequestParam Long sectionId
+            @RequestParam Long sectionId,
+            @RequestParam(defaultValue = "false") boolean force,
+            @RequestParam(defaultValue = "false") boolean dryRun
     ) {
         try {
-            studentService.processStudentFile(file, classId, sectionId);
-            return ResponseEntity.ok("Students uploaded successfully.");
+            return ResponseEntity.ok(studentService.processStudentFile(file, classId, sectionId, force, dryRun));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error uploading students: " + e.getMessage());
@@ -89,16 +100,28 @@ public class AdminController {
     }
 
     @PostMapping("/upload-parents")
-    public ResponseEntity<String> uploadParents(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadParents(@RequestParam("file") MultipartFile file,
+                                           @RequestParam(defaultValue = "false") boolean dryRun) {
         try {
-            parentService.processParentCsv(file);
-            return ResponseEntity.ok("Parents uploaded successfully");
+            return ResponseEntity.ok(parentService.processParentCsv(file, dryRun));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to upload parents: " + e.getMessage());
         }
     }
 
+    // Gate reader export: studentId, timestamp per punch
+    @PostMapping("/upload-punches")
+    public ResponseEntity<?> uploadPunches(@RequestParam("file") MultipartFile file,
+                                           @RequestParam(defaultValue = "false") boolean force) {
+        try {
+            return ResponseEntity.ok(punchLogService.processPunchFile(file, force));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to import punch log: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/classes")
     public List<ClassEntity> getAllClasses() {
         return classRepository.findAll();
@@ -124,10 +147,12 @@ public class AdminController {
     }
 
     @PostMapping("/upload-timetable")
-    public ResponseEntity<?> uploadTimetable(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadTimetable(@RequestParam("file") MultipartFile file,
+                                             @RequestParam(defaultValue = "false") boolean dryRun) {
         try {
-            timetableService.processTimetableFile(file);
-            return ResponseEntity.ok("Timetable uploaded successfully.");
+            Map<String, ImportResultDTO> results = timetableService.processTimetableFile(file, dryRun);
+            boolean anyFailed = results.values().stream().anyMatch(r -> r.getFailed() > 0);
+            return anyFailed ? ResponseEntity.badRequest().body(results) : ResponseEntity.ok(results);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -208,7 +233,22 @@ public class AdminController {
         return ResponseEntity.ok("Promotion processed successfully");
     }
 
+    // Backfill class/section on old attendance rows and recompute the rollups from scratch
+    @PostMapping("/attendance/rebuild-rollups")
+    public ResponseEntity<String> rebuildAttendanceRollups() {
+        attendanceService.rebuildRollups();
+        return ResponseEntity.ok("Attendance rollups rebuilt.");
+    }
 
+    // Run the chronic-absence rules now instead of waiting for the nightly job
+    @PostMapping("/attendance/detect-absences")
+    public ResponseEntity<String> detectAbsences() {
+        int alerts = absenceAlertService.detect(LocalDate.now());
+        return ResponseEntity.ok(alerts + " new absence alert(s) sent.");
+    }
 
+    @GetMapping("/attendance/absence-alerts")
+    public List<AbsenceAlert> getAbsenceAlerts(@RequestParam(defaultValue = "7") int days) {
+        return absenceAlertService.getRecentAlerts(days);
+    }
 }
-
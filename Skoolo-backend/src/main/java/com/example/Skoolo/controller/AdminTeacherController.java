@@ -31,10 +31,11 @@ public class AdminTeacherController {
 
     // ✅ 1. Upload teachers from Excel or CSV
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadTeachers(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadTeachers(@RequestParam("file") MultipartFile file,
+                                            @RequestParam(defaultValue = "false") boolean force,
+                                            @RequestParam(defaultValue = "false") boolean dryRun) {
         try {
-            teacherService.processTeacherFile(file);
-            return ResponseEntity.ok("Teachers uploaded successfully.");
+            return ResponseEntity.ok(teacherService.processTeacherFile(file, force, dryRun));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Failed to upload teachers: " + e.getMessage());
         }
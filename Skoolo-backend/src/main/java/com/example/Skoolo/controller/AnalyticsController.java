@@ -0,0 +1,38 @@
+package com.example.Skoolo.controller;
+
+import com.example.Skoolo.dto.MarkAnalyticsDTO;
+import com.example.Skoolo.service.MarkAnalyticsService;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final MarkAnalyticsService markAnalyticsService;
+
+    // level=section (default) gives one row per section and subject; level=class sums the sections
+    @GetMapping("/marks")
+    public ResponseEntity<?> getMarkAnalytics(@RequestParam(required = false) String academicYear,
+                                              @RequestParam(required = false) String examName,
+                                              @RequestParam(required = false) Long classId,
+                                              @RequestParam(required = false) Long sectionId,
+                                              @RequestParam(required = false) Long subjectId,
+                                              @RequestParam(defaultValue = "section") String level) {
+        if (!level.equals("section") && !level.equals("class")) {
+            return ResponseEntity.badRequest().body("level must be 'section' or 'class'");
+        }
+        List<MarkAnalyticsDTO> rows = markAnalyticsService.getMarkAnalytics(
+                academicYear, examName, classId, sectionId, subjectId, level.equals("class"));
+        return ResponseEntity.ok(rows);
+    }
+
+    @PostMapping("/marks/rebuild")
+    public Map<String, Integer> rebuild() {
+        return Map.of("groups", markAnalyticsService.rebuild());
+    }
+}
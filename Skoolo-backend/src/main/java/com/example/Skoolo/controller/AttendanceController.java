@@ -1,12 +1,16 @@
 package com.example.Skoolo.controller;
 
+import com.example.Skoolo.dto.AttendanceBulkResultDTO;
+import com.example.Skoolo.dto.AttendanceHistoryDTO;
 import com.example.Skoolo.dto.AttendanceRequestDto;
-import com.example.Skoolo.model.Attendance;
+import com.example.Skoolo.dto.AttendanceSummaryDTO;
+import com.example.Skoolo.dto.RollCallDTO;
 import com.example.Skoolo.service.AttendanceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -18,24 +22,52 @@ public class AttendanceController {
 
     // Bulk Marking
     @PostMapping("/bulk")
-    public String markAttendance(@RequestBody List<AttendanceRequestDto> attendanceList,
+    public AttendanceBulkResultDTO markAttendance(@RequestBody List<AttendanceRequestDto> attendanceList,
                                  @RequestParam Long teacherId) {
         return attendanceService.markAttendanceBulk(attendanceList, teacherId);
     }
 
-    // Fetch Attendance
+    // Fetch Attendance: each student's status that day and who took the roll call (section ids are unique across classes)
     @GetMapping("/class/{classId}/section/{sectionId}")
-    public List<Attendance> getAttendance(@PathVariable Long classId,
-                                          @PathVariable Long sectionId,
-                                          @RequestParam String date) {
-        return attendanceService.getAttendanceByClassSectionAndDate(classId, sectionId, LocalDate.parse(date));
+    public RollCallDTO getAttendance(@PathVariable Long classId,
+                                     @PathVariable Long sectionId,
+                                     @RequestParam String date) {
+        return attendanceService.getRollCall(sectionId, LocalDate.parse(date));
     }
 
-    // Can teacher mark?
+    // Can teacher mark? Owner of the first period by default, or of the period running now with period=current
     @GetMapping("/can-mark")
     public boolean canMark(@RequestParam Long teacherId,
                            @RequestParam Long classId,
-                           @RequestParam Long sectionId) {
+                           @RequestParam Long sectionId,
+                           @RequestParam(defaultValue = "first") String period) {
+        if ("current".equalsIgnoreCase(period)) {
+            return attendanceService.isTeachingNow(teacherId, classId, sectionId);
+        }
         return attendanceService.canTeacherMark(teacherId, classId, sectionId);
     }
+
+    // Monthly breakdown and term percentage for one student, e.g. ?from=2025-06&to=2026-03
+    @GetMapping("/summary/student/{studentId}")
+    public AttendanceSummaryDTO getStudentSummary(@PathVariable Long studentId,
+                                                  @RequestParam String from,
+                                                  @RequestParam String to) {
+        return attendanceService.getStudentSummary(studentId, YearMonth.parse(from), YearMonth.parse(to));
+    }
+
+    // Day-by-day year view with streaks and absences per weekday
+    @GetMapping("/history/student/{studentId}")
+    public AttendanceHistoryDTO getStudentHistory(@PathVariable Long studentId,
+                                                  @RequestParam String from,
+                                                  @RequestParam String to) {
+        return attendanceService.getStudentHistory(studentId, YearMonth.parse(from), YearMonth.parse(to));
+    }
+
+    // Day-by-day counts for a section
+    @GetMapping("/summary/section/{sectionId}")
+    public AttendanceSummaryDTO getSectionSummary(@PathVariable Long sectionId,
+                                                  @RequestParam String from,
+                                                  @RequestParam String to) {
+        return attendanceService.getSectionSummary(sectionId, LocalDate.parse(from), LocalDate.parse(to));
+    }
 }
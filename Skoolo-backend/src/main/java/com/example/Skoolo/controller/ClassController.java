@@ -4,12 +4,12 @@ import com.example.Skoolo.dto.CreateClassRequest;
 import com.example.Skoolo.model.ClassEntity;
 import com.example.Skoolo.model.Section;
 import com.example.Skoolo.model.Student;
-import com.example.Skoolo.model.Timetable;
 import com.example.Skoolo.repo.ClassRepository;
 import com.example.Skoolo.repo.SectionRepository;
 import com.example.Skoolo.repo.StudentRepository;
 import com.example.Skoolo.service.ClassService;
 import com.example.Skoolo.service.TimetableService;
+import com.example.Skoolo.service.timetable.TimetableSlot;
 import java.util.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -180,7 +180,7 @@ public class ClassController {
             @PathVariable Long sectionId
     ) {
         try {
-            List<Timetable> timetableList = timetableService.getTimetableForSection(classId, sectionId);
+            List<TimetableSlot> timetableList = timetableService.getTimetableForSection(classId, sectionId);
             return ResponseEntity.ok(timetableList);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
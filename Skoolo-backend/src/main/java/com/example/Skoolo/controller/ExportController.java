@@ -0,0 +1,68 @@
+package com.example.Skoolo.controller;
+
+import com.example.Skoolo.service.ExportService;
+import com.example.Skoolo.service.export.ExportFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/students")
+    public ResponseEntity<StreamingResponseBody> exportStudents(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long classId,
+            @RequestParam(required = false) Long sectionId) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        return download("students", exportFormat,
+                out -> exportService.exportStudents(out, exportFormat, classId, sectionId));
+    }
+
+    @GetMapping("/marks")
+    public ResponseEntity<StreamingResponseBody> exportMarks(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long classId,
+            @RequestParam(required = false) Long sectionId,
+            @RequestParam(required = false) String academicYear,
+            @RequestParam(required = false) String examName) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        return download("marks", exportFormat,
+                out -> exportService.exportMarks(out, exportFormat, classId, sectionId, academicYear, examName));
+    }
+
+    @GetMapping("/attendance")
+    public ResponseEntity<StreamingResponseBody> exportAttendance(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long classId,
+            @RequestParam(required = false) Long sectionId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        return download("attendance", exportFormat,
+                out -> exportService.exportAttendance(out, exportFormat, classId, sectionId, from, to));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadFormat(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    private ResponseEntity<StreamingResponseBody> download(String name, ExportFormat format, StreamingResponseBody body) {
+        String filename = name + "-" + LocalDate.now() + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(body);
+    }
+}
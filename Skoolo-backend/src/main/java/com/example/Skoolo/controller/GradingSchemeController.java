@@ -0,0 +1,55 @@
+package com.example.Skoolo.controller;
+
+import com.example.Skoolo.dto.RegradeResultDTO;
+import com.example.Skoolo.model.GradingScheme;
+import com.example.Skoolo.service.GradingSchemeService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/grading-schemes")
+@RequiredArgsConstructor
+public class GradingSchemeController {
+
+    private final GradingSchemeService gradingSchemeService;
+
+    @GetMapping
+    public List<GradingScheme> getAll() {
+        return gradingSchemeService.getAllSchemes();
+    }
+
+    // Body: { name, academicYear?, classId?, bands: [{ minPercent, grade }, ...] }
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody GradingScheme scheme) {
+        scheme.setId(null);
+        return save(scheme);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody GradingScheme scheme) {
+        scheme.setId(id);
+        return save(scheme);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable Long id) {
+        gradingSchemeService.deleteScheme(id);
+        return ResponseEntity.ok("Grading scheme deleted. Run a regrade to update stored grades.");
+    }
+
+    // Stored grades only follow a scheme change once this has run; academicYear limits it to one year
+    @PostMapping("/regrade")
+    public RegradeResultDTO regrade(@RequestParam(required = false) String academicYear) {
+        return gradingSchemeService.regrade(academicYear);
+    }
+
+    private ResponseEntity<?> save(GradingScheme scheme) {
+        try {
+            return ResponseEntity.ok(gradingSchemeService.saveScheme(scheme));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.Skoolo.controller;
+
+import com.example.Skoolo.dto.LeaveRequestDTO;
+import com.example.Skoolo.service.LeaveRequestService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/leave-requests")
+@RequiredArgsConstructor
+public class LeaveRequestController {
+
+    private final LeaveRequestService leaveRequestService;
+
+    // ✅ Parent applies for leave for their child
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestParam Long parentId, @RequestBody LeaveRequestDTO dto) {
+        try {
+            return ResponseEntity.ok(leaveRequestService.submit(parentId, dto));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ✅ Parent views their requests
+    @GetMapping("/parent/{parentId}")
+    public List<LeaveRequestDTO> getForParent(@PathVariable Long parentId) {
+        return leaveRequestService.getForParent(parentId);
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<?> cancel(@PathVariable Long id, @RequestParam Long parentId) {
+        try {
+            return ResponseEntity.ok(leaveRequestService.cancel(id, parentId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ✅ Class teacher views requests for their section
+    @GetMapping("/teacher/{teacherId}")
+    public List<LeaveRequestDTO> getForClassTeacher(@PathVariable Long teacherId,
+                                                    @RequestParam(defaultValue = "pending") String status) {
+        return leaveRequestService.getForClassTeacher(teacherId, status.toLowerCase());
+    }
+
+    @PostMapping("/{id}/approve")
+    public ResponseEntity<?> approve(@PathVariable Long id, @RequestParam Long teacherId) {
+        try {
+            return ResponseEntity.ok(leaveRequestService.approve(id, teacherId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/reject")
+    public ResponseEntity<?> reject(@PathVariable Long id, @RequestParam Long teacherId) {
+        try {
+            return ResponseEntity.ok(leaveRequestService.reject(id, teacherId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,89 +1,90 @@
 package com.example.Skoolo.controller;
 
+import com.example.Skoolo.dto.GradebookDTO;
 import com.example.Skoolo.dto.MarkRequest;
-import com.example.Skoolo.model.*;
-import com.example.Skoolo.repo.*;
-import java.util.ArrayList;
+import com.example.Skoolo.dto.MarkSaveResultDTO;
+import com.example.Skoolo.dto.TeacherMarksPageDTO;
+import com.example.Skoolo.service.MarkService;
+import com.example.Skoolo.service.MarkSheetService;
+import com.example.Skoolo.service.export.ExportFormat;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/marks")
 @RequiredArgsConstructor
 public class MarkController {
 
-    private final StudentRepository studentRepo;
-    private final SubjectRepository subjectRepo;
-    private final SectionRepository sectionRepo;
-    private final ClassRepository classRepo;
-    private final MarkRepository markRepo;
-    private final TeacherSubjectAssignmentRepository teacherSubjectAssignmentRepository;
+    private static final int MAX_PAGE_SIZE = 500;
 
-    @PostMapping
-    public ResponseEntity<?> saveMarks(@RequestBody List<MarkRequest> marks) {
-        for (MarkRequest req : marks) {
-            Student student = studentRepo.findById(req.getStudentId()).orElse(null);
-            Subject subject = subjectRepo.findById(req.getSubjectId()).orElse(null);
-            Section section = sectionRepo.findById(req.getSectionId()).orElse(null);
-            ClassEntity classEntity = classRepo.findById(req.getClassId()).orElse(null);
-
-            if (student == null || subject == null || section == null || classEntity == null) continue;
-
-            // ❗ Avoid duplicates
-            boolean exists = markRepo
-                    .findByStudent_IdAndSubject_IdAndClassEntity_IdAndSection_IdAndExamNameAndAcademicYear(
-                            req.getStudentId(), req.getSubjectId(), req.getClassId(), req.getSectionId(),
-                            req.getExamName(), req.getAcademicYear()
-                    )
-                    .isPresent();
-
-            if (exists) continue;
-
-            Mark mark = new Mark();
-            mark.setStudent(student);
-            mark.setSubject(subject);
-            mark.setSection(section);
-            mark.setClassEntity(classEntity);
-            mark.setMarksObtained(req.getMarksObtained());
-            mark.setMaxMarks(req.getMaxMarks());
-            mark.setExamName(req.getExamName());
-            mark.setAcademicYear(req.getAcademicYear());
-            mark.setGrade(calculateGrade(req.getMarksObtained(), req.getMaxMarks()));
-
-            markRepo.save(mark);
-        }
+    private final MarkService markService;
+    private final MarkSheetService markSheetService;
 
+    // Saves an exam sheet; the response says per row whether it was inserted, updated, unchanged or rejected
+    @PostMapping
+    public ResponseEntity<MarkSaveResultDTO> saveMarks(@RequestBody List<MarkRequest> marks) {
+        return ResponseEntity.ok(markService.saveMarks(marks));
+    }
 
-        return ResponseEntity.ok("Marks saved successfully");
+    // Marks for the teacher's assignments, newest year first, e.g. ?teacherId=7&examName=Midterm&page=0&size=200
+    @GetMapping("/by-teacher")
+    public TeacherMarksPageDTO getMarksUploadedByTeacher(@RequestParam Long teacherId,
+                                                         @RequestParam(required = false) String examName,
+                                                         @RequestParam(required = false) String academicYear,
+                                                         @RequestParam(defaultValue = "0") int page,
+                                                         @RequestParam(defaultValue = "200") int size) {
+        return markService.getTeacherMarks(teacherId, examName, academicYear, Math.max(page, 0),
+                Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
     }
 
-    private String calculateGrade(int marks, int max) {
-        double percent = (double) marks / max * 100;
-        if (percent >= 90) return "A+";
-        if (percent >= 75) return "A";
-        if (percent >= 60) return "B";
-        if (percent >= 45) return "C";
-        if (percent >= 35) return "D";
-        return "F";
+    // Section x subject matrix for one exam with totals, ranks, percentiles and subject averages
+    @GetMapping("/gradebook/section/{sectionId}")
+    public GradebookDTO getGradebook(@PathVariable Long sectionId,
+                                     @RequestParam String examName,
+                                     @RequestParam String academicYear) {
+        return markService.getGradebook(sectionId, examName, academicYear);
     }
 
-    @GetMapping("/by-teacher")
-    public ResponseEntity<?> getMarksUploadedByTeacher(@RequestParam Long teacherId) {
-        List<TeacherSubjectAssignment> assignments = teacherSubjectAssignmentRepository.findByTeacher_Id(teacherId);
-        List<Mark> allMarks = new ArrayList<>();
+    // Pre-filled sheet for offline entry, e.g. ?teacherId=7&examName=Midterm&academicYear=2025-2026&subjectId=3
+    @GetMapping("/sheet")
+    public ResponseEntity<StreamingResponseBody> downloadSheet(@RequestParam Long teacherId,
+                                                               @RequestParam String examName,
+                                                               @RequestParam String academicYear,
+                                                               @RequestParam(required = false) Long subjectId,
+                                                               @RequestParam(required = false) Long sectionId,
+                                                               @RequestParam(required = false) Integer maxMarks,
+                                                               @RequestParam(defaultValue = "xlsx") String format) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        String filename = "marks-" + examName.trim().replaceAll("[^A-Za-z0-9-]+", "_") + "-" + academicYear
+                + "." + exportFormat.getExtension();
+        StreamingResponseBody body = out -> markSheetService.writeSheet(out, exportFormat, teacherId,
+                examName.trim(), academicYear.trim(), subjectId, sectionId, maxMarks);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(body);
+    }
 
-        for (TeacherSubjectAssignment assign : assignments) {
-            List<Mark> subjectMarks = markRepo.findBySubject_IdAndClassEntity_IdAndSection_Id(
-                    assign.getSubject().getId(),
-                    assign.getClassEntity().getId(),
-                    assign.getSection().getId()
-            );
-            allMarks.addAll(subjectMarks);
+    // The downloaded sheet, filled in; rows without marks are skipped
+    @PostMapping("/sheet")
+    public ResponseEntity<?> uploadSheet(@RequestParam("file") MultipartFile file, @RequestParam Long teacherId) {
+        try {
+            return ResponseEntity.ok(markSheetService.uploadSheet(file, teacherId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to upload mark sheet: " + e.getMessage());
         }
-
-        return ResponseEntity.ok(allMarks);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadFormat(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
 }
@@ -1,13 +1,22 @@
 package com.example.Skoolo.controller;
 
-import com.example.Skoolo.dto.AttendanceDTO;
+import com.example.Skoolo.dto.AttendanceSummaryDTO;
 import com.example.Skoolo.dto.MarkResponseDTO;
+import com.example.Skoolo.dto.ParentAttendanceDTO;
 import com.example.Skoolo.dto.ParentTimetableResponseDTO;
 import com.example.Skoolo.dto.TimetableResponseDTO;
 import com.example.Skoolo.model.*;
 import com.example.Skoolo.repo.*;
+import com.example.Skoolo.service.AttendanceService;
 import com.example.Skoolo.service.ParentService;
+import com.example.Skoolo.service.TimetableService;
+import com.example.Skoolo.service.marks.StudentMarksCache;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +26,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -30,18 +40,18 @@ public class ParentController {
 
     private final ParentService parentService;
 
-    private final MarkRepository markRepository;
-
-    private final TimetableRepository timetableRepository;
+    private final TimetableService timetableService;
 
     private final StudentRepository studentRepository;
 
     private final AssignmentRepository assignmentRepository;
 
-    private final AttendanceRepository attendanceRepository;
+    private final AttendanceService attendanceService;
 
     private final FeeRepository feeRepository;
 
+    private final StudentMarksCache studentMarksCache;
+
     @GetMapping
     public List<Parent> getAllParents() {
         return parentRepository.findAll(); // or with DTO
@@ -82,62 +92,64 @@ public class ParentController {
         return parentService.getChildrenOfParent(parentId);
     }
 
+    // Served from the per-student marks cache; only the children's ids and names are read per request
     @GetMapping("/{parentId}/marks")
     public List<MarkResponseDTO> getMarksForChildren(@PathVariable Long parentId) {
-        Parent parent = parentRepository.findById(parentId)
-                .orElseThrow(() -> new RuntimeException("Parent not found"));
+        Map<Long, String> childNames = new LinkedHashMap<>();
+        for (Object[] child : studentRepository.findChildSummaries(parentId)) {
+            childNames.put((Long) child[0], (child[1] != null ? (String) child[1] : "")
+                    + (child[2] != null ? " " + child[2] : ""));
+        }
+        if (childNames.isEmpty() && !parentRepository.existsById(parentId)) {
+            throw new RuntimeException("Parent not found");
+        }
 
-        List<Student> children = parent.getChildren();
-
-        List<Mark> marks = markRepository.findByStudentInWithDetails(children);
-
-        return marks.stream().map(mark -> {
-            MarkResponseDTO dto = new MarkResponseDTO();
-            dto.setMarkId(mark.getId());
-            dto.setChildName(mark.getStudent().getFullName());
-            dto.setSubjectName(mark.getSubject().getSubjectName());
-            dto.setExamName(mark.getExamName());
-            dto.setMarksObtained(mark.getMarksObtained());
-            dto.setMaxMarks(mark.getMaxMarks());
-            dto.setGrade(mark.getGrade());
-            dto.setAcademicYear(mark.getAcademicYear());
-            return dto;
-        }).collect(Collectors.toList());
+        List<MarkResponseDTO> marks = new ArrayList<>();
+        studentMarksCache.get(childNames.keySet()).forEach((studentId, rows) -> {
+            for (StudentMarksCache.MarkRow row : rows) {
+                MarkResponseDTO dto = new MarkResponseDTO();
+                dto.setMarkId(row.markId());
+                dto.setChildName(childNames.get(studentId));
+                dto.setSubjectName(row.subjectName());
+                dto.setExamName(row.examName());
+                dto.setMarksObtained(row.marksObtained());
+                dto.setMaxMarks(row.maxMarks());
+                dto.setGrade(row.grade());
+                dto.setAcademicYear(row.academicYear());
+                marks.add(dto);
+            }
+        });
+        return marks;
     }
 
 
     @GetMapping("/{parentId}/timetable")
     public ParentTimetableResponseDTO getTimetableForParent(@PathVariable Long parentId) {
-        Parent parent = parentRepository.findById(parentId)
-                .orElseThrow(() -> new RuntimeException("Parent not found"));
-
-        List<Student> children = parent.getChildren();
+        List<Object[]> children = studentRepository.findChildSummaries(parentId);
         if (children.isEmpty()) {
+            if (!parentRepository.existsById(parentId)) throw new RuntimeException("Parent not found");
             throw new RuntimeException("No children found for parent");
         }
 
-        Student student = children.get(0);
-
-        List<Timetable> timetable = timetableRepository.findByClassEntityAndSection(
-                student.getCurrentClass(),
-                student.getCurrentSection()
-        );
-
-        List<TimetableResponseDTO> timetableDTOs = timetable.stream().map(entry -> {
-            TimetableResponseDTO dto = new TimetableResponseDTO();
-            dto.setDayOfWeek(entry.getDayOfWeek());
-            dto.setPeriod(entry.getPeriod());
-            dto.setStartTime(entry.getStartTime());
-            dto.setEndTime(entry.getEndTime());
-            dto.setSubjectName(entry.getSubject().getSubjectName());
-            dto.setTeacherName(entry.getTeacher() != null ? entry.getTeacher().getFullName() : "N/A");
-            dto.setClassName(entry.getClassEntity().getClassName());
-            dto.setSectionName(entry.getSection().getSectionName());
-            return dto;
-        }).collect(Collectors.toList());
+        Object[] student = children.get(0);
+
+        List<TimetableResponseDTO> timetableDTOs = timetableService.getTimetableForSection((Long) student[3], (Long) student[4])
+                .stream().map(entry -> {
+                    TimetableResponseDTO dto = new TimetableResponseDTO();
+                    dto.setDayOfWeek(entry.dayOfWeek());
+                    dto.setPeriod(entry.period());
+                    dto.setStartTime(entry.startTime());
+                    dto.setEndTime(entry.endTime());
+                    dto.setSubjectName(entry.subject() != null ? entry.subject().subjectName() : null);
+                    dto.setTeacherName(entry.teacher() != null ? entry.teacher().getFullName() : "N/A");
+                    dto.setClassName(entry.classEntity() != null ? entry.classEntity().className() : null);
+                    dto.setSectionName(entry.section() != null ? entry.section().sectionName() : null);
+                    return dto;
+                }).collect(Collectors.toList());
 
         ParentTimetableResponseDTO response = new ParentTimetableResponseDTO();
-        response.setStudentName(student.getFullName()); // or getFirstName() + " " + getLastName()
+        response.setStudentName((student[1] != null ? (String) student[1] : "")
+                + (student[2] != null ? " " + student[2] : ""));
         response.setTimetable(timetableDTOs);
 
         return response;
@@ -165,23 +177,35 @@ public class ParentController {
         return ResponseEntity.ok(assignments);
     }
 
+    // Newest first, one bounded page at a time; without "from" the pages reach back to the first record
     @GetMapping("/{parentId}/attendance")
-    public List<AttendanceDTO> getAttendanceByParent(@PathVariable Long parentId) {
+    public ParentAttendanceDTO getAttendanceByParent(@PathVariable Long parentId,
+                                                     @RequestParam(required = false) String from,
+                                                     @RequestParam(required = false) String to,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "50") int size) {
         List<Student> students = studentRepository.findByParentId(parentId);
         if (students.isEmpty()) {
             throw new RuntimeException("No students found for this parent");
         }
 
-        List<Attendance> attendanceList = attendanceRepository.findByStudentInOrderByDateDesc(students);
+        LocalDate end = to != null ? LocalDate.parse(to) : LocalDate.now();
+        LocalDate start = from != null ? LocalDate.parse(from) : null;
+        return attendanceService.getAttendancePage(students, start, end, cursor, Math.max(1, Math.min(size, 200)));
+    }
+
+    // Per-child totals from the monthly rollup, e.g. ?from=2025-06&to=2026-03
+    @GetMapping("/{parentId}/attendance/summary")
+    public List<AttendanceSummaryDTO> getAttendanceSummaryByParent(@PathVariable Long parentId,
+                                                                   @RequestParam String from,
+                                                                   @RequestParam String to) {
+        List<Student> students = studentRepository.findByParentId(parentId);
+        if (students.isEmpty()) {
+            throw new RuntimeException("No students found for this parent");
+        }
 
-        return attendanceList.stream()
-                .map(att -> new AttendanceDTO(
-                        att.getId(),
-                        att.getDate(),
-                        att.getStatus(),
-                        att.getStudent().getFullName(),
-                        att.getMarkedBy() != null ? att.getMarkedBy().getFullName() : "N/A"
-                ))
+        return students.stream()
+                .map(student -> attendanceService.getStudentSummary(student.getId(), YearMonth.parse(from), YearMonth.parse(to)))
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,33 @@
+package com.example.Skoolo.controller;
+
+import com.example.Skoolo.service.ReportCardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/report-cards")
+@RequiredArgsConstructor
+public class ReportCardController {
+
+    private final ReportCardService reportCardService;
+
+    // Whole class, or one section of it; returns a job to poll
+    @PostMapping("/generate")
+    public ResponseEntity<?> generate(@RequestParam Long classId,
+                                      @RequestParam(required = false) Long sectionId,
+                                      @RequestParam String academicYear) {
+        try {
+            return ResponseEntity.ok(reportCardService.generate(classId, sectionId, academicYear));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable String jobId) {
+        return reportCardService.getJob(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -7,6 +7,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import com.example.Skoolo.service.marks.StudentMarksCache;
+import com.example.Skoolo.service.timetable.TimetableIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -22,6 +24,12 @@ public class SubjectController {
     @Autowired
     private SubjectRepository subjectRepository;
 
+    @Autowired
+    private StudentMarksCache studentMarksCache;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
     @GetMapping
     public List<Map<String, Object>> getAllSubjects() {
         return subjectRepository.findAll().stream().map(subject -> {
@@ -62,6 +70,8 @@ public class SubjectController {
                 .map(subject -> {
                     subject.setSubjectName(subjectDetails.getSubjectName());
                     Subject updatedSubject = subjectRepository.save(subject);
+                    studentMarksCache.clear(); // cached marks and timetables carry the subject name
+                    timetableIndex.rebuild();
                     Map<String, Object> responseMap = new HashMap<>();
                     responseMap.put("id", updatedSubject.getId());
                     responseMap.put("subjectName", updatedSubject.getSubjectName());
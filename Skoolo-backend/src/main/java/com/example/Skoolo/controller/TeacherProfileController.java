@@ -10,6 +10,7 @@ import com.example.Skoolo.repo.SectionRepository;
 import com.example.Skoolo.repo.TeacherRepository;
 import com.example.Skoolo.repo.TeacherSubjectAssignmentRepository;
 import com.example.Skoolo.service.CloudinaryService;
+import com.example.Skoolo.service.timetable.TimetableIndex;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,9 @@ public class TeacherProfileController {
     @Autowired
     private CloudinaryService cloudinaryService;
 
+    @Autowired
+    private TimetableIndex timetableIndex;
+
     @GetMapping("/{teacherId}")
     public TeacherProfileResponse getProfile(@PathVariable Long teacherId) {
         Teacher teacher = teacherRepository.findById(teacherId).orElseThrow();
@@ -89,6 +93,7 @@ public class TeacherProfileController {
         teacher.setProfilePicUrl(request.getProfilePicUrl());
 
         teacherRepository.save(teacher);
+        timetableIndex.rebuild(); // the timetable pages show the teacher's name
         return ResponseEntity.ok("Profile updated");
     }
 
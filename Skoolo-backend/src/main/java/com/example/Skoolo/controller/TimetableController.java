@@ -2,14 +2,15 @@ package com.example.Skoolo.controller;
 
 import com.example.Skoolo.dto.AssignTeacherSubjectRequest;
 import com.example.Skoolo.dto.TimetableEntryDto;
-import com.example.Skoolo.model.Subject;
-import com.example.Skoolo.repo.TimetableRepository;
 import com.example.Skoolo.service.TimetableService;
+import com.example.Skoolo.service.timetable.TimetableConflictException;
+import com.example.Skoolo.service.timetable.TimetableSlot;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,13 +23,17 @@ public class TimetableController {
 
     @Autowired
     private TimetableService timetableService;
-    @Autowired
-    private TimetableRepository timetableRepository;
 
     @PutMapping("/update")
     public ResponseEntity<?> updateTimetable(@RequestBody List<TimetableEntryDto> entries) {
-        timetableService.updateTimetable(entries);
-        return ResponseEntity.ok("Timetable updated successfully");
+        try {
+            int changed = timetableService.updateTimetable(entries);
+            return ResponseEntity.ok("Timetable updated successfully (" + changed + " periods changed)");
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (TimetableConflictException e) {
+            return conflict(e);
+        }
     }
 
     @PostMapping("/assign-teacher-to-subject")
@@ -43,18 +48,26 @@ public class TimetableController {
                     request.getTeacherId()
             );
             return ResponseEntity.ok("Teacher assigned to all matching subject rows.");
+        } catch (TimetableConflictException e) {
+            return conflict(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Assignment failed: " + e.getMessage());
         }
     }
 
+    // Teachers already booked in two sections at the same time
+    @GetMapping("/conflicts")
+    public ResponseEntity<?> getDoubleBookings() {
+        return ResponseEntity.ok(timetableService.getDoubleBookings());
+    }
+
     @GetMapping("/subjects")
     public ResponseEntity<?> getSubjectsByClassAndSection(
             @RequestParam Long classId,
             @RequestParam Long sectionId) {
 
-        List<Subject> subjects = timetableRepository.findSubjectsByClassAndSection(classId, sectionId);
+        List<TimetableSlot.SubjectRef> subjects = timetableService.getSubjectsForSection(classId, sectionId);
 
         if (subjects.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -63,13 +76,18 @@ public class TimetableController {
 
         List<Map<String, Object>> response = subjects.stream().map(subject -> {
             Map<String, Object> subMap = new HashMap<>();
-            subMap.put("id", subject.getId());
-            subMap.put("subjectName", subject.getSubjectName());
+            subMap.put("id", subject.id());
+            subMap.put("subjectName", subject.subjectName());
             return subMap;
         }).collect(Collectors.toList());
 
         return ResponseEntity.ok(response);
     }
 
+    private ResponseEntity<?> conflict(TimetableConflictException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", e.getMessage());
+        body.put("conflicts", e.getConflicts());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
 }
-
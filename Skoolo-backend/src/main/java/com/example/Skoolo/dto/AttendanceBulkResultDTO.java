@@ -0,0 +1,14 @@
+package com.example.Skoolo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceBulkResultDTO {
+    private int inserted;
+    private int skipped; // already marked for that date, duplicated in the request, or unknown student
+    private String message;
+}
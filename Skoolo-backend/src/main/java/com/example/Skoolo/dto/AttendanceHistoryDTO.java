@@ -0,0 +1,20 @@
+package com.example.Skoolo.dto;
+
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+public class AttendanceHistoryDTO {
+    private Long studentId;
+    private LocalDate from;
+    private LocalDate to;
+    private Map<String, String> months = new LinkedHashMap<>(); // "2025-06" -> one char per day: P, T (late), A, L (leave), '-'
+    private int currentStreak;         // consecutive school days present or late, up to the latest record
+    private int longestAbsenceStreak;
+    private LocalDate lastAbsence;
+    private Map<DayOfWeek, Integer> absencesByWeekday;
+}
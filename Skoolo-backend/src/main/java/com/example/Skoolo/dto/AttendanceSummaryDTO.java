@@ -0,0 +1,45 @@
+package com.example.Skoolo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class AttendanceSummaryDTO {
+    private Long studentId;
+    private Long sectionId;
+    private LocalDate from;
+    private LocalDate to;
+    private int present;
+    private int absent;
+    private int late;
+    private int leave;
+    private int total;
+    private double percentage; // (present + late) / total, rounded to one decimal
+    private List<Bucket> breakdown = new ArrayList<>(); // one entry per month (student) or per day (section)
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private LocalDate start;
+        private int present;
+        private int absent;
+        private int late;
+        private int leave;
+    }
+
+    public void add(Bucket bucket) {
+        breakdown.add(bucket);
+        present += bucket.getPresent();
+        absent += bucket.getAbsent();
+        late += bucket.getLate();
+        leave += bucket.getLeave();
+        total = present + absent + late + leave;
+        percentage = total == 0 ? 0 : Math.round((present + late) * 1000.0 / total) / 10.0;
+    }
+}
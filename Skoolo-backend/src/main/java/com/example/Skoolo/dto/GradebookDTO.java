@@ -0,0 +1,42 @@
+package com.example.Skoolo.dto;
+
+import lombok.Data;
+
+/**
+ * Columnar gradebook for one section and exam: every per-student or per-subject field is an array
+ * indexed like {@code students.ids} or {@code subjects.ids}, and {@code marks[s][j]} is student s's
+ * mark in subject j (null when not entered). Percentages are rounded to one decimal.
+ */
+@Data
+public class GradebookDTO {
+    private Long sectionId;
+    private String examName;
+    private String academicYear;
+    private Subjects subjects = new Subjects();
+    private Students students = new Students();
+    private Integer[][] marks;
+    private int[] maxMarks; // per subject, as entered on the first mark seen
+
+    @Data
+    public static class Subjects {
+        private long[] ids;
+        private String[] names;
+        private int[] entered;      // students with a mark
+        private double[] average;   // percentage
+        private double[] highest;
+        private double[] lowest;
+        private double[] median;
+    }
+
+    @Data
+    public static class Students {
+        private long[] ids;
+        private String[] names;
+        private int[] total;
+        private int[] maxTotal;
+        private double[] percentage;
+        private String[] grade;
+        private int[] rank;         // 1, 2, 2, 4 on ties
+        private double[] percentile; // share of the section scoring lower, ties counted half
+    }
+}
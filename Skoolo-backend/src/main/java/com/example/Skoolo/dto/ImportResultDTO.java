@@ -0,0 +1,27 @@
+package com.example.Skoolo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportResultDTO {
+    private int totalRows;
+    private int imported;
+    private int skipped;
+    private int failed;
+    private long elapsedMillis;
+    private String message;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int row;
+        private String message;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.Skoolo.dto;
+
+import com.example.Skoolo.model.LeaveRequest;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class LeaveRequestDTO {
+    private Long id;
+    private Long studentId;
+    private String studentName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String reason;
+    private String status;
+    private LocalDateTime createdAt;
+    private String reviewedBy;
+    private LocalDateTime reviewedAt;
+
+    public LeaveRequestDTO(LeaveRequest request) {
+        this.id = request.getId();
+        this.studentId = request.getStudent().getId();
+        this.studentName = request.getStudent().getFullName();
+        this.startDate = request.getLeaveStartDate();
+        this.endDate = request.getLeaveEndDate();
+        this.reason = request.getReason();
+        this.status = request.getStatus();
+        this.createdAt = request.getCreatedAt();
+        this.reviewedBy = request.getReviewedBy() != null ? request.getReviewedBy().getFullName() : null;
+        this.reviewedAt = request.getReviewedAt();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.Skoolo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+public class MarkAnalyticsDTO {
+    private String academicYear;
+    private String examName;
+    private Long classId;
+    private String className;
+    private Long sectionId;     // null when rolled up to the class
+    private String sectionName;
+    private Long subjectId;
+    private String subjectName;
+    private int count;
+    private double average;     // percentage, one decimal
+    private double passRate;    // share of marks at or above the pass mark, one decimal
+    private Map<String, Integer> grades = new LinkedHashMap<>();
+
+    // Kept unrounded so class-level rows can be summed from section rows
+    @JsonIgnore
+    private double percentSum;
+    @JsonIgnore
+    private int passCount;
+}
@@ -0,0 +1,27 @@
+package com.example.Skoolo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class MarkSaveResultDTO {
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int rejected;
+    private List<RowOutcome> rows = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowOutcome {
+        private int index; // position in the request body
+        private Long studentId;
+        private String outcome; // inserted, updated, unchanged, rejected
+        private String message;
+    }
+}
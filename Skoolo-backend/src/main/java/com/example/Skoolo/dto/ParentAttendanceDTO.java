@@ -0,0 +1,29 @@
+package com.example.Skoolo.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ParentAttendanceDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private List<ChildSummary> summary = new ArrayList<>();
+    private List<AttendanceDTO> records = new ArrayList<>();
+    private String nextCursor; // null on the last page
+
+    @Data
+    public static class ChildSummary {
+        private Long studentId;
+        private String studentName;
+        private int present;
+        private int absent;
+        private int late;
+        private int leave;
+        private double percentage;
+        private int currentStreak; // school days present or late up to the latest record
+        private LocalDate lastAbsence;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.Skoolo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegradeResultDTO {
+    private long scanned;
+    private long changed;
+    private long elapsedMillis;
+}
@@ -0,0 +1,25 @@
+package com.example.Skoolo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportCardJobDTO {
+    private String jobId;
+    private Long classId;
+    private Long sectionId;
+    private String academicYear;
+    private String state; // RUNNING, DONE
+    private int total;
+    private int generated;
+    private int failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<String> errors;
+}
@@ -0,0 +1,25 @@
+package com.example.Skoolo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollCallDTO {
+    private String markedBy; // null when no roll call was taken that day
+    private List<Entry> entries = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    public static class Entry {
+        private Long studentId;
+        private String firstName;
+        private String lastName;
+        private String status;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.Skoolo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeacherMarkDTO {
+    private Long markId;
+    private Long studentId;
+    private String studentName;
+    private Long subjectId;
+    private String subjectName;
+    private Long classId;
+    private String className;
+    private Long sectionId;
+    private String sectionName;
+    private String examName;
+    private String academicYear;
+    private int marksObtained;
+    private int maxMarks;
+    private String grade;
+}
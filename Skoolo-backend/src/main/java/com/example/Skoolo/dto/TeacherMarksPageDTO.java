@@ -0,0 +1,17 @@
+package com.example.Skoolo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeacherMarksPageDTO {
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private List<TeacherMarkDTO> marks;
+}
@@ -15,5 +15,7 @@ public class TimetableEntryDto {
 
     private String className;     // ✅ Add this
     private String sectionName;
+
+    private Long version; // as loaded; null skips the conflict check
 }
 
@@ -0,0 +1,37 @@
+package com.example.Skoolo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A chronic-absence rule that fired for a student; the unique key stops the nightly job repeating itself
+@Entity
+@Table(name = "absence_alerts", uniqueConstraints = @UniqueConstraint(
+        name = "uk_absence_alert", columnNames = {"student_id", "rule", "period_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AbsenceAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    private String rule; // CONSECUTIVE_ABSENCES, LOW_ATTENDANCE
+
+    @Column(name = "period_key")
+    private String periodKey; // streak start date, or ISO week for the percentage rule
+
+    private String detail;
+
+    private LocalDate lastDate; // latest attendance day the rule looked at
+
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,6 @@
 package com.example.Skoolo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -11,7 +12,13 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "attendance")
+@Table(name = "attendance", uniqueConstraints = @UniqueConstraint(
+        name = "uk_attendance_student_date", columnNames = {"student_id", "date"}),
+        indexes = {
+                @Index(name = "idx_attendance_student_date_desc", columnList = "student_id, date DESC"),
+                // roll-call lookups and section rollups read only these columns, so they never touch the heap
+                @Index(name = "idx_attendance_section_date", columnList = "section_id, date, student_id, status")
+        })
 public class Attendance {
 
     @Id
@@ -29,6 +36,17 @@ public class Attendance {
     @JoinColumn(name = "marked_by_teacher_id")
     private Teacher markedBy;
 
+    // Class and section at marking time, so history stays correct after promotions
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "class_id")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "sections"})
+    private ClassEntity classEntity;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "section_id")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "classEntity", "classTeacher"})
+    private Section section;
+
 
 }
 
@@ -0,0 +1,20 @@
+package com.example.Skoolo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class GradeBand {
+
+    @Column(name = "min_percent", nullable = false)
+    private double minPercent; // lowest percentage that still earns this grade
+
+    @Column(nullable = false, length = 10)
+    private String grade;
+}
@@ -0,0 +1,39 @@
+package com.example.Skoolo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Percent-to-grade bands for one scope. A scheme with both class and year set wins over one with
+ * only the class, then only the year; a scheme with neither is the school default.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "grading_schemes")
+public class GradingScheme {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String name;
+
+    private String academicYear; // null = every year
+
+    @Column(name = "class_id")
+    private Long classId; // null = every class
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "grading_scheme_bands", joinColumns = @JoinColumn(name = "scheme_id"))
+    private List<GradeBand> bands = new ArrayList<>();
+
+    private LocalDateTime updatedAt;
+}
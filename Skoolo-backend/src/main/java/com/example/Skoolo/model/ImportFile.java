@@ -0,0 +1,30 @@
+package com.example.Skoolo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Fingerprint of a spreadsheet that was imported cleanly, used to short-circuit identical re-uploads
+@Entity
+@Table(name = "import_files", indexes = @Index(name = "idx_import_file_scope_hash", columnList = "scope, content_hash"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String scope; // e.g. students:<classId>:<sectionId>, teachers
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    private int totalRows;
+
+    private LocalDateTime importedAt;
+}
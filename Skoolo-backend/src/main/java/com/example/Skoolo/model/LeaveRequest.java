@@ -6,12 +6,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "leave_requests")
+@Table(name = "leave_requests", indexes = @Index(name = "idx_leave_student_status", columnList = "student_id, status"))
 public class LeaveRequest {
 
     @Id
@@ -21,10 +22,18 @@ public class LeaveRequest {
     private LocalDate leaveStartDate;
     private LocalDate leaveEndDate;
     private String reason;
-    private String status; // pending, approved, rejected
+    private String status; // pending, approved, rejected, cancelled
 
     @ManyToOne
     private Student student;
 
+    private LocalDateTime createdAt;
+
+    @ManyToOne
+    @JoinColumn(name = "reviewed_by_teacher_id")
+    private Teacher reviewedBy; // class teacher who approved or rejected
+
+    private LocalDateTime reviewedAt;
+
 }
 
@@ -10,7 +10,13 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "marks")
+@Table(name = "marks", uniqueConstraints = @UniqueConstraint(name = "uk_marks_student_exam",
+        columnNames = {"student_id", "subject_id", "class_entity_id", "section_id", "exam_name", "academic_year"}),
+        indexes = {
+                @Index(name = "idx_marks_subject_section",
+                        columnList = "subject_id, class_entity_id, section_id, academic_year, exam_name"),
+                @Index(name = "idx_marks_section_exam", columnList = "section_id, academic_year, exam_name")
+        })
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Mark {
 
@@ -0,0 +1,40 @@
+package com.example.Skoolo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Grade distribution for the same groups as MarkStats, one row per grade
+@Entity
+@Table(name = "mark_grade_stats", uniqueConstraints = @UniqueConstraint(name = "uk_mark_grade_stats",
+        columnNames = {"academic_year", "exam_name", "class_id", "section_id", "subject_id", "grade"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkGradeStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String academicYear;
+
+    @Column(nullable = false)
+    private String examName;
+
+    @Column(name = "class_id", nullable = false)
+    private Long classId;
+
+    @Column(name = "section_id", nullable = false)
+    private Long sectionId;
+
+    @Column(name = "subject_id", nullable = false)
+    private Long subjectId;
+
+    @Column(nullable = false, length = 10)
+    private String grade;
+
+    private int markCount;
+}
@@ -0,0 +1,39 @@
+package com.example.Skoolo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Running totals of marks per exam, section and subject, maintained by every statement that writes marks
+@Entity
+@Table(name = "mark_stats", uniqueConstraints = @UniqueConstraint(name = "uk_mark_stats",
+        columnNames = {"academic_year", "exam_name", "class_id", "section_id", "subject_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String academicYear;
+
+    @Column(nullable = false)
+    private String examName;
+
+    @Column(name = "class_id", nullable = false)
+    private Long classId;
+
+    @Column(name = "section_id", nullable = false)
+    private Long sectionId;
+
+    @Column(name = "subject_id", nullable = false)
+    private Long subjectId;
+
+    private int markCount;
+    private double percentSum; // sum of marks_obtained / max_marks * 100
+    private int passCount;     // marks at or above skoolo.marks.pass-percent
+}
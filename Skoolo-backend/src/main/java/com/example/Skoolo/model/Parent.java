@@ -1,5 +1,6 @@
 package com.example.Skoolo.model;
 
+import com.example.Skoolo.config.IdSequences;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -16,7 +17,8 @@ import java.util.List;
 public class Parent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parents_seq")
+    @SequenceGenerator(name = "parents_seq", sequenceName = "parents_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @OneToOne
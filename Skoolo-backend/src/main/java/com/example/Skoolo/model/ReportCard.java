@@ -5,11 +5,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "report_cards")
+@Table(name = "report_cards", uniqueConstraints = @UniqueConstraint(
+        name = "uk_report_card_student_year", columnNames = {"student_id", "academic_year"}))
 public class ReportCard {
 
     @Id
@@ -18,6 +21,8 @@ public class ReportCard {
 
     private String academicYear;
     private String pdfUrl;
+    private String publicId; // Cloudinary id, overwritten when the card is regenerated
+    private LocalDateTime generatedAt;
 
     @ManyToOne
     private Student student;
@@ -0,0 +1,33 @@
+package com.example.Skoolo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Rollup of attendance per section per school day, maintained by AttendanceService.markAttendanceBulk
+@Entity
+@Table(name = "attendance_section_day", uniqueConstraints = @UniqueConstraint(
+        name = "uk_attendance_section_day", columnNames = {"section_id", "day"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SectionDailyAttendance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "section_id", nullable = false)
+    private Long sectionId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    private int presentCount;
+    private int absentCount;
+    private int lateCount;
+    private int leaveCount;
+}
@@ -1,6 +1,8 @@
 package com.example.Skoolo.model;
 
+import com.example.Skoolo.config.IdSequences;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDate;
@@ -9,6 +11,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+// The natural-key lookup uses an expression index, created by StudentService.createNaturalKeyIndex
 @Table(name = "students")
 @Data
 @NoArgsConstructor
@@ -16,7 +19,8 @@ import lombok.NoArgsConstructor;
 public class Student {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "students_seq")
+    @SequenceGenerator(name = "students_seq", sequenceName = "students_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @OneToOne
@@ -54,6 +58,10 @@ public class Student {
     @Column(name = "photo_url")
     private String photoUrl; // Path or URL to the current ID card picture
 
+    @JsonIgnore
+    @Column(name = "import_hash", length = 64)
+    private String importHash; // hash of the spreadsheet row this student was last imported from
+
 
     // ✅ Add this method to get full name
     public String getFullName() {
@@ -0,0 +1,40 @@
+package com.example.Skoolo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Rollup of attendance per student per calendar month, maintained by AttendanceService.markAttendanceBulk
+@Entity
+@Table(name = "attendance_student_month", uniqueConstraints = @UniqueConstraint(
+        name = "uk_attendance_student_month", columnNames = {"student_id", "month_start"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentMonthlyAttendance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId; // plain id: rollups are read by key and never need the Student graph
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart; // first day of the month
+
+    private int presentCount;
+    private int absentCount;
+    private int lateCount;
+    private int leaveCount;
+
+    // Day d (1-based) occupies bits 2(d-1)..2(d-1)+1; decoded by AttendanceBitmap
+    @Column(name = "status_bits", columnDefinition = "bigint not null default 0")
+    private long statusBits;
+
+    @Column(name = "marked_days", columnDefinition = "integer not null default 0")
+    private int markedDays; // bit d-1 set when day d has a record
+}
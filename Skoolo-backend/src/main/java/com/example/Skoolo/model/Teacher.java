@@ -1,5 +1,6 @@
 package com.example.Skoolo.model;
 
+import com.example.Skoolo.config.IdSequences;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
@@ -19,7 +20,8 @@ import lombok.NoArgsConstructor;
 public class Teacher {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "teachers_seq")
+    @SequenceGenerator(name = "teachers_seq", sequenceName = "teachers_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @OneToOne
@@ -56,6 +58,10 @@ public class Teacher {
 
     private String profilePicUrl; // New field
 
+    @JsonIgnore
+    @Column(name = "import_hash", length = 64)
+    private String importHash; // hash of the spreadsheet row this teacher was last imported from
+
     public String getFullName() {
         return firstName + " " + lastName;
     }
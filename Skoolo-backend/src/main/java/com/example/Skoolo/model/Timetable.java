@@ -6,7 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "timetables")
+@Table(name = "timetables", uniqueConstraints = @UniqueConstraint(
+        name = "uk_timetable_section_slot", columnNames = {"section_id", "day_of_week", "period"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,4 +26,9 @@ public class Timetable {
     @ManyToOne private Section section;
     @ManyToOne private Subject subject;
     @ManyToOne private Teacher teacher;
+
+    // Bumped on every update; grid edits are rejected when the cell changed since it was loaded
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
@@ -1,5 +1,6 @@
 package com.example.Skoolo.model;
 
+import com.example.Skoolo.config.IdSequences;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,7 +15,8 @@ import com.example.Skoolo.model.enums.Role;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     private String email;
@@ -0,0 +1,10 @@
+package com.example.Skoolo.repo;
+
+import com.example.Skoolo.model.AbsenceAlert;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AbsenceAlertRepository extends JpaRepository<AbsenceAlert, Long> {
+    List<AbsenceAlert> findByCreatedAtAfterOrderByCreatedAtDesc(LocalDateTime after);
+}
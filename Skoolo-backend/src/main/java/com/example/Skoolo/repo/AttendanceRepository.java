@@ -1,17 +1,53 @@
 package com.example.Skoolo.repo;
 
+import com.example.Skoolo.dto.AttendanceDTO;
+import com.example.Skoolo.dto.RollCallDTO;
 import com.example.Skoolo.model.Attendance;
-import com.example.Skoolo.model.Student;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
 
     boolean existsByStudentIdAndDate(Long studentId, LocalDate date);
-    List<Attendance> findByStudent_CurrentClass_IdAndStudent_CurrentSection_IdAndDate(Long classId, Long sectionId, LocalDate date);
 
-    List<Attendance> findByStudentInOrderByDateDesc(List<Student> students);
+    // Uses the section snapshot taken at marking time, not the student's current section, so students who
+    // have since moved still appear on the day they were marked; idx_attendance_section_date finds the rows
+    @Query("SELECT new com.example.Skoolo.dto.RollCallDTO$Entry(s.id, s.firstName, s.lastName, a.status) "
+            + "FROM Attendance a JOIN a.student s "
+            + "WHERE a.section.id = :sectionId AND a.date = :date ORDER BY s.firstName, s.lastName, s.id")
+    List<RollCallDTO.Entry> findRollCall(@Param("sectionId") Long sectionId, @Param("date") LocalDate date);
+
+    @Query("SELECT CONCAT(t.firstName, ' ', t.lastName) FROM Attendance a JOIN a.markedBy t "
+            + "WHERE a.section.id = :sectionId AND a.date = :date")
+    List<String> findRollCallTeacher(@Param("sectionId") Long sectionId, @Param("date") LocalDate date, Pageable page);
+
+    // Oldest recorded day across the students; one index probe per student on idx_attendance_student_date_desc
+    @Query("SELECT MIN(a.date) FROM Attendance a WHERE a.student.id IN :studentIds")
+    LocalDate findFirstDate(@Param("studentIds") Collection<Long> studentIds);
+
+    // Keyset pages over (date DESC, id DESC), served by idx_attendance_student_date_desc
+    String PAGE_SELECT = """
+            SELECT new com.example.Skoolo.dto.AttendanceDTO(a.id, a.date, a.status,
+                   TRIM(CONCAT(COALESCE(s.firstName, ''), ' ', COALESCE(s.lastName, ''))),
+                   COALESCE(CONCAT(t.firstName, ' ', t.lastName), 'N/A'))
+            FROM Attendance a JOIN a.student s LEFT JOIN a.markedBy t
+            WHERE s.id IN :studentIds AND a.date BETWEEN :from AND :to
+            """;
+
+    @Query(PAGE_SELECT + " ORDER BY a.date DESC, a.id DESC")
+    List<AttendanceDTO> findPage(@Param("studentIds") Collection<Long> studentIds, @Param("from") LocalDate from,
+                                 @Param("to") LocalDate to, Pageable page);
+
+    @Query(PAGE_SELECT + " AND (a.date < :cursorDate OR (a.date = :cursorDate AND a.id < :cursorId))"
+            + " ORDER BY a.date DESC, a.id DESC")
+    List<AttendanceDTO> findPageAfter(@Param("studentIds") Collection<Long> studentIds, @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to, @Param("cursorDate") LocalDate cursorDate,
+                                      @Param("cursorId") Long cursorId, Pageable page);
 }
@@ -0,0 +1,7 @@
+package com.example.Skoolo.repo;
+
+import com.example.Skoolo.model.GradingScheme;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface GradingSchemeRepository extends JpaRepository<GradingScheme, Long> {
+}
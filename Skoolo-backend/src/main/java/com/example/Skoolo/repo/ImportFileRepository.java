@@ -0,0 +1,9 @@
+package com.example.Skoolo.repo;
+
+import com.example.Skoolo.model.ImportFile;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ImportFileRepository extends JpaRepository<ImportFile, Long> {
+    Optional<ImportFile> findFirstByScopeAndContentHash(String scope, String contentHash);
+}
@@ -0,0 +1,29 @@
+package com.example.Skoolo.repo;
+
+import com.example.Skoolo.model.LeaveRequest;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long> {
+
+    List<LeaveRequest> findByStudent_Parent_IdOrderByLeaveStartDateDesc(Long parentId);
+
+    // Requests from the sections this teacher is class teacher of
+    @Query("SELECT l FROM LeaveRequest l JOIN FETCH l.student s "
+            + "WHERE s.currentSection.classTeacher.id = :teacherId AND l.status = :status ORDER BY l.leaveStartDate")
+    List<LeaveRequest> findForClassTeacher(@Param("teacherId") Long teacherId, @Param("status") String status);
+
+    boolean existsByStudent_IdAndStatusAndLeaveStartDateLessThanEqualAndLeaveEndDateGreaterThanEqual(
+            Long studentId, String status, LocalDate end, LocalDate start);
+
+    // studentId, start, end of every approved leave, for LeaveIndex
+    @Query("SELECT l.student.id, l.leaveStartDate, l.leaveEndDate FROM LeaveRequest l WHERE l.status = 'approved'")
+    List<Object[]> findApprovedIntervals();
+
+    @Query("SELECT l.student.id, l.leaveStartDate, l.leaveEndDate FROM LeaveRequest l "
+            + "WHERE l.status = 'approved' AND l.student.id = :studentId")
+    List<Object[]> findApprovedIntervals(@Param("studentId") Long studentId);
+}
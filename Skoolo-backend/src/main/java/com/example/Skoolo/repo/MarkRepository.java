@@ -1,9 +1,12 @@
 package com.example.Skoolo.repo;
 
+import com.example.Skoolo.dto.TeacherMarkDTO;
 import com.example.Skoolo.model.Mark;
-import com.example.Skoolo.model.Student;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,15 +15,26 @@ public interface MarkRepository extends JpaRepository<Mark, Long> {
     Optional<Mark> findByStudent_IdAndSubject_IdAndClassEntity_IdAndSection_IdAndExamNameAndAcademicYear(
             Long studentId, Long subjectId, Long classEntityId, Long sectionId, String examName, String academicYear);
 
-    List<Mark> findBySubject_IdAndClassEntity_IdAndSection_Id(
-            Long subjectId, Long classId, Long sectionId);
-
-
-    @Query("SELECT m FROM Mark m " +
-            "JOIN FETCH m.student s " +
-            "JOIN FETCH m.subject subj " +
-            "WHERE m.student IN :students")
-    List<Mark> findByStudentInWithDetails(@Param("students") List<Student> students);
-
+    // Keys of the marks already stored for these students and exams, to tell inserts from updates
+    @Query("SELECT m.student.id, m.subject.id, m.classEntity.id, m.section.id, m.examName, m.academicYear FROM Mark m "
+            + "WHERE m.student.id IN :studentIds AND m.examName IN :examNames AND m.academicYear IN :years")
+    List<Object[]> findKeys(@Param("studentIds") Collection<Long> studentIds,
+                            @Param("examNames") Collection<String> examNames,
+                            @Param("years") Collection<String> years);
 
+    // Marks of every subject/class/section the teacher is assigned to, flattened for the grades page
+    @Query("""
+            SELECT new com.example.Skoolo.dto.TeacherMarkDTO(m.id, st.id,
+                   TRIM(CONCAT(COALESCE(st.firstName, ''), ' ', COALESCE(st.lastName, ''))),
+                   sub.id, sub.subjectName, c.id, c.className, sec.id, sec.sectionName,
+                   m.examName, m.academicYear, m.marksObtained, m.maxMarks, m.grade)
+            FROM Mark m JOIN m.student st JOIN m.subject sub JOIN m.classEntity c JOIN m.section sec
+            WHERE EXISTS (SELECT 1 FROM TeacherSubjectAssignment a
+                          WHERE a.teacher.id = :teacherId AND a.subject = sub AND a.classEntity = c AND a.section = sec)
+              AND (:examName IS NULL OR m.examName = :examName)
+              AND (:academicYear IS NULL OR m.academicYear = :academicYear)
+            ORDER BY m.academicYear DESC, m.examName, c.className, sec.sectionName, sub.subjectName, st.firstName, m.id
+            """)
+    Slice<TeacherMarkDTO> findTeacherMarks(@Param("teacherId") Long teacherId, @Param("examName") String examName,
+                                          @Param("academicYear") String academicYear, Pageable page);
 }
@@ -2,6 +2,7 @@ package com.example.Skoolo.repo;
 
 import com.example.Skoolo.model.Parent;
 import com.example.Skoolo.model.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -32,6 +33,9 @@ public interface ParentRepository extends JpaRepository<Parent, Long> {
 
     Optional<Parent> findOptionalByUserId(Long id);
 
+    @Query("SELECT p FROM Parent p JOIN FETCH p.user u WHERE u.email IN :emails")
+    List<Parent> findByUserEmailIn(@Param("emails") Collection<String> emails);
+
 
 
 }
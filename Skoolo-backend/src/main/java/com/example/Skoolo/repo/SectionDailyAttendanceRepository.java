@@ -0,0 +1,10 @@
+package com.example.Skoolo.repo;
+
+import com.example.Skoolo.model.SectionDailyAttendance;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SectionDailyAttendanceRepository extends JpaRepository<SectionDailyAttendance, Long> {
+    List<SectionDailyAttendance> findBySectionIdAndDayBetweenOrderByDay(Long sectionId, LocalDate from, LocalDate to);
+}
@@ -30,5 +30,8 @@ public interface SectionRepository extends JpaRepository<Section, Long> {
     boolean existsByClassTeacher(Teacher teacher);
 
     List<Section> findAllByClassTeacherId(Long teacherId);
+
+    @Query("SELECT s FROM Section s JOIN FETCH s.classEntity")
+    List<Section> findAllWithClass();
 }
 
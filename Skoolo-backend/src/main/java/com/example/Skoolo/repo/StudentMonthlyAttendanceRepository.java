@@ -0,0 +1,10 @@
+package com.example.Skoolo.repo;
+
+import com.example.Skoolo.model.StudentMonthlyAttendance;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StudentMonthlyAttendanceRepository extends JpaRepository<StudentMonthlyAttendance, Long> {
+    List<StudentMonthlyAttendance> findByStudentIdAndMonthStartBetweenOrderByMonthStart(Long studentId, LocalDate from, LocalDate to);
+}
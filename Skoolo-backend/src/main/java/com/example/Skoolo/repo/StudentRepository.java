@@ -3,9 +3,12 @@ package com.example.Skoolo.repo;
 import com.example.Skoolo.model.ClassEntity;
 import com.example.Skoolo.model.Section;
 import com.example.Skoolo.model.Student;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -32,6 +35,32 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
 
     List<Student> findByParentId(Long parentId);
 
+    // id, firstName, lastName, classId, sectionId of a parent's children, without loading the entities
+    @Query("SELECT s.id, s.firstName, s.lastName, s.currentClass.id, s.currentSection.id FROM Student s "
+            + "WHERE s.parent.id = :parentId ORDER BY s.id")
+    List<Object[]> findChildSummaries(@Param("parentId") Long parentId);
+
+    // Candidates for the (firstName, lastName, dob, parentEmail) natural key; first names are matched
+    // case-insensitively, so pass them trimmed and lower-cased
+    @Query("SELECT s FROM Student s WHERE s.dob IN :dobs AND lower(trim(s.firstName)) IN :firstNames")
+    List<Student> findNaturalKeyCandidates(@Param("firstNames") Collection<String> firstNames,
+                                           @Param("dobs") Collection<LocalDate> dobs);
+
+    // firstName, lastName, dob, parentEmail, importHash — snapshot for dry-run imports
+    @Query("SELECT s.firstName, s.lastName, s.dob, s.parentEmail, s.importHash FROM Student s")
+    List<Object[]> findImportKeys();
+
+    // Set-based version of "match unmatched students" for bulk imports
+    @Modifying
+    @Query(value = """
+            UPDATE students s SET parent_id = p.id
+            FROM parents p JOIN users u ON u.id = p.user_id
+            WHERE s.parent_id IS NULL
+              AND s.parent_email = u.email
+              AND u.email IN (:emails)
+            """, nativeQuery = true)
+    int linkUnmatchedToParents(@Param("emails") Collection<String> emails);
+
 
 }
 
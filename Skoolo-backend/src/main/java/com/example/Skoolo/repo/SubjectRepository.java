@@ -11,6 +11,5 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
 
     Optional<Subject> findBySubjectNameIgnoreCase(String subjectName);
 
-    Subject findBySubjectName(String subjectName);
 
 }
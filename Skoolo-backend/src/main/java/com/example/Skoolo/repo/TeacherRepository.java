@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -21,4 +22,11 @@ public interface TeacherRepository extends JpaRepository<Teacher, Long> {
     Optional<Teacher> findById(Long id);
 
     Teacher findByUserId(Long id);
+
+    // email, importHash — snapshot for dry-run imports
+    @Query("SELECT u.email, t.importHash FROM Teacher t JOIN t.user u")
+    List<Object[]> findImportHashes();
+
+    @Query("SELECT t FROM Teacher t JOIN FETCH t.user u WHERE u.email IN :emails")
+    List<Teacher> findByUserEmailIn(@Param("emails") Collection<String> emails);
 }
@@ -5,6 +5,7 @@ import com.example.Skoolo.model.TeacherSubjectAssignment;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -16,5 +17,11 @@ public interface TeacherSubjectAssignmentRepository extends JpaRepository<Teache
     List<TeacherSubjectAssignment> findByTeacher_Id(Long teacherId);
 
     List<TeacherSubjectAssignment> findByTeacherId(Long teacherId);
+
+    List<TeacherSubjectAssignment> findBySection_Id(Long sectionId);
+
+    // Columns: sectionId, subjectId, teacherId; oldest assignment first
+    @Query("SELECT a.section.id, a.subject.id, a.teacher.id FROM TeacherSubjectAssignment a ORDER BY a.id")
+    List<Object[]> findAllKeys();
 }
 
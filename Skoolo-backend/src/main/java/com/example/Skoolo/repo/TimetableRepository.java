@@ -1,14 +1,10 @@
 package com.example.Skoolo.repo;
 
-import com.example.Skoolo.model.ClassEntity;
-import com.example.Skoolo.model.Section;
-import com.example.Skoolo.model.Subject;
 import com.example.Skoolo.model.Timetable;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 
 public interface TimetableRepository extends JpaRepository<Timetable, Long> {
 
@@ -16,24 +12,19 @@ public interface TimetableRepository extends JpaRepository<Timetable, Long> {
 
     Optional<Timetable> findByDayOfWeekAndPeriod(String dayOfWeek, String period);
 
-    Optional<Timetable> findByDayOfWeekAndPeriodAndClassEntityIdAndSectionId(
-            String dayOfWeek,
-            String period,
-            Long classId,
-            Long sectionId
-    );
-
 
     List<Timetable> findByClassEntityIdAndSectionIdAndSubjectId(Long classId, Long sectionId, Long subjectId);
 
 
-    List<Timetable> findByTeacherId(Long teacherId);
-
     Optional<Timetable> findByDayOfWeekAndPeriodAndClassEntity_IdAndSection_Id(String dayOfWeek, String period, Long classId, Long sectionId);
 
-    List<Timetable> findByClassEntityAndSection(ClassEntity classEntity, Section section);
+    // sectionId, classId, dayOfWeek, period, startTime, endTime, teacherId, then the names the timetable pages show:
+    // id, className, sectionName, subjectId, subjectName, teacher firstName, lastName, version. Everything TimetableIndex needs
+    @Query("SELECT s.id, c.id, t.dayOfWeek, t.period, t.startTime, t.endTime, te.id, t.id, c.className, "
+            + "s.sectionName, sub.id, sub.subjectName, te.firstName, te.lastName, t.version FROM Timetable t "
+            + "LEFT JOIN t.section s LEFT JOIN t.classEntity c LEFT JOIN t.teacher te LEFT JOIN t.subject sub "
+            + "ORDER BY s.id, t.dayOfWeek, t.period")
+    List<Object[]> findAllSlots();
 
-    @Query("SELECT DISTINCT t.subject FROM Timetable t WHERE t.classEntity.id = :classId AND t.section.id = :sectionId")
-    List<Subject> findSubjectsByClassAndSection(@Param("classId") Long classId, @Param("sectionId") Long sectionId);
 
 }
@@ -2,8 +2,12 @@ package com.example.Skoolo.repo;
 
 import com.example.Skoolo.model.User;
 import com.example.Skoolo.model.enums.Role;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -14,6 +18,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
 
     boolean existsByRole(Role role);
+
+    List<User> findByEmailIn(Collection<String> emails);
+
+    @Query("SELECT u.email FROM User u")
+    List<String> findAllEmails();
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
 
 
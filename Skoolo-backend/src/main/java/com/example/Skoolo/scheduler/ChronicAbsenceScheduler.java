@@ -0,0 +1,23 @@
+package com.example.Skoolo.scheduler;
+
+import com.example.Skoolo.service.AbsenceAlertService;
+import java.time.LocalDate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ChronicAbsenceScheduler {
+
+    private final AbsenceAlertService absenceAlertService;
+
+    @Scheduled(cron = "${skoolo.absence.cron:0 0 17 * * MON-FRI}") // after the school day, once roll calls are in
+    public void detectChronicAbsence() {
+        try {
+            absenceAlertService.detect(LocalDate.now());
+        } catch (Exception e) {
+            System.err.println("Chronic absence scan failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.model.AbsenceAlert;
+import com.example.Skoolo.repo.AbsenceAlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.*;
+
+/**
+ * Finds chronic absentees in one pass over recent attendance. Rows are streamed in
+ * (student, date) order through a forward-only cursor, so only the current student's
+ * counters are ever in memory. Each rule fires once per streak (or once per week for the
+ * percentage rule); new matches are stored in absence_alerts and pushed over STOMP to
+ * the parent and the class teacher on /topic/alerts/{userId}. A streak is keyed on the day it
+ * really began, looked up past the window when it started before it, so a streak longer than
+ * the window keeps one key and alerts once.
+ */
+@Service
+public class AbsenceAlertService {
+
+    private static final Logger log = LoggerFactory.getLogger(AbsenceAlertService.class);
+
+    public static final String CONSECUTIVE_ABSENCES = "CONSECUTIVE_ABSENCES";
+    public static final String LOW_ATTENDANCE = "LOW_ATTENDANCE";
+
+    private static final int FETCH_SIZE = 5_000;
+
+    private static final String SCAN = """
+            SELECT student_id, date, lower(status)
+            FROM attendance
+            WHERE date BETWEEN ? AND ?
+            ORDER BY student_id, date
+            """;
+
+    private static final String INSERT_ALERTS = """
+            INSERT INTO absence_alerts (student_id, rule, period_key, detail, last_date, created_at)
+            SELECT r.student_id, r.rule, r.period_key, r.detail, r.last_date, now()
+            FROM unnest(?::bigint[], ?::varchar[], ?::varchar[], ?::varchar[], ?::date[])
+                 AS r(student_id, rule, period_key, detail, last_date)
+            ON CONFLICT (student_id, rule, period_key) DO NOTHING
+            RETURNING student_id, rule
+            """;
+
+    // First day of the unbroken absence run that ends just before each student's cutoff (null if none):
+    // the earliest absence after the last day they were not absent. Both reads use idx_attendance_student_date_desc
+    private static final String STREAK_STARTS = """
+            SELECT r.student_id,
+                   (SELECT min(a.date) FROM attendance a
+                    WHERE a.student_id = r.student_id AND a.date < r.cutoff
+                      AND a.date > COALESCE((SELECT max(b.date) FROM attendance b
+                                             WHERE b.student_id = r.student_id AND b.date < r.cutoff
+                                               AND lower(b.status) <> 'absent'), '-infinity'::date))
+            FROM unnest(?::bigint[], ?::date[]) AS r(student_id, cutoff)
+            """;
+
+    // Only students still enrolled; parent and class teacher resolved to their user ids
+    private static final String RECIPIENTS = """
+            SELECT s.id, TRIM(COALESCE(s.first_name, '') || ' ' || COALESCE(s.last_name, '')), p.user_id, t.user_id
+            FROM students s
+            LEFT JOIN parents p ON p.id = s.parent_id
+            LEFT JOIN sections sec ON sec.id = s.section_id
+            LEFT JOIN teachers t ON t.id = sec.class_teacher_id
+            WHERE s.id = ANY(?) AND COALESCE(lower(s.status), 'active') = 'active'
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private AbsenceAlertRepository absenceAlertRepository;
+
+    @Value("${skoolo.absence.consecutive-days:5}")
+    private int consecutiveDays;
+
+    @Value("${skoolo.absence.min-percentage:75}")
+    private double minPercentage;
+
+    @Value("${skoolo.absence.window-days:30}")
+    private int windowDays;
+
+    @Value("${skoolo.absence.min-marked-days:10}")
+    private int minMarkedDays;
+
+    private final TransactionTemplate readOnlyTx;
+
+    public AbsenceAlertService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /** Runs every rule over the window ending {@code today}; returns the number of new alerts sent. */
+    public int detect(LocalDate today) {
+        long started = System.currentTimeMillis();
+        List<Match> matches = new ArrayList<>();
+        StudentScan scan = new StudentScan(today, matches);
+
+        // Postgres only streams with a fetch size inside a transaction
+        readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SCAN, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setObject(1, today.minusDays(windowDays - 1));
+            ps.setObject(2, today);
+            return ps;
+        }, rs -> {
+            scan.accept(rs.getLong(1), rs.getDate(2).toLocalDate(), rs.getString(3));
+        }));
+        scan.finish();
+
+        List<Match> fresh = record(keyStreaksOnTheirStart(matches));
+        notifyRecipients(fresh);
+        log.info("Absence scan: {} rows, {} matches, {} new alerts in {} ms",
+                scan.rows, matches.size(), fresh.size(), System.currentTimeMillis() - started);
+        return fresh.size();
+    }
+
+    // Streaks that were already running on the student's first day in the window may have begun before it
+    private List<Match> keyStreaksOnTheirStart(List<Match> matches) {
+        Map<Long, LocalDate> cutoffs = new HashMap<>();
+        for (Match match : matches) {
+            if (match.openAtWindowStart()) cutoffs.put(match.studentId(), LocalDate.parse(match.periodKey()));
+        }
+        if (cutoffs.isEmpty()) return matches;
+
+        Map<Long, LocalDate> starts = streakStarts(cutoffs);
+        List<Match> keyed = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            LocalDate start = match.openAtWindowStart() ? starts.get(match.studentId()) : null;
+            keyed.add(start == null ? match : new Match(match.studentId(), match.rule(), start.toString(),
+                    "Absent every school day since " + start, match.lastDate(), false));
+        }
+        return keyed;
+    }
+
+    Map<Long, LocalDate> streakStarts(Map<Long, LocalDate> cutoffs) {
+        Long[] studentIds = cutoffs.keySet().toArray(Long[]::new);
+        java.sql.Date[] dates = Arrays.stream(studentIds).map(id -> java.sql.Date.valueOf(cutoffs.get(id)))
+                .toArray(java.sql.Date[]::new);
+        Map<Long, LocalDate> starts = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STREAK_STARTS);
+            ps.setArray(1, con.createArrayOf("bigint", studentIds));
+            ps.setArray(2, con.createArrayOf("date", dates));
+            return ps;
+        }, rs -> {
+            java.sql.Date start = rs.getDate(2);
+            if (start != null) starts.put(rs.getLong(1), start.toLocalDate());
+        });
+        return starts;
+    }
+
+    public List<AbsenceAlert> getRecentAlerts(int days) {
+        return absenceAlertRepository.findByCreatedAtAfterOrderByCreatedAtDesc(LocalDateTime.now().minusDays(days));
+    }
+
+    // Stores all matches in one statement; the unique key filters out the ones already alerted
+    List<Match> record(List<Match> matches) {
+        if (matches.isEmpty()) return List.of();
+        int n = matches.size();
+        Long[] studentIds = new Long[n];
+        String[] rules = new String[n];
+        String[] keys = new String[n];
+        String[] details = new String[n];
+        java.sql.Date[] lastDates = new java.sql.Date[n];
+        for (int i = 0; i < n; i++) {
+            Match match = matches.get(i);
+            studentIds[i] = match.studentId();
+            rules[i] = match.rule();
+            keys[i] = match.periodKey();
+            details[i] = match.detail();
+            lastDates[i] = java.sql.Date.valueOf(match.lastDate());
+        }
+
+        Set<String> inserted = jdbcTemplate.execute((Connection con) -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_ALERTS)) {
+                ps.setArray(1, con.createArrayOf("bigint", studentIds));
+                ps.setArray(2, con.createArrayOf("varchar", rules));
+                ps.setArray(3, con.createArrayOf("varchar", keys));
+                ps.setArray(4, con.createArrayOf("varchar", details));
+                ps.setArray(5, con.createArrayOf("date", lastDates));
+                Set<String> keysInserted = new HashSet<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) keysInserted.add(rs.getLong(1) + "#" + rs.getString(2));
+                }
+                return keysInserted;
+            }
+        });
+        return matches.stream().filter(m -> inserted.contains(m.studentId() + "#" + m.rule())).toList();
+    }
+
+    private void notifyRecipients(List<Match> fresh) {
+        if (fresh.isEmpty()) return;
+        Long[] studentIds = fresh.stream().map(Match::studentId).distinct().toArray(Long[]::new);
+
+        Map<Long, Object[]> recipients = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RECIPIENTS);
+            ps.setArray(1, con.createArrayOf("bigint", studentIds));
+            return ps;
+        }, rs -> {
+            recipients.put(rs.getLong(1), new Object[]{rs.getString(2), rs.getObject(3), rs.getObject(4)});
+        });
+
+        for (Match match : fresh) {
+            Object[] to = recipients.get(match.studentId());
+            if (to == null) continue; // no longer active
+
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "ABSENCE_ALERT");
+            payload.put("rule", match.rule());
+            payload.put("studentId", match.studentId());
+            payload.put("studentName", to[0]);
+            payload.put("detail", match.detail());
+            payload.put("lastDate", match.lastDate().toString());
+
+            for (Object userId : new Object[]{to[1], to[2]}) {
+                if (userId == null) continue;
+                try {
+                    messagingTemplate.convertAndSend("/topic/alerts/" + userId, payload);
+                } catch (Exception e) {
+                    log.warn("Failed to push absence alert to user {}: {}", userId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Per-student counters for the single pass; reset whenever the cursor moves to the next student
+    private class StudentScan {
+        private final LocalDate today;
+        private final List<Match> matches;
+        private long studentId = -1;
+        private int marked;
+        private int attended;
+        private int absentRun;
+        private LocalDate runStart;
+        private LocalDate lastDate;
+        private long rows;
+
+        StudentScan(LocalDate today, List<Match> matches) {
+            this.today = today;
+            this.matches = matches;
+        }
+
+        void accept(long student, LocalDate date, String status) {
+            if (student != studentId) {
+                finish();
+                studentId = student;
+                marked = attended = absentRun = 0;
+                runStart = null;
+            }
+            rows++;
+            marked++;
+            lastDate = date;
+            if ("present".equals(status) || "late".equals(status)) attended++;
+            if ("absent".equals(status)) {
+                if (absentRun++ == 0) runStart = date;
+            } else {
+                absentRun = 0;
+            }
+        }
+
+        void finish() {
+            if (studentId < 0) return;
+            if (absentRun >= consecutiveDays) {
+                // every marked day so far was an absence, so the run may have started before the window
+                matches.add(new Match(studentId, CONSECUTIVE_ABSENCES, runStart.toString(),
+                        absentRun + " school days absent in a row since " + runStart, lastDate, absentRun == marked));
+            }
+            if (marked >= minMarkedDays) {
+                double percentage = Math.round(attended * 1000.0 / marked) / 10.0;
+                if (percentage < minPercentage) {
+                    String week = today.get(IsoFields.WEEK_BASED_YEAR) + "-W" + today.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+                    matches.add(new Match(studentId, LOW_ATTENDANCE, week,
+                            "Attendance " + percentage + "% over the last " + windowDays + " days", lastDate, false));
+                }
+            }
+            studentId = -1;
+        }
+    }
+
+    record Match(long studentId, String rule, String periodKey, String detail, LocalDate lastDate,
+                 boolean openAtWindowStart) {
+    }
+}
@@ -1,52 +1,419 @@
 package com.example.Skoolo.service;
 
+import com.example.Skoolo.dto.AttendanceBulkResultDTO;
+import com.example.Skoolo.dto.AttendanceDTO;
+import com.example.Skoolo.dto.AttendanceHistoryDTO;
 import com.example.Skoolo.dto.AttendanceRequestDto;
+import com.example.Skoolo.dto.AttendanceSummaryDTO;
+import com.example.Skoolo.dto.ParentAttendanceDTO;
+import com.example.Skoolo.dto.RollCallDTO;
 import com.example.Skoolo.model.*;
 import com.example.Skoolo.repo.*;
+import com.example.Skoolo.service.attendance.AttendanceBitmap;
+import com.example.Skoolo.service.attendance.LeaveIndex;
+import com.example.Skoolo.service.timetable.TimetableIndex;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
 import java.time.LocalDate;
-import java.time.format.TextStyle;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
 
 @Service
 public class AttendanceService {
 
+    private static final Logger log = LoggerFactory.getLogger(AttendanceService.class);
+
     @Autowired private AttendanceRepository attendanceRepository;
     @Autowired private StudentRepository studentRepository;
     @Autowired private TeacherRepository teacherRepository;
-    @Autowired private TimetableRepository timetableRepository;
+    @Autowired private TimetableIndex timetableIndex;
+    @Autowired private LeaveIndex leaveIndex;
+    @Autowired private StudentMonthlyAttendanceRepository studentMonthlyAttendanceRepository;
+    @Autowired private SectionDailyAttendanceRepository sectionDailyAttendanceRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    // Counts per status; statuses are stored lower-case (present, absent, late, leave)
+    private static final String STATUS_COUNTS = """
+            count(*) FILTER (WHERE status = 'present'), count(*) FILTER (WHERE status = 'absent'),
+            count(*) FILTER (WHERE status = 'late'), count(*) FILTER (WHERE status = 'leave')
+            """;
+
+    // Per-month status vector: each day's 2-bit code (see AttendanceBitmap) OR-ed into one bigint,
+    // plus a 31-bit mask of the days that were marked at all
+    private static final String DAY_CODE =
+            "(CASE status WHEN 'present' THEN 0 WHEN 'late' THEN 1 WHEN 'absent' THEN 2 WHEN 'leave' THEN 3 END)";
+
+    private static final String MONTH_BITS = """
+            bit_or(%1$s::bigint << (2 * (extract(day FROM date)::int - 1))),
+            bit_or(CASE WHEN %1$s IS NOT NULL THEN 1 << (extract(day FROM date)::int - 1) END)
+            """.formatted(DAY_CODE);
+
+    private static final String ADD_COUNTS = """
+            present_count = %1$s.present_count + EXCLUDED.present_count,
+            absent_count = %1$s.absent_count + EXCLUDED.absent_count,
+            late_count = %1$s.late_count + EXCLUDED.late_count,
+            leave_count = %1$s.leave_count + EXCLUDED.leave_count
+            """;
+
+    // Inserts the roll call and folds exactly the rows that were inserted into both rollups,
+    // all in one statement so the rollups can never drift from the attendance table.
+    private static final String INSERT_ROLL_CALL = """
+            WITH inserted AS (
+                INSERT INTO attendance (student_id, date, status, marked_by_teacher_id, class_id, section_id)
+                SELECT s.id, r.date, r.status, ?, s.class_id, s.section_id
+                FROM unnest(?::bigint[], ?::date[], ?::varchar[]) AS r(student_id, date, status)
+                JOIN students s ON s.id = r.student_id
+                ON CONFLICT (student_id, date) DO NOTHING
+                RETURNING student_id, date, status, section_id
+            ), student_months AS (
+                INSERT INTO attendance_student_month (student_id, month_start, present_count, absent_count, late_count, leave_count,
+                                                      status_bits, marked_days)
+                SELECT student_id, date_trunc('month', date)::date, %1$s, %4$s
+                FROM inserted GROUP BY 1, 2
+                ON CONFLICT (student_id, month_start) DO UPDATE SET %2$s,
+                    status_bits = attendance_student_month.status_bits | COALESCE(EXCLUDED.status_bits, 0),
+                    marked_days = attendance_student_month.marked_days | COALESCE(EXCLUDED.marked_days, 0)
+            ), section_days AS (
+                INSERT INTO attendance_section_day (section_id, day, present_count, absent_count, late_count, leave_count)
+                SELECT section_id, date, %1$s
+                FROM inserted
+                WHERE section_id IS NOT NULL GROUP BY 1, 2
+                ON CONFLICT (section_id, day) DO UPDATE SET %3$s
+            )
+            SELECT count(*) FROM inserted
+            """.formatted(STATUS_COUNTS, ADD_COUNTS.formatted("attendance_student_month"),
+            ADD_COUNTS.formatted("attendance_section_day"), MONTH_BITS);
+
+    private static final String REBUILD_STUDENT_MONTHS = """
+            INSERT INTO attendance_student_month (student_id, month_start, present_count, absent_count, late_count, leave_count,
+                                                  status_bits, marked_days)
+            SELECT student_id, date_trunc('month', date)::date, %s, %s
+            FROM attendance GROUP BY 1, 2
+            """.formatted(STATUS_COUNTS.replace("status", "lower(status)"), MONTH_BITS.replace("status", "lower(status)"));
+
+    private static final String REBUILD_SECTION_DAYS = """
+            INSERT INTO attendance_section_day (section_id, day, present_count, absent_count, late_count, leave_count)
+            SELECT section_id, date, %s
+            FROM attendance
+            WHERE section_id IS NOT NULL GROUP BY 1, 2
+            """.formatted(STATUS_COUNTS.replace("status", "lower(status)"));
+
+    // Absences inside newly approved leave become "leave"; absent (code 2) to leave (code 3) only sets
+    // the low bit of each day's code, so the month vector is patched with a single OR
+    private static final String RECONCILE_LEAVE = """
+            WITH updated AS (
+                UPDATE attendance SET status = 'leave'
+                WHERE student_id = ? AND date BETWEEN ? AND ? AND lower(status) = 'absent'
+                RETURNING student_id, date, section_id
+            ), student_months AS (
+                UPDATE attendance_student_month m
+                SET absent_count = m.absent_count - u.n, leave_count = m.leave_count + u.n, status_bits = m.status_bits | u.bits
+                FROM (SELECT student_id, date_trunc('month', date)::date AS month_start, count(*) AS n,
+                             bit_or(1::bigint << (2 * (extract(day FROM date)::int - 1))) AS bits
+                      FROM updated GROUP BY 1, 2) u
+                WHERE m.student_id = u.student_id AND m.month_start = u.month_start
+            ), section_days AS (
+                UPDATE attendance_section_day d
+                SET absent_count = d.absent_count - u.n, leave_count = d.leave_count + u.n
+                FROM (SELECT section_id, date, count(*) AS n FROM updated WHERE section_id IS NOT NULL GROUP BY 1, 2) u
+                WHERE d.section_id = u.section_id AND d.day = u.date
+            )
+            SELECT count(*) FROM updated
+            """;
+
+    // Rows saved before class/section were recorded take the student's current placement
+    private static final String BACKFILL_PLACEMENT = """
+            UPDATE attendance a SET class_id = s.class_id, section_id = s.section_id
+            FROM students s
+            WHERE s.id = a.student_id AND a.section_id IS NULL
+            """;
+
+    // The old save path checked for an existing row and then inserted, so a double submit could store
+    // one student's day twice; the most recently saved row is the one kept
+    private static final String DELETE_DUPLICATE_DAYS = """
+            DELETE FROM attendance a USING attendance b
+            WHERE a.student_id = b.student_id AND a.date = b.date AND a.id < b.id
+            """;
+
+    private static final String ONE_ROW_PER_DAY = "uk_attendance_student_date";
+
+    // Only rows the backfill can actually place; students without a section stay unplaced
+    private static final String PLACEMENT_PENDING = """
+            SELECT EXISTS (SELECT 1 FROM attendance a JOIN students s ON s.id = a.student_id
+                           WHERE a.section_id IS NULL AND s.section_id IS NOT NULL)
+            """;
 
-    public String markAttendanceBulk(List<AttendanceRequestDto> dtos, Long teacherId) {
-        Teacher teacher = teacherRepository.findById(teacherId).orElseThrow(() -> new RuntimeException("Invalid Teacher"));
+    /**
+     * Saves a roll call in one statement: the payload goes to Postgres as three parallel arrays,
+     * students are resolved by the join, and rows that already exist for (student, date) are
+     * left untouched by {@code ON CONFLICT DO NOTHING}. The monthly and daily rollups are
+     * updated by the same statement. Students on approved leave that day are saved as "leave"
+     * unless the teacher marked them present or late.
+     */
+    @Transactional
+    public AttendanceBulkResultDTO markAttendanceBulk(List<AttendanceRequestDto> dtos, Long teacherId) {
+        if (!teacherRepository.existsById(teacherId)) {
+            throw new RuntimeException("Invalid Teacher");
+        }
+        return saveRollCall(dtos, teacherId);
+    }
+
+    /** Same single-statement insert for rows that come from gate readers rather than a teacher. */
+    @Transactional
+    public AttendanceBulkResultDTO recordDeviceAttendance(List<AttendanceRequestDto> dtos) {
+        return saveRollCall(dtos, null);
+    }
 
+    private AttendanceBulkResultDTO saveRollCall(List<AttendanceRequestDto> dtos, Long teacherId) {
+        // Last entry wins if a student appears twice for the same day
+        Map<String, AttendanceRequestDto> unique = new LinkedHashMap<>();
         for (AttendanceRequestDto dto : dtos) {
-            if (attendanceRepository.existsByStudentIdAndDate(dto.getStudentId(), dto.getDate())) {
-                continue; // skip existing
+            if (dto.getStudentId() == null || dto.getDate() == null) continue;
+            unique.put(dto.getStudentId() + "#" + dto.getDate(), dto);
+        }
+        if (unique.isEmpty()) {
+            return new AttendanceBulkResultDTO(0, dtos.size(), "Nothing to save.");
+        }
+
+        Long[] studentIds = new Long[unique.size()];
+        java.sql.Date[] dates = new java.sql.Date[unique.size()];
+        String[] statuses = new String[unique.size()];
+        int i = 0;
+        for (AttendanceRequestDto dto : unique.values()) {
+            studentIds[i] = dto.getStudentId();
+            dates[i] = java.sql.Date.valueOf(dto.getDate());
+            statuses[i] = dto.getStatus() == null ? null : dto.getStatus().trim().toLowerCase();
+            if ((statuses[i] == null || statuses[i].isEmpty() || "absent".equals(statuses[i]))
+                    && leaveIndex.onLeave(dto.getStudentId(), dto.getDate())) {
+                statuses[i] = "leave";
+            }
+            i++;
+        }
+
+        int inserted = jdbcTemplate.execute((Connection con) -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_ROLL_CALL)) {
+                ps.setObject(1, teacherId, Types.BIGINT);
+                ps.setArray(2, con.createArrayOf("bigint", studentIds));
+                ps.setArray(3, con.createArrayOf("date", dates));
+                ps.setArray(4, con.createArrayOf("varchar", statuses));
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        });
+
+        return new AttendanceBulkResultDTO(inserted, dtos.size() - inserted, "Attendance saved successfully.");
+    }
+
+    // Term percentages read one row per month instead of one per school day
+    public AttendanceSummaryDTO getStudentSummary(Long studentId, YearMonth from, YearMonth to) {
+        AttendanceSummaryDTO summary = new AttendanceSummaryDTO();
+        summary.setStudentId(studentId);
+        summary.setFrom(from.atDay(1));
+        summary.setTo(to.atEndOfMonth());
+        for (StudentMonthlyAttendance month : studentMonthlyAttendanceRepository
+                .findByStudentIdAndMonthStartBetweenOrderByMonthStart(studentId, from.atDay(1), to.atDay(1))) {
+            summary.add(new AttendanceSummaryDTO.Bucket(month.getMonthStart(), month.getPresentCount(),
+                    month.getAbsentCount(), month.getLateCount(), month.getLeaveCount()));
+        }
+        return summary;
+    }
+
+    // Year view, streaks and weekday patterns, decoded in memory from one bit vector per month
+    public AttendanceHistoryDTO getStudentHistory(Long studentId, YearMonth from, YearMonth to) {
+        AttendanceBitmap bitmap = AttendanceBitmap.of(from, to, studentMonthlyAttendanceRepository
+                .findByStudentIdAndMonthStartBetweenOrderByMonthStart(studentId, from.atDay(1), to.atDay(1)));
+
+        AttendanceHistoryDTO history = new AttendanceHistoryDTO();
+        history.setStudentId(studentId);
+        history.setFrom(from.atDay(1));
+        history.setTo(to.atEndOfMonth());
+        for (int i = 0; i < bitmap.months(); i++) {
+            YearMonth month = from.plusMonths(i);
+            history.getMonths().put(month.toString(), bitmap.monthView(month));
+        }
+        history.setCurrentStreak(bitmap.currentStreak(AttendanceBitmap.PRESENT, AttendanceBitmap.LATE));
+        history.setLongestAbsenceStreak(bitmap.longestStreak(AttendanceBitmap.ABSENT));
+        history.setLastAbsence(bitmap.lastDayWith(AttendanceBitmap.ABSENT));
+        history.setAbsencesByWeekday(bitmap.countByWeekday(AttendanceBitmap.ABSENT));
+        return history;
+    }
+
+    /**
+     * One bounded page of a parent's attendance view: at most {@code size} records between
+     * {@code from} and {@code to}, newest first, continuing after {@code cursor} ("date_id" of the
+     * last record already shown). The per-child header comes from the monthly rollups, not the rows.
+     * A null {@code from} means the children's whole history; the cursor already bounds each page.
+     */
+    public ParentAttendanceDTO getAttendancePage(List<Student> students, LocalDate from, LocalDate to,
+                                                 String cursor, int size) {
+        List<Long> studentIds = students.stream().map(Student::getId).toList();
+        if (from == null) {
+            LocalDate first = attendanceRepository.findFirstDate(studentIds);
+            from = first != null && first.isBefore(to) ? first : to;
+        }
+        Pageable page = PageRequest.ofSize(size + 1); // one extra row tells us whether there is a next page
+
+        List<AttendanceDTO> records;
+        if (cursor == null || cursor.isBlank()) {
+            records = attendanceRepository.findPage(studentIds, from, to, page);
+        } else {
+            String[] parts = cursor.split("_");
+            try {
+                records = attendanceRepository.findPageAfter(studentIds, from, to,
+                        LocalDate.parse(parts[0]), Long.parseLong(parts[1]), page);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor: " + cursor);
             }
+        }
+
+        ParentAttendanceDTO response = new ParentAttendanceDTO();
+        response.setFrom(from);
+        response.setTo(to);
+        if (records.size() > size) {
+            records = records.subList(0, size);
+            AttendanceDTO last = records.get(size - 1);
+            response.setNextCursor(last.getDate() + "_" + last.getId());
+        }
+        response.setRecords(records);
 
-            Student student = studentRepository.findById(dto.getStudentId()).orElseThrow(() -> new RuntimeException("Student not found"));
+        YearMonth firstMonth = YearMonth.from(from);
+        YearMonth lastMonth = YearMonth.from(to);
+        for (Student student : students) {
+            AttendanceBitmap bitmap = AttendanceBitmap.of(firstMonth, lastMonth, studentMonthlyAttendanceRepository
+                    .findByStudentIdAndMonthStartBetweenOrderByMonthStart(student.getId(), firstMonth.atDay(1), lastMonth.atDay(1)))
+                    .within(from, to);
 
-            Attendance attendance = new Attendance();
-            attendance.setDate(dto.getDate());
-            attendance.setStatus(dto.getStatus());
-            attendance.setStudent(student);
-            attendance.setMarkedBy(teacher);
+            ParentAttendanceDTO.ChildSummary summary = new ParentAttendanceDTO.ChildSummary();
+            summary.setStudentId(student.getId());
+            summary.setStudentName(student.getFullName());
+            summary.setPresent(bitmap.count(AttendanceBitmap.PRESENT));
+            summary.setAbsent(bitmap.count(AttendanceBitmap.ABSENT));
+            summary.setLate(bitmap.count(AttendanceBitmap.LATE));
+            summary.setLeave(bitmap.count(AttendanceBitmap.LEAVE));
+            int total = summary.getPresent() + summary.getAbsent() + summary.getLate() + summary.getLeave();
+            summary.setPercentage(total == 0 ? 0 : Math.round((summary.getPresent() + summary.getLate()) * 1000.0 / total) / 10.0);
+            summary.setCurrentStreak(bitmap.currentStreak(AttendanceBitmap.PRESENT, AttendanceBitmap.LATE));
+            summary.setLastAbsence(bitmap.lastDayWith(AttendanceBitmap.ABSENT));
+            response.getSummary().add(summary);
+        }
+        return response;
+    }
 
-            attendanceRepository.save(attendance);
+    public AttendanceSummaryDTO getSectionSummary(Long sectionId, LocalDate from, LocalDate to) {
+        AttendanceSummaryDTO summary = new AttendanceSummaryDTO();
+        summary.setSectionId(sectionId);
+        summary.setFrom(from);
+        summary.setTo(to);
+        for (SectionDailyAttendance day : sectionDailyAttendanceRepository
+                .findBySectionIdAndDayBetweenOrderByDay(sectionId, from, to)) {
+            summary.add(new AttendanceSummaryDTO.Bucket(day.getDay(), day.getPresentCount(),
+                    day.getAbsentCount(), day.getLateCount(), day.getLeaveCount()));
         }
+        return summary;
+    }
 
-        return "Attendance saved successfully.";
+    /** Turns absences already recorded inside an approved leave range into "leave"; returns rows changed. */
+    @Transactional
+    public int reconcileLeave(Long studentId, LocalDate start, LocalDate end) {
+        Integer changed = jdbcTemplate.queryForObject(RECONCILE_LEAVE, Integer.class,
+                studentId, java.sql.Date.valueOf(start), java.sql.Date.valueOf(end));
+        return changed == null ? 0 : changed;
     }
 
-    public List<Attendance> getAttendanceByClassSectionAndDate(Long classId, Long sectionId, LocalDate date) {
-        return attendanceRepository.findByStudent_CurrentClass_IdAndStudent_CurrentSection_IdAndDate(classId, sectionId, date);
+    /**
+     * Roll calls rely on {@code ON CONFLICT (student_id, date)}, which needs uk_attendance_student_date.
+     * The schema update cannot create it while duplicate days exist and only logs a warning, so this
+     * removes the duplicates, adds the constraint itself and recounts the rollups that included them.
+     * Runs before the application takes requests; if it cannot, startup fails rather than every roll call.
+     */
+    @PostConstruct
+    public void enforceOneRowPerDay() {
+        Boolean present = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)", Boolean.class, ONE_ROW_PER_DAY);
+        if (Boolean.TRUE.equals(present)) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("LOCK TABLE attendance IN SHARE ROW EXCLUSIVE MODE");
+                int removed = jdbcTemplate.update(DELETE_DUPLICATE_DAYS);
+                jdbcTemplate.execute("ALTER TABLE attendance ADD CONSTRAINT " + ONE_ROW_PER_DAY + " UNIQUE (student_id, date)");
+                if (removed > 0) {
+                    rebuildRollups();
+                    log.warn("Removed {} duplicate attendance rows (same student and date) before adding {}", removed, ONE_ROW_PER_DAY);
+                }
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot enforce one attendance row per student and day ("
+                    + ONE_ROW_PER_DAY + "); roll calls would fail without it", e);
+        }
+    }
+
+    // Rows saved before attendance recorded its class and section are invisible to roll-call lookups
+    // and missing from the section rollup until they are backfilled
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPlacement() {
+        try {
+            Boolean pending = jdbcTemplate.queryForObject(PLACEMENT_PENDING, Boolean.class);
+            if (Boolean.TRUE.equals(pending)) rebuildRollups();
+        } catch (Exception e) {
+            System.err.println("⚠️ Attendance placement not backfilled at startup: " + e.getMessage());
+        }
     }
 
+    /**
+     * Backfills class and section on old attendance rows, then recomputes both rollups from the
+     * attendance table, in one transaction (through the template, so it also works from inside this class).
+     */
+    public void rebuildRollups() {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Blocks roll calls for the duration, so none lands between the delete and the refill
+            jdbcTemplate.execute("LOCK TABLE attendance IN SHARE MODE");
+            jdbcTemplate.update(BACKFILL_PLACEMENT);
+            jdbcTemplate.update("DELETE FROM attendance_student_month");
+            jdbcTemplate.update("DELETE FROM attendance_section_day");
+            jdbcTemplate.update(REBUILD_STUDENT_MONTHS);
+            jdbcTemplate.update(REBUILD_SECTION_DAYS);
+        });
+    }
+
+    // Index-only read of (student, status); the teacher's name is one more single-row lookup
+    public RollCallDTO getRollCall(Long sectionId, LocalDate date) {
+        List<RollCallDTO.Entry> entries = attendanceRepository.findRollCall(sectionId, date);
+        String markedBy = entries.isEmpty() ? null
+                : attendanceRepository.findRollCallTeacher(sectionId, date, PageRequest.of(0, 1)).stream()
+                .findFirst().orElse(null);
+        return new RollCallDTO(markedBy, entries);
+    }
+
+    // Answered from the in-memory timetable index; no query per call
     public boolean canTeacherMark(Long teacherId, Long classId, Long sectionId) {
-        String today = LocalDate.now().getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH).toUpperCase(); // e.g. MONDAY
-        Optional<Timetable> firstPeriod = timetableRepository.findByDayOfWeekAndPeriodAndClassEntity_IdAndSection_Id(today, "1", classId, sectionId);
-        return firstPeriod.map(tt -> tt.getTeacher().getId().equals(teacherId)).orElse(false);
+        return timetableIndex.teacherFor(classId, sectionId, LocalDate.now().getDayOfWeek(), "1")
+                .map(teacherId::equals)
+                .orElse(false);
+    }
+
+    public boolean isTeachingNow(Long teacherId, Long classId, Long sectionId) {
+        LocalDateTime now = LocalDateTime.now();
+        return timetableIndex.teacherAt(classId, sectionId, now.getDayOfWeek(), now.toLocalTime())
+                .map(teacherId::equals)
+                .orElse(false);
     }
 }
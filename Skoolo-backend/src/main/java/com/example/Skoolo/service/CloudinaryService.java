@@ -31,6 +31,23 @@ public class CloudinaryService {
         );
     }
 
+    // Generated documents: a fixed public id means regenerating replaces the old file
+    public Map<String, String> uploadBytes(byte[] bytes, String folderName, String publicId) throws IOException {
+        Map uploadResult = cloudinary.uploader().upload(bytes,
+                ObjectUtils.asMap(
+                        "folder", folderName,
+                        "public_id", publicId,
+                        "resource_type", "raw",
+                        "type", "upload",
+                        "overwrite", true
+                )
+        );
+
+        return Map.of(
+                "url", uploadResult.get("secure_url").toString(),
+                "publicId", uploadResult.get("public_id").toString()
+        );
+    }
 
     public void deleteImage(String publicId) throws IOException {
         cloudinary.uploader().destroy(publicId,
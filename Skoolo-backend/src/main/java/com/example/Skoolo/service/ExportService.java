@@ -0,0 +1,146 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.service.export.ExportFormat;
+import com.example.Skoolo.service.export.ExportWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams students, marks and attendance straight from the database into CSV or XLSX.
+ * Rows are read through a forward-only cursor (Postgres only honours the fetch size
+ * inside a transaction) and written one by one, so heap use does not depend on row count.
+ */
+@Service
+public class ExportService {
+
+    private static final int FETCH_SIZE = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTx;
+
+    public ExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public void exportStudents(OutputStream out, ExportFormat format, Long classId, Long sectionId) throws IOException {
+        StringBuilder sql = new StringBuilder("""
+                SELECT s.id, s.first_name, s.last_name, s.gender, s.dob, s.contact_number, s.address,
+                       s.parent_email, s.status, s.enrollment_date, c.class_name, sec.section_name
+                FROM students s
+                LEFT JOIN classes c ON c.id = s.class_id
+                LEFT JOIN sections sec ON sec.id = s.section_id
+                WHERE 1 = 1
+                """);
+        List<Object> params = new ArrayList<>();
+        filter(sql, params, "s.class_id = ?", classId);
+        filter(sql, params, "s.section_id = ?", sectionId);
+        sql.append(" ORDER BY c.class_name, sec.section_name, s.last_name, s.first_name");
+
+        stream(out, format, "Students", sql.toString(), params,
+                "ID", "First Name", "Last Name", "Gender", "DOB", "Contact", "Address",
+                "Parent Email", "Status", "Enrollment Date", "Class", "Section");
+    }
+
+    public void exportMarks(OutputStream out, ExportFormat format, Long classId, Long sectionId,
+                            String academicYear, String examName) throws IOException {
+        StringBuilder sql = new StringBuilder("""
+                SELECT m.id, st.first_name || ' ' || COALESCE(st.last_name, ''), c.class_name, sec.section_name,
+                       sub.subject_name, m.exam_name, m.academic_year, m.marks_obtained, m.max_marks, m.grade
+                FROM marks m
+                JOIN students st ON st.id = m.student_id
+                LEFT JOIN subjects sub ON sub.id = m.subject_id
+                LEFT JOIN classes c ON c.id = m.class_entity_id
+                LEFT JOIN sections sec ON sec.id = m.section_id
+                WHERE 1 = 1
+                """);
+        List<Object> params = new ArrayList<>();
+        filter(sql, params, "m.class_entity_id = ?", classId);
+        filter(sql, params, "m.section_id = ?", sectionId);
+        filter(sql, params, "m.academic_year = ?", academicYear);
+        filter(sql, params, "m.exam_name = ?", examName);
+        sql.append(" ORDER BY c.class_name, sec.section_name, m.student_id, m.exam_name, sub.subject_name");
+
+        stream(out, format, "Marks", sql.toString(), params,
+                "ID", "Student", "Class", "Section", "Subject", "Exam", "Academic Year",
+                "Marks Obtained", "Max Marks", "Grade");
+    }
+
+    public void exportAttendance(OutputStream out, ExportFormat format, Long classId, Long sectionId,
+                                 LocalDate from, LocalDate to) throws IOException {
+        StringBuilder sql = new StringBuilder("""
+                SELECT a.id, a.date, st.first_name || ' ' || COALESCE(st.last_name, ''), c.class_name,
+                       sec.section_name, a.status, t.first_name || ' ' || COALESCE(t.last_name, '')
+                FROM attendance a
+                JOIN students st ON st.id = a.student_id
+                LEFT JOIN classes c ON c.id = a.class_id
+                LEFT JOIN sections sec ON sec.id = a.section_id
+                LEFT JOIN teachers t ON t.id = a.marked_by_teacher_id
+                WHERE 1 = 1
+                """);
+        List<Object> params = new ArrayList<>();
+        filter(sql, params, "a.class_id = ?", classId);
+        filter(sql, params, "a.section_id = ?", sectionId);
+        filter(sql, params, "a.date >= ?", from);
+        filter(sql, params, "a.date <= ?", to);
+        sql.append(" ORDER BY a.date, c.class_name, sec.section_name, st.last_name, st.first_name");
+
+        stream(out, format, "Attendance", sql.toString(), params,
+                "ID", "Date", "Student", "Class", "Section", "Status", "Marked By");
+    }
+
+    private static void filter(StringBuilder sql, List<Object> params, String condition, Object value) {
+        if (value == null) return;
+        sql.append(" AND ").append(condition);
+        params.add(value);
+    }
+
+    private void stream(OutputStream out, ExportFormat format, String sheetName, String sql,
+                        List<Object> params, String... header) throws IOException {
+        try (ExportWriter writer = format.open(out, sheetName)) {
+            writer.writeRow((Object[]) header);
+            int columns = header.length;
+
+            RowCallbackHandler rowWriter = rs -> {
+                try {
+                    writer.writeRow(values(rs, columns));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // client went away
+                }
+            };
+
+            readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(FETCH_SIZE);
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                return ps;
+            }, rowWriter));
+        }
+    }
+
+    private static Object[] values(ResultSet rs, int columns) throws java.sql.SQLException {
+        Object[] values = new Object[columns];
+        for (int i = 0; i < columns; i++) {
+            Object value = rs.getObject(i + 1);
+            values[i] = value instanceof java.sql.Date date ? date.toLocalDate() : value;
+        }
+        return values;
+    }
+}
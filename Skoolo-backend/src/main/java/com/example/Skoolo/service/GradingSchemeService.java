@@ -0,0 +1,197 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.dto.RegradeResultDTO;
+import com.example.Skoolo.model.GradingScheme;
+import com.example.Skoolo.repo.GradingSchemeRepository;
+import com.example.Skoolo.service.grading.GradingTable;
+import com.example.Skoolo.service.marks.StudentMarksCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Grading schemes, compiled into {@link GradingTable}s and kept in memory: grading a mark is a few
+ * hash lookups to find the scheme plus one binary search. Saving or deleting a scheme republishes
+ * the whole set with a single volatile write.
+ */
+@Service
+public class GradingSchemeService {
+
+    private static final int REGRADE_CHUNK = 5_000;
+
+    // Keyset over the primary key, so every chunk is an index range scan however far in we are
+    private static final String REGRADE_SCAN = """
+            SELECT id, class_entity_id, academic_year, marks_obtained, max_marks, grade
+            FROM marks
+            WHERE id > ? AND max_marks > 0 AND (CAST(? AS varchar) IS NULL OR academic_year = ?)
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    // Regrading only moves marks between grades, so only the grade distribution needs the delta. The old
+    // grade is read FOR UPDATE, which waits out a concurrent mark write and returns its committed value
+    private static final String REGRADE_UPDATE = """
+            WITH old AS (
+                SELECT id, grade FROM marks WHERE id = ANY(?::bigint[]) FOR UPDATE
+            ), changed AS (
+                UPDATE marks m SET grade = u.grade
+                FROM unnest(?::bigint[], ?::varchar[]) AS u(id, grade), old o
+                WHERE m.id = u.id AND o.id = m.id
+                RETURNING m.student_id, m.academic_year, m.exam_name, m.class_entity_id AS class_id, m.section_id, m.subject_id,
+                          o.grade AS old_grade, m.grade AS new_grade
+            ), delta AS (
+                SELECT academic_year, exam_name, class_id, section_id, subject_id, new_grade AS grade, 1 AS sign
+                FROM changed
+                UNION ALL
+                SELECT academic_year, exam_name, class_id, section_id, subject_id, old_grade, -1
+                FROM changed
+            ), grades AS (
+            """ + MarkAnalyticsService.ADD_TO_GRADE_STATS + """
+            )
+            SELECT student_id FROM changed
+            """;
+
+    @Autowired
+    private GradingSchemeRepository gradingSchemeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StudentMarksCache studentMarksCache;
+
+    private volatile Map<String, GradingTable> tables;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            reload();
+        } catch (Exception e) {
+            System.err.println("⚠️ Grading schemes not loaded at startup, will retry on first use: " + e.getMessage());
+        }
+    }
+
+    public synchronized void reload() {
+        Map<String, GradingTable> compiled = new HashMap<>();
+        for (GradingScheme scheme : gradingSchemeRepository.findAll()) {
+            compiled.put(scope(scheme.getClassId(), scheme.getAcademicYear()), GradingTable.of(scheme.getBands()));
+        }
+        tables = Map.copyOf(compiled);
+    }
+
+    /** Most specific scheme for the class and year; the built-in bands when none is configured. */
+    public GradingTable tableFor(Long classId, String academicYear) {
+        Map<String, GradingTable> current = current();
+        GradingTable table = current.get(scope(classId, academicYear));
+        if (table == null) table = current.get(scope(classId, null));
+        if (table == null) table = current.get(scope(null, academicYear));
+        if (table == null) table = current.get(scope(null, null));
+        return table != null ? table : GradingTable.DEFAULT;
+    }
+
+    public String grade(Long classId, String academicYear, int marks, int max) {
+        return tableFor(classId, academicYear).grade(marks, max);
+    }
+
+    public List<GradingScheme> getAllSchemes() {
+        return gradingSchemeRepository.findAll();
+    }
+
+    public GradingScheme saveScheme(GradingScheme scheme) {
+        GradingTable.validate(scheme.getBands());
+        if (scheme.getAcademicYear() != null && scheme.getAcademicYear().isBlank()) scheme.setAcademicYear(null);
+
+        String scope = scope(scheme.getClassId(), scheme.getAcademicYear());
+        for (GradingScheme other : gradingSchemeRepository.findAll()) {
+            if (!other.getId().equals(scheme.getId()) && scope(other.getClassId(), other.getAcademicYear()).equals(scope)) {
+                throw new IllegalArgumentException("Scheme '" + other.getName() + "' already covers this class and year");
+            }
+        }
+        scheme.setUpdatedAt(LocalDateTime.now());
+        GradingScheme saved = gradingSchemeRepository.save(scheme);
+        reload();
+        return saved;
+    }
+
+    public void deleteScheme(Long id) {
+        gradingSchemeRepository.deleteById(id);
+        reload();
+    }
+
+    /**
+     * Recomputes every stored grade (or one year's) against the current schemes. Marks are read
+     * as plain columns in chunks of {@value #REGRADE_CHUNK}, graded in memory, and only rows whose
+     * grade actually changes are written back, one set-based UPDATE per chunk.
+     */
+    public RegradeResultDTO regrade(String academicYear) {
+        long started = System.currentTimeMillis();
+        String year = academicYear == null || academicYear.isBlank() ? null : academicYear.trim();
+        long scanned = 0;
+        long changed = 0;
+        long lastId = 0;
+
+        while (true) {
+            List<Long> ids = new ArrayList<>();
+            List<String> grades = new ArrayList<>();
+            long[] cursor = {lastId};
+            int[] read = {0};
+            jdbcTemplate.query(REGRADE_SCAN, rs -> {
+                read[0]++;
+                cursor[0] = rs.getLong(1);
+                Long classId = (Long) rs.getObject(2, Long.class);
+                String grade = grade(classId, rs.getString(3), rs.getInt(4), rs.getInt(5));
+                if (!grade.equals(rs.getString(6))) {
+                    ids.add(cursor[0]);
+                    grades.add(grade);
+                }
+            }, lastId, year, year, REGRADE_CHUNK);
+
+            scanned += read[0];
+            if (!ids.isEmpty()) {
+                List<Long> students = jdbcTemplate.execute((Connection con) -> {
+                    try (PreparedStatement ps = con.prepareStatement(REGRADE_UPDATE)) {
+                        Object[] idArray = ids.toArray();
+                        ps.setArray(1, con.createArrayOf("bigint", idArray));
+                        ps.setArray(2, con.createArrayOf("bigint", idArray));
+                        ps.setArray(3, con.createArrayOf("varchar", grades.toArray()));
+                        List<Long> updated = new ArrayList<>();
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) updated.add(rs.getLong(1));
+                        }
+                        return updated;
+                    }
+                });
+                changed += students.size();
+                studentMarksCache.invalidate(new HashSet<>(students));
+            }
+            if (read[0] < REGRADE_CHUNK) break;
+            lastId = cursor[0];
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        System.out.println("🎓 Regrade" + (year != null ? " " + year : "") + ": " + scanned + " marks scanned, "
+                + changed + " changed in " + elapsed + " ms");
+        return new RegradeResultDTO(scanned, changed, elapsed);
+    }
+
+    private Map<String, GradingTable> current() {
+        Map<String, GradingTable> current = tables;
+        if (current == null) {
+            reload();
+            current = tables;
+        }
+        return current;
+    }
+
+    private static String scope(Long classId, String academicYear) {
+        return (classId == null ? "*" : classId.toString()) + "|" + (academicYear == null ? "*" : academicYear);
+    }
+}
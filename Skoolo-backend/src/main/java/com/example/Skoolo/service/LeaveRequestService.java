@@ -0,0 +1,119 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.dto.LeaveRequestDTO;
+import com.example.Skoolo.model.LeaveRequest;
+import com.example.Skoolo.model.Student;
+import com.example.Skoolo.model.Teacher;
+import com.example.Skoolo.repo.LeaveRequestRepository;
+import com.example.Skoolo.repo.StudentRepository;
+import com.example.Skoolo.repo.TeacherRepository;
+import com.example.Skoolo.service.attendance.LeaveIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class LeaveRequestService {
+
+    @Autowired private LeaveRequestRepository leaveRequestRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private TeacherRepository teacherRepository;
+    @Autowired private AttendanceService attendanceService;
+    @Autowired private LeaveIndex leaveIndex;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    // Parents submit for their own child; ranges overlapping pending or approved leave are refused up front
+    public LeaveRequestDTO submit(Long parentId, LeaveRequestDTO dto) {
+        if (dto.getStartDate() == null || dto.getEndDate() == null || dto.getEndDate().isBefore(dto.getStartDate())) {
+            throw new RuntimeException("Leave needs a start date on or before the end date");
+        }
+        Student student = studentRepository.findById(dto.getStudentId())
+                .orElseThrow(() -> new RuntimeException("Student not found"));
+        if (student.getParent() == null || !student.getParent().getId().equals(parentId)) {
+            throw new RuntimeException("This student is not linked to your account");
+        }
+        if (leaveIndex.overlaps(student.getId(), dto.getStartDate(), dto.getEndDate())
+                || leaveRequestRepository.existsByStudent_IdAndStatusAndLeaveStartDateLessThanEqualAndLeaveEndDateGreaterThanEqual(
+                        student.getId(), "pending", dto.getEndDate(), dto.getStartDate())) {
+            throw new RuntimeException("These dates overlap an existing leave request");
+        }
+
+        LeaveRequest request = new LeaveRequest();
+        request.setStudent(student);
+        request.setLeaveStartDate(dto.getStartDate());
+        request.setLeaveEndDate(dto.getEndDate());
+        request.setReason(dto.getReason());
+        request.setStatus("pending");
+        request.setCreatedAt(LocalDateTime.now());
+        return new LeaveRequestDTO(leaveRequestRepository.save(request));
+    }
+
+    public List<LeaveRequestDTO> getForParent(Long parentId) {
+        return leaveRequestRepository.findByStudent_Parent_IdOrderByLeaveStartDateDesc(parentId).stream()
+                .map(LeaveRequestDTO::new)
+                .toList();
+    }
+
+    public List<LeaveRequestDTO> getForClassTeacher(Long teacherId, String status) {
+        return leaveRequestRepository.findForClassTeacher(teacherId, status).stream()
+                .map(LeaveRequestDTO::new)
+                .toList();
+    }
+
+    /**
+     * Approval also turns any "absent" already recorded inside the range into "leave",
+     * in the same transaction; the in-memory index picks the range up once it has committed.
+     */
+    public LeaveRequestDTO approve(Long requestId, Long teacherId) {
+        LeaveRequest saved = transactionTemplate.execute(status -> {
+            LeaveRequest request = review(requestId, teacherId, "approved");
+            if (leaveIndex.overlaps(request.getStudent().getId(), request.getLeaveStartDate(), request.getLeaveEndDate())) {
+                throw new RuntimeException("These dates overlap leave that is already approved");
+            }
+            attendanceService.reconcileLeave(request.getStudent().getId(), request.getLeaveStartDate(), request.getLeaveEndDate());
+            return leaveRequestRepository.save(request);
+        });
+        leaveIndex.refresh(saved.getStudent().getId());
+        return new LeaveRequestDTO(saved);
+    }
+
+    public LeaveRequestDTO reject(Long requestId, Long teacherId) {
+        return new LeaveRequestDTO(leaveRequestRepository.save(review(requestId, teacherId, "rejected")));
+    }
+
+    // Withdrawing approved leave does not touch attendance already reconciled; teachers can re-mark those days
+    public LeaveRequestDTO cancel(Long requestId, Long parentId) {
+        LeaveRequest request = leaveRequestRepository.findById(requestId)
+                .orElseThrow(() -> new RuntimeException("Leave request not found"));
+        if (request.getStudent().getParent() == null || !request.getStudent().getParent().getId().equals(parentId)) {
+            throw new RuntimeException("This request does not belong to your account");
+        }
+        boolean wasApproved = "approved".equals(request.getStatus());
+        request.setStatus("cancelled");
+        LeaveRequest saved = leaveRequestRepository.save(request);
+        if (wasApproved) leaveIndex.refresh(saved.getStudent().getId());
+        return new LeaveRequestDTO(saved);
+    }
+
+    private LeaveRequest review(Long requestId, Long teacherId, String decision) {
+        LeaveRequest request = leaveRequestRepository.findById(requestId)
+                .orElseThrow(() -> new RuntimeException("Leave request not found"));
+        if (!"pending".equals(request.getStatus())) {
+            throw new RuntimeException("Leave request is already " + request.getStatus());
+        }
+        Teacher teacher = teacherRepository.findById(teacherId)
+                .orElseThrow(() -> new RuntimeException("Invalid Teacher"));
+        Teacher classTeacher = request.getStudent().getCurrentSection() != null
+                ? request.getStudent().getCurrentSection().getClassTeacher() : null;
+        if (classTeacher == null || !classTeacher.getId().equals(teacherId)) {
+            throw new RuntimeException("Only the class teacher can review this request");
+        }
+        request.setStatus(decision);
+        request.setReviewedBy(teacher);
+        request.setReviewedAt(LocalDateTime.now());
+        return request;
+    }
+}
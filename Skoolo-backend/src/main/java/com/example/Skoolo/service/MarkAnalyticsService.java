@@ -0,0 +1,187 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.dto.MarkAnalyticsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Per exam, section and subject aggregates (count, percentage sum, passes, grade distribution)
+ * kept in mark_stats and mark_grade_stats. Every statement that writes marks ends in a CTE named
+ * {@code delta} with one +1 row per new value and one -1 row per replaced value, and folds it into
+ * the aggregates with {@link #ADD_TO_STATS} / {@link #ADD_TO_GRADE_STATS} in the same statement,
+ * so the aggregates are exact at every commit and the dashboard reads a few rows per subject
+ * however many marks there are.
+ */
+@Service
+public class MarkAnalyticsService {
+
+    // Expects delta(academic_year, exam_name, class_id, section_id, subject_id, percent, sign); one parameter, the pass percent
+    public static final String ADD_TO_STATS = """
+            INSERT INTO mark_stats (academic_year, exam_name, class_id, section_id, subject_id,
+                                    mark_count, percent_sum, pass_count)
+            SELECT academic_year, exam_name, class_id, section_id, subject_id,
+                   sum(sign), sum(sign * percent), COALESCE(sum(sign) FILTER (WHERE percent >= ?), 0)
+            FROM delta
+            WHERE academic_year IS NOT NULL AND exam_name IS NOT NULL AND class_id IS NOT NULL
+              AND section_id IS NOT NULL AND subject_id IS NOT NULL
+            GROUP BY academic_year, exam_name, class_id, section_id, subject_id
+            ON CONFLICT (academic_year, exam_name, class_id, section_id, subject_id) DO UPDATE
+            SET mark_count = mark_stats.mark_count + EXCLUDED.mark_count,
+                percent_sum = mark_stats.percent_sum + EXCLUDED.percent_sum,
+                pass_count = mark_stats.pass_count + EXCLUDED.pass_count
+            """;
+
+    // Expects delta(academic_year, exam_name, class_id, section_id, subject_id, grade, sign)
+    public static final String ADD_TO_GRADE_STATS = """
+            INSERT INTO mark_grade_stats (academic_year, exam_name, class_id, section_id, subject_id, grade, mark_count)
+            SELECT academic_year, exam_name, class_id, section_id, subject_id, grade, sum(sign)
+            FROM delta
+            WHERE academic_year IS NOT NULL AND exam_name IS NOT NULL AND class_id IS NOT NULL
+              AND section_id IS NOT NULL AND subject_id IS NOT NULL AND grade IS NOT NULL
+            GROUP BY academic_year, exam_name, class_id, section_id, subject_id, grade
+            ON CONFLICT (academic_year, exam_name, class_id, section_id, subject_id, grade) DO UPDATE
+            SET mark_count = mark_grade_stats.mark_count + EXCLUDED.mark_count
+            """;
+
+    // Same shape as an incremental delta, with every mark counted once
+    private static final String REBUILD = """
+            WITH delta AS (
+                SELECT academic_year, exam_name, class_entity_id AS class_id, section_id, subject_id, grade,
+                       marks_obtained * 100.0 / max_marks AS percent, 1 AS sign
+                FROM marks
+                WHERE max_marks > 0
+            ), grades AS (
+            """ + ADD_TO_GRADE_STATS + """
+            )
+            """ + ADD_TO_STATS;
+
+    private static final String SELECT_STATS = """
+            SELECT ms.academic_year, ms.exam_name, ms.class_id, c.class_name, ms.section_id, sec.section_name,
+                   ms.subject_id, sub.subject_name, ms.mark_count, ms.percent_sum, ms.pass_count
+            FROM mark_stats ms
+            LEFT JOIN classes c ON c.id = ms.class_id
+            LEFT JOIN sections sec ON sec.id = ms.section_id
+            LEFT JOIN subjects sub ON sub.id = ms.subject_id
+            WHERE ms.mark_count > 0
+            """;
+
+    private static final String SELECT_GRADE_STATS = """
+            SELECT academic_year, exam_name, class_id, section_id, subject_id, grade, mark_count
+            FROM mark_grade_stats ms
+            WHERE mark_count > 0
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${skoolo.marks.pass-percent:35}")
+    private double passPercent;
+
+    public double getPassPercent() {
+        return passPercent;
+    }
+
+    // Existing databases have marks but no aggregates yet
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            Boolean empty = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM mark_stats) AND EXISTS (SELECT 1 FROM marks)", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) rebuild();
+        } catch (Exception e) {
+            System.err.println("⚠️ Mark analytics not rebuilt at startup: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes both aggregate tables from the marks, e.g. after changing the pass percent. Runs in
+     * its own transaction through the template, so it also works when called from inside this class.
+     */
+    public int rebuild() {
+        long started = System.currentTimeMillis();
+        int groups = transactionTemplate.execute(status -> {
+            // Blocks mark writes for the duration, so no delta lands between the delete and the refill
+            jdbcTemplate.execute("LOCK TABLE marks IN SHARE MODE");
+            jdbcTemplate.update("DELETE FROM mark_grade_stats");
+            jdbcTemplate.update("DELETE FROM mark_stats");
+            return jdbcTemplate.update(REBUILD, passPercent);
+        });
+        System.out.println("📈 Mark analytics rebuilt: " + groups + " groups in "
+                + (System.currentTimeMillis() - started) + " ms");
+        return groups;
+    }
+
+    /**
+     * Aggregates matching the filters, one row per section and subject, or per class and subject
+     * when {@code byClass} is set (summed from the section rows).
+     */
+    public List<MarkAnalyticsDTO> getMarkAnalytics(String academicYear, String examName, Long classId,
+                                                   Long sectionId, Long subjectId, boolean byClass) {
+        StringBuilder sql = new StringBuilder(SELECT_STATS);
+        StringBuilder gradeSql = new StringBuilder(SELECT_GRADE_STATS);
+        List<Object> params = new ArrayList<>();
+        filter(sql, gradeSql, params, "ms.academic_year = ?", academicYear);
+        filter(sql, gradeSql, params, "ms.exam_name = ?", examName);
+        filter(sql, gradeSql, params, "ms.class_id = ?", classId);
+        filter(sql, gradeSql, params, "ms.section_id = ?", sectionId);
+        filter(sql, gradeSql, params, "ms.subject_id = ?", subjectId);
+        gradeSql.append(" ORDER BY grade");
+        sql.append(" ORDER BY ms.academic_year, ms.exam_name, c.class_name, sec.section_name, sub.subject_name");
+
+        Map<String, MarkAnalyticsDTO> rows = new LinkedHashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            Long section = byClass ? null : rs.getLong(5);
+            String key = key(rs.getString(1), rs.getString(2), rs.getLong(3), section, rs.getLong(7));
+            MarkAnalyticsDTO dto = rows.get(key);
+            if (dto == null) {
+                dto = new MarkAnalyticsDTO();
+                dto.setAcademicYear(rs.getString(1));
+                dto.setExamName(rs.getString(2));
+                dto.setClassId(rs.getLong(3));
+                dto.setClassName(rs.getString(4));
+                dto.setSectionId(section);
+                dto.setSectionName(byClass ? null : rs.getString(6));
+                dto.setSubjectId(rs.getLong(7));
+                dto.setSubjectName(rs.getString(8));
+                rows.put(key, dto);
+            }
+            dto.setCount(dto.getCount() + rs.getInt(9));
+            dto.setPercentSum(dto.getPercentSum() + rs.getDouble(10));
+            dto.setPassCount(dto.getPassCount() + rs.getInt(11));
+        }, params.toArray());
+
+        jdbcTemplate.query(gradeSql.toString(), rs -> {
+            MarkAnalyticsDTO dto = rows.get(key(rs.getString(1), rs.getString(2), rs.getLong(3),
+                    byClass ? null : rs.getLong(4), rs.getLong(5)));
+            if (dto != null) dto.getGrades().merge(rs.getString(6), rs.getInt(7), Integer::sum);
+        }, params.toArray());
+
+        for (MarkAnalyticsDTO dto : rows.values()) {
+            dto.setAverage(Math.round(dto.getPercentSum() * 10.0 / dto.getCount()) / 10.0);
+            dto.setPassRate(Math.round(dto.getPassCount() * 1000.0 / dto.getCount()) / 10.0);
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    private static void filter(StringBuilder sql, StringBuilder gradeSql, List<Object> params,
+                               String condition, Object value) {
+        if (value == null || (value instanceof String s && s.isBlank())) return;
+        sql.append(" AND ").append(condition);
+        gradeSql.append(" AND ").append(condition);
+        params.add(value instanceof String s ? s.trim() : value);
+    }
+
+    private static String key(String year, String exam, Long classId, Long sectionId, Long subjectId) {
+        return year + "|" + exam + "|" + classId + "|" + sectionId + "|" + subjectId;
+    }
+}
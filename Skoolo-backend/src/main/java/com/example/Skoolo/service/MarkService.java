@@ -0,0 +1,269 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.dto.GradebookDTO;
+import com.example.Skoolo.dto.MarkRequest;
+import com.example.Skoolo.dto.MarkSaveResultDTO;
+import com.example.Skoolo.dto.TeacherMarkDTO;
+import com.example.Skoolo.dto.TeacherMarksPageDTO;
+import com.example.Skoolo.repo.MarkRepository;
+import com.example.Skoolo.service.grading.Gradebook;
+import com.example.Skoolo.service.marks.StudentMarksCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class MarkService {
+
+    private static final int BATCH_SIZE = 500;
+
+    /*
+     * Upserts one mark and folds the change into the analytics aggregates in the same statement:
+     * "old" is the row as it was before, read FOR UPDATE so a concurrent update (e.g. a regrade) is
+     * waited out and its committed value used; "saved" is only returned when something was written.
+     * A concurrent insert of the same key is not visible to FOR UPDATE, so saveMarks also holds the
+     * key's LOCK_KEYS lock first: any other writer of the mark has committed before this starts.
+     * The statement's count is the aggregate rows touched, which is 1 when the mark was saved and 0
+     * when it was left unchanged. Parameters: the six key columns, the nine insert columns, the pass
+     * percent.
+     */
+    private static final String UPSERT_MARK = """
+            WITH old AS (
+                SELECT marks_obtained, max_marks, grade
+                FROM marks
+                WHERE student_id = ? AND subject_id = ? AND class_entity_id = ? AND section_id = ?
+                  AND exam_name = ? AND academic_year = ?
+                FOR UPDATE
+            ), saved AS (
+                INSERT INTO marks (student_id, subject_id, class_entity_id, section_id, exam_name, academic_year,
+                                   marks_obtained, max_marks, grade)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                ON CONFLICT (student_id, subject_id, class_entity_id, section_id, exam_name, academic_year) DO UPDATE
+                SET marks_obtained = EXCLUDED.marks_obtained, max_marks = EXCLUDED.max_marks, grade = EXCLUDED.grade
+                WHERE (marks.marks_obtained, marks.max_marks, marks.grade)
+                      IS DISTINCT FROM (EXCLUDED.marks_obtained, EXCLUDED.max_marks, EXCLUDED.grade)
+                RETURNING academic_year, exam_name, class_entity_id AS class_id, section_id, subject_id,
+                          marks_obtained, max_marks, grade
+            ), delta AS (
+                SELECT academic_year, exam_name, class_id, section_id, subject_id, grade,
+                       marks_obtained * 100.0 / max_marks AS percent, 1 AS sign
+                FROM saved
+                UNION ALL
+                SELECT s.academic_year, s.exam_name, s.class_id, s.section_id, s.subject_id, o.grade,
+                       o.marks_obtained * 100.0 / o.max_marks, -1
+                FROM saved s CROSS JOIN old o
+                WHERE o.max_marks > 0
+            ), grades AS (
+            """ + MarkAnalyticsService.ADD_TO_GRADE_STATS + """
+            )
+            """ + MarkAnalyticsService.ADD_TO_STATS;
+
+    // Transaction-scoped advisory lock per mark key, taken in key order so two sheets cannot deadlock
+    private static final String LOCK_KEYS = """
+            SELECT count(pg_advisory_xact_lock(k))
+            FROM (SELECT DISTINCT hashtextextended(concat_ws('|', student_id, subject_id, class_id, section_id,
+                                                             exam_name, academic_year), 0) AS k
+                  FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::bigint[], ?::varchar[], ?::varchar[])
+                       AS u(student_id, subject_id, class_id, section_id, exam_name, academic_year)
+                  ORDER BY 1) keys
+            """;
+
+    // Every mark of one section's exam, with the names the gradebook shows
+    private static final String GRADEBOOK_MARKS = """
+            SELECT st.id, TRIM(COALESCE(st.first_name, '') || ' ' || COALESCE(st.last_name, '')),
+                   sub.id, sub.subject_name, m.marks_obtained, m.max_marks, m.class_entity_id
+            FROM marks m
+            JOIN students st ON st.id = m.student_id
+            JOIN subjects sub ON sub.id = m.subject_id
+            WHERE m.section_id = ? AND m.exam_name = ? AND m.academic_year = ?
+            ORDER BY st.first_name, st.last_name, st.id, sub.subject_name
+            """;
+
+    @Autowired private MarkRepository markRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private GradingSchemeService gradingSchemeService;
+    @Autowired private MarkAnalyticsService markAnalyticsService;
+    @Autowired private StudentMarksCache studentMarksCache;
+
+    /**
+     * Saves an exam sheet with a fixed number of round-trips: one id lookup per referenced table,
+     * one query for the marks that already exist, then the upserts in JDBC batches. A bad row is
+     * reported in the result instead of failing the sheet.
+     */
+    @Transactional
+    public MarkSaveResultDTO saveMarks(List<MarkRequest> marks) {
+        MarkSaveResultDTO result = new MarkSaveResultDTO();
+        MarkSaveResultDTO.RowOutcome[] outcomes = new MarkSaveResultDTO.RowOutcome[marks.size()];
+
+        Set<Long> students = existingIds("students", marks.stream().map(MarkRequest::getStudentId));
+        Set<Long> subjects = existingIds("subjects", marks.stream().map(MarkRequest::getSubjectId));
+        Set<Long> classes = existingIds("classes", marks.stream().map(MarkRequest::getClassId));
+        Set<Long> sections = existingIds("sections", marks.stream().map(MarkRequest::getSectionId));
+
+        // Last row wins if the same mark appears twice in one sheet
+        Map<String, Integer> rowByKey = new LinkedHashMap<>();
+        for (int i = 0; i < marks.size(); i++) {
+            MarkRequest req = marks.get(i);
+            String problem = validate(req, students, subjects, classes, sections);
+            if (problem != null) {
+                outcomes[i] = rejected(i, req, problem);
+                continue;
+            }
+            Integer earlier = rowByKey.put(key(req), i);
+            if (earlier != null) {
+                outcomes[earlier] = rejected(earlier, marks.get(earlier), "Replaced by row " + i + " for the same exam");
+            }
+        }
+
+        List<Integer> rows = new ArrayList<>(rowByKey.values());
+        if (!rows.isEmpty()) {
+            List<MarkRequest> valid = rows.stream().map(marks::get).toList();
+            lockKeys(valid);
+            Set<String> existing = markRepository.findKeys(
+                            valid.stream().map(MarkRequest::getStudentId).collect(Collectors.toSet()),
+                            valid.stream().map(MarkRequest::getExamName).collect(Collectors.toSet()),
+                            valid.stream().map(MarkRequest::getAcademicYear).collect(Collectors.toSet()))
+                    .stream()
+                    .map(k -> key((Long) k[0], (Long) k[1], (Long) k[2], (Long) k[3], (String) k[4], (String) k[5]))
+                    .collect(Collectors.toSet());
+
+            double passPercent = markAnalyticsService.getPassPercent();
+            int[][] counts = jdbcTemplate.batchUpdate(UPSERT_MARK, rows, BATCH_SIZE, (ps, row) -> {
+                MarkRequest req = marks.get(row);
+                ps.setLong(1, req.getStudentId());
+                ps.setLong(2, req.getSubjectId());
+                ps.setLong(3, req.getClassId());
+                ps.setLong(4, req.getSectionId());
+                ps.setString(5, req.getExamName());
+                ps.setString(6, req.getAcademicYear());
+                ps.setLong(7, req.getStudentId());
+                ps.setLong(8, req.getSubjectId());
+                ps.setLong(9, req.getClassId());
+                ps.setLong(10, req.getSectionId());
+                ps.setString(11, req.getExamName());
+                ps.setString(12, req.getAcademicYear());
+                ps.setInt(13, req.getMarksObtained());
+                ps.setInt(14, req.getMaxMarks());
+                ps.setString(15, gradingSchemeService.grade(req.getClassId(), req.getAcademicYear(),
+                        req.getMarksObtained(), req.getMaxMarks()));
+                ps.setDouble(16, passPercent);
+            });
+
+            int n = 0;
+            Set<Long> written = new HashSet<>();
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    int row = rows.get(n++);
+                    MarkRequest req = marks.get(row);
+                    String outcome = count == 0 ? "unchanged" : existing.contains(key(req)) ? "updated" : "inserted";
+                    outcomes[row] = new MarkSaveResultDTO.RowOutcome(row, req.getStudentId(), outcome, null);
+                    if (count != 0) written.add(req.getStudentId());
+                }
+            }
+            studentMarksCache.invalidate(written);
+        }
+
+        for (MarkSaveResultDTO.RowOutcome outcome : outcomes) {
+            switch (outcome.getOutcome()) {
+                case "inserted" -> result.setInserted(result.getInserted() + 1);
+                case "updated" -> result.setUpdated(result.getUpdated() + 1);
+                case "unchanged" -> result.setUnchanged(result.getUnchanged() + 1);
+                default -> result.setRejected(result.getRejected() + 1);
+            }
+            result.getRows().add(outcome);
+        }
+        return result;
+    }
+
+    // Held until commit; every statement after this sees any earlier writer of these marks as committed
+    private void lockKeys(List<MarkRequest> marks) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOCK_KEYS);
+            ps.setArray(1, con.createArrayOf("bigint", marks.stream().map(MarkRequest::getStudentId).toArray()));
+            ps.setArray(2, con.createArrayOf("bigint", marks.stream().map(MarkRequest::getSubjectId).toArray()));
+            ps.setArray(3, con.createArrayOf("bigint", marks.stream().map(MarkRequest::getClassId).toArray()));
+            ps.setArray(4, con.createArrayOf("bigint", marks.stream().map(MarkRequest::getSectionId).toArray()));
+            ps.setArray(5, con.createArrayOf("varchar", marks.stream().map(MarkRequest::getExamName).toArray()));
+            ps.setArray(6, con.createArrayOf("varchar", marks.stream().map(MarkRequest::getAcademicYear).toArray()));
+            return ps;
+        }, rs -> {
+        });
+    }
+
+    // One round-trip however many assignments the teacher has: a Slice reads one extra row instead of counting
+    public TeacherMarksPageDTO getTeacherMarks(Long teacherId, String examName, String academicYear, int page, int size) {
+        Slice<TeacherMarkDTO> slice = markRepository.findTeacherMarks(teacherId, blankToNull(examName),
+                blankToNull(academicYear), PageRequest.of(page, size));
+        return new TeacherMarksPageDTO(page, size, slice.hasNext(), slice.getContent());
+    }
+
+    /** Students x subjects matrix for one exam, read in one query and pivoted in memory. */
+    public GradebookDTO getGradebook(Long sectionId, String examName, String academicYear) {
+        Gradebook gradebook = new Gradebook();
+        Long[] classId = new Long[1];
+        jdbcTemplate.query(GRADEBOOK_MARKS, rs -> {
+            gradebook.add(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4), rs.getInt(5), rs.getInt(6));
+            if (classId[0] == null) classId[0] = (Long) rs.getObject(7, Long.class);
+        }, sectionId, examName, academicYear);
+
+        GradebookDTO dto = gradebook.build(gradingSchemeService.tableFor(classId[0], academicYear));
+        dto.setSectionId(sectionId);
+        dto.setExamName(examName);
+        dto.setAcademicYear(academicYear);
+        return dto;
+    }
+
+    private static String validate(MarkRequest req, Set<Long> students, Set<Long> subjects,
+                                   Set<Long> classes, Set<Long> sections) {
+        if (!students.contains(req.getStudentId())) return "Student not found";
+        if (!subjects.contains(req.getSubjectId())) return "Subject not found";
+        if (!classes.contains(req.getClassId())) return "Class not found";
+        if (!sections.contains(req.getSectionId())) return "Section not found";
+        if (req.getExamName() == null || req.getExamName().isBlank()) return "Exam name is missing";
+        if (req.getAcademicYear() == null || req.getAcademicYear().isBlank()) return "Academic year is missing";
+        if (req.getMaxMarks() <= 0) return "Max marks must be positive";
+        if (req.getMarksObtained() < 0 || req.getMarksObtained() > req.getMaxMarks()) {
+            return "Marks must be between 0 and " + req.getMaxMarks();
+        }
+        return null;
+    }
+
+    private Set<Long> existingIds(String table, Stream<Long> ids) {
+        Long[] distinct = ids.filter(Objects::nonNull).distinct().toArray(Long[]::new);
+        if (distinct.length == 0) return Set.of();
+        Set<Long> found = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id FROM " + table + " WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", distinct));
+            return ps;
+        }, rs -> {
+            found.add(rs.getLong(1));
+        });
+        return found;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static MarkSaveResultDTO.RowOutcome rejected(int index, MarkRequest req, String message) {
+        return new MarkSaveResultDTO.RowOutcome(index, req.getStudentId(), "rejected", message);
+    }
+
+    private static String key(MarkRequest req) {
+        return key(req.getStudentId(), req.getSubjectId(), req.getClassId(), req.getSectionId(),
+                req.getExamName(), req.getAcademicYear());
+    }
+
+    private static String key(Long studentId, Long subjectId, Long classId, Long sectionId, String exam, String year) {
+        return studentId + "|" + subjectId + "|" + classId + "|" + sectionId + "|" + exam + "|" + year;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.dto.ImportResultDTO;
+import com.example.Skoolo.dto.MarkRequest;
+import com.example.Skoolo.dto.MarkSaveResultDTO;
+import com.example.Skoolo.service.export.ExportFormat;
+import com.example.Skoolo.service.export.ExportWriter;
+import com.example.Skoolo.service.importer.BatchWriter;
+import com.example.Skoolo.service.importer.ImportPipeline;
+import com.example.Skoolo.service.importer.RowReader;
+import com.example.Skoolo.service.importer.RowValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.util.*;
+
+/**
+ * Offline mark entry for teachers: download a sheet with one row per student for each of the
+ * teacher's assignments (pre-filled with marks already saved), fill it in, upload it back.
+ * The upload is streamed through the import pipeline; each row is checked against the teacher's
+ * assignments and the section's students, which are read once up front, and batches are saved
+ * with the same upsert as the marks screen.
+ */
+@Service
+public class MarkSheetService {
+
+    public static final String[] HEADER = {"Student ID", "Student", "Class ID", "Section ID", "Subject ID",
+            "Subject", "Exam", "Academic Year", "Marks Obtained", "Max Marks"};
+
+    // One row per active student per assignment, with the mark for this exam if there is one
+    private static final String SHEET_ROWS = """
+            SELECT st.id, TRIM(COALESCE(st.first_name, '') || ' ' || COALESCE(st.last_name, '')),
+                   tsa.class_id, tsa.section_id, tsa.subject_id, sub.subject_name, m.marks_obtained, m.max_marks
+            FROM teacher_subject_assignments tsa
+            JOIN students st ON st.section_id = tsa.section_id AND COALESCE(lower(st.status), 'active') = 'active'
+            JOIN subjects sub ON sub.id = tsa.subject_id
+            LEFT JOIN marks m ON m.student_id = st.id AND m.subject_id = tsa.subject_id
+                 AND m.class_entity_id = tsa.class_id AND m.section_id = tsa.section_id
+                 AND m.exam_name = ? AND m.academic_year = ?
+            WHERE tsa.teacher_id = ?
+            """;
+
+    private static final String ASSIGNMENTS = """
+            SELECT subject_id, class_id, section_id FROM teacher_subject_assignments WHERE teacher_id = ?
+            """;
+
+    private static final String SECTION_STUDENTS = """
+            SELECT id, section_id FROM students
+            WHERE section_id = ANY(?) AND COALESCE(lower(status), 'active') = 'active'
+            """;
+
+    @Autowired private ImportPipeline importPipeline;
+    @Autowired private MarkService markService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    /** Writes the sheet for one exam, optionally narrowed to one subject and/or section. */
+    public void writeSheet(OutputStream out, ExportFormat format, Long teacherId, String examName,
+                           String academicYear, Long subjectId, Long sectionId, Integer maxMarks) throws IOException {
+        StringBuilder sql = new StringBuilder(SHEET_ROWS);
+        List<Object> params = new ArrayList<>(List.of(examName, academicYear, teacherId));
+        if (subjectId != null) {
+            sql.append(" AND tsa.subject_id = ?");
+            params.add(subjectId);
+        }
+        if (sectionId != null) {
+            sql.append(" AND tsa.section_id = ?");
+            params.add(sectionId);
+        }
+        sql.append(" ORDER BY sub.subject_name, tsa.section_id, st.first_name, st.last_name, st.id");
+
+        try (ExportWriter writer = format.open(out, "Marks")) {
+            writer.writeRow((Object[]) HEADER);
+            jdbcTemplate.query(sql.toString(), rs -> {
+                Object max = rs.getObject(8);
+                try {
+                    writer.writeRow(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getLong(5),
+                            rs.getString(6), examName, academicYear, rs.getObject(7), max != null ? max : maxMarks);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // client went away
+                }
+            }, params.toArray());
+        }
+    }
+
+    /** Saves a filled-in sheet; rows with no marks are skipped, rows outside the teacher's assignments fail. */
+    public ImportResultDTO uploadSheet(MultipartFile file, Long teacherId) throws Exception {
+        Set<String> assigned = new HashSet<>();
+        Set<Long> sectionIds = new HashSet<>();
+        jdbcTemplate.query(ASSIGNMENTS, rs -> {
+            assigned.add(assignment(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+            sectionIds.add(rs.getLong(3));
+        }, teacherId);
+        if (assigned.isEmpty()) throw new RuntimeException("Teacher has no subject assignments");
+
+        Map<Long, Long> sectionByStudent = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SECTION_STUDENTS);
+            ps.setArray(1, con.createArrayOf("bigint", sectionIds.toArray()));
+            return ps;
+        }, rs -> {
+            sectionByStudent.put(rs.getLong(1), rs.getLong(2));
+        });
+
+        int[] counts = new int[3]; // inserted, updated, unchanged
+        RowValidator<MarkRequest> validator = row -> parseRow(row, assigned, sectionByStudent);
+        BatchWriter<MarkRequest> writer = batch -> {
+            MarkSaveResultDTO saved = markService.saveMarks(batch);
+            counts[0] += saved.getInserted();
+            counts[1] += saved.getUpdated();
+            counts[2] += saved.getUnchanged();
+            return saved.getInserted() + saved.getUpdated();
+        };
+
+        ImportResultDTO result;
+        try (RowReader reader = RowReader.open(file)) {
+            result = importPipeline.run(reader, validator, writer);
+        }
+        result.setMessage(counts[0] + " marks added, " + counts[1] + " updated, " + counts[2] + " unchanged.");
+        return result;
+    }
+
+    private static MarkRequest parseRow(String[] row, Set<String> assigned, Map<Long, Long> sectionByStudent) {
+        String obtained = RowReader.column(row, 8);
+        if (obtained.isEmpty()) return null; // not marked yet
+
+        MarkRequest req = new MarkRequest();
+        req.setStudentId(number(row, 0, "Student ID"));
+        req.setClassId(number(row, 2, "Class ID"));
+        req.setSectionId(number(row, 3, "Section ID"));
+        req.setSubjectId(number(row, 4, "Subject ID"));
+        req.setExamName(RowReader.column(row, 6));
+        req.setAcademicYear(RowReader.column(row, 7));
+        req.setMarksObtained((int) number(row, 8, "Marks Obtained"));
+        req.setMaxMarks((int) number(row, 9, "Max Marks"));
+
+        if (!assigned.contains(assignment(req.getSubjectId(), req.getClassId(), req.getSectionId()))) {
+            throw new RuntimeException("You are not assigned to subject " + req.getSubjectId()
+                    + " in section " + req.getSectionId());
+        }
+        if (!req.getSectionId().equals(sectionByStudent.get(req.getStudentId()))) {
+            throw new RuntimeException("Student " + req.getStudentId() + " is not an active student of section "
+                    + req.getSectionId());
+        }
+        if (req.getExamName().isEmpty()) throw new RuntimeException("Exam is missing");
+        if (req.getAcademicYear().isEmpty()) throw new RuntimeException("Academic year is missing");
+        if (req.getMaxMarks() <= 0) throw new RuntimeException("Max marks must be positive");
+        if (req.getMarksObtained() < 0 || req.getMarksObtained() > req.getMaxMarks()) {
+            throw new RuntimeException("Marks must be between 0 and " + req.getMaxMarks());
+        }
+        return req;
+    }
+
+    // Spreadsheets hand numbers back as "42" or "42.0"
+    private static long number(String[] row, int index, String column) {
+        String value = RowReader.column(row, index);
+        if (value.isEmpty()) throw new RuntimeException(column + " is missing");
+        try {
+            double parsed = Double.parseDouble(value);
+            if (parsed != Math.rint(parsed)) throw new NumberFormatException();
+            return (long) parsed;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(column + " must be a whole number, got '" + value + "'");
+        }
+    }
+
+    private static String assignment(long subjectId, long classId, long sectionId) {
+        return subjectId + "|" + classId + "|" + sectionId;
+    }
+}
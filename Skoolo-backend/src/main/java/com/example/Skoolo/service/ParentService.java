@@ -1,5 +1,6 @@
 package com.example.Skoolo.service;
 
+import com.example.Skoolo.dto.ImportResultDTO;
 import com.example.Skoolo.model.Parent;
 import com.example.Skoolo.model.PasswordResetToken;
 import com.example.Skoolo.model.Student;
@@ -9,18 +10,21 @@ import com.example.Skoolo.repo.ParentRepository;
 import com.example.Skoolo.repo.PasswordResetTokenRepository;
 import com.example.Skoolo.repo.StudentRepository;
 import com.example.Skoolo.repo.UserRepository;
-import com.opencsv.CSVReader;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import com.example.Skoolo.service.importer.ImportPipeline;
+import com.example.Skoolo.service.importer.RowReader;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
@@ -33,77 +37,116 @@ public class ParentService {
 
     private final PasswordResetTokenRepository tokenRepository;
 
+    private final ImportPipeline importPipeline;
+    private final TransactionTemplate transactionTemplate;
+
     @Autowired
     private EmailService emailService;
 
 
 
-    public void processParentCsv(MultipartFile file) throws Exception {
-        String filename = file.getOriginalFilename();
-
-        if (filename != null && (filename.endsWith(".xlsx") || filename.endsWith(".xls"))) {
-            processParentExcel(file); // 📥 Excel
-        } else {
-            processParentCsvInternal(file); // 📥 CSV
+    public ImportResultDTO processParentCsv(MultipartFile file, boolean dryRun) throws Exception {
+        Set<String> seenEmails = ConcurrentHashMap.newKeySet();
+        try (RowReader reader = RowReader.open(file)) { // 📥 CSV or Excel
+            if (dryRun) {
+                // Same rule as saveParentBatch: only emails without a parent yet would be imported
+                return importPipeline.dryRun(reader, row -> parseParentRow(row, seenEmails), this::countNewParents);
+            }
+            return importPipeline.run(reader,
+                    row -> parseParentRow(row, seenEmails),
+                    this::saveParentBatch);
         }
     }
 
-    // 🔁 CSV processing logic
-    private void processParentCsvInternal(MultipartFile file) throws Exception {
-        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            CSVReader csvReader = new CSVReader(reader);
-            String[] nextLine;
-            boolean isFirstLine = true;
-
-            while ((nextLine = csvReader.readNext()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-
-                String firstName = nextLine[0];
-                String lastName = nextLine[1];
-                String email = nextLine[2];
-                String contact = nextLine[3];
-                String address = nextLine[4];
+    // Columns: firstName, lastName, email, contact, address
+    private Parent parseParentRow(String[] row, Set<String> seenEmails) {
+        String email = RowReader.column(row, 2);
+        if (email.isEmpty()) throw new RuntimeException("Email is missing");
+        if (!seenEmails.add(email)) throw new RuntimeException("Duplicate email in file: " + email);
+
+        User user = new User();
+        user.setFirstName(RowReader.column(row, 0));
+        user.setLastName(RowReader.column(row, 1));
+        user.setEmail(email);
+        user.setRole(Role.PARENT);
+        user.setActive(true);
+        user.setPasswordSet(false);
+
+        Parent parent = new Parent();
+        parent.setUser(user);
+        parent.setFirstName(user.getFirstName());
+        parent.setLastName(user.getLastName());
+        parent.setContactNumber(RowReader.column(row, 3));
+        parent.setAddress(RowReader.column(row, 4));
+        return parent;
+    }
 
-                saveParentAndMatchStudents(firstName, lastName, email, contact, address);
-            }
-        }
+    private int countNewParents(List<Parent> batch) {
+        Set<String> parentEmails = existingParentEmails(batch.stream().map(p -> p.getUser().getEmail()).toList());
+        return (int) batch.stream().filter(p -> !parentEmails.contains(p.getUser().getEmail())).count();
     }
 
-    // 🔁 Excel processing logic
-    private void processParentExcel(MultipartFile file) throws Exception {
-        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            boolean isFirstRow = true;
+    private Set<String> existingParentEmails(List<String> emails) {
+        return parentRepository.findByUserEmailIn(emails).stream()
+                .map(p -> p.getUser().getEmail())
+                .collect(Collectors.toSet());
+    }
 
-            for (Row row : sheet) {
-                if (isFirstRow) {
-                    isFirstRow = false;
-                    continue;
+    // Batched version of saveParentAndMatchStudents: a handful of statements per batch.
+    // Returns the parents created; rows whose email already has a parent count as skipped.
+    private int saveParentBatch(List<Parent> batch) {
+        SavedBatch saved = transactionTemplate.execute(status -> {
+            List<String> emails = batch.stream().map(p -> p.getUser().getEmail()).toList();
+
+            // 1️⃣ Get or create Users
+            Map<String, User> usersByEmail = userRepository.findByEmailIn(emails).stream()
+                    .collect(Collectors.toMap(User::getEmail, u -> u, (a, b) -> a));
+            Set<String> parentEmails = existingParentEmails(emails);
+
+            List<User> newUsers = new ArrayList<>();
+            List<Parent> newParents = new ArrayList<>();
+            for (Parent parent : batch) {
+                String email = parent.getUser().getEmail();
+                User existing = usersByEmail.get(email);
+                if (existing == null) {
+                    newUsers.add(parent.getUser());
+                } else {
+                    parent.setUser(existing);
+                }
+                // 2️⃣ Create Parent only if missing
+                if (!parentEmails.contains(email)) {
+                    newParents.add(parent);
                 }
+            }
+            userRepository.saveAll(newUsers);
+            parentRepository.saveAll(newParents);
 
-                String firstName = getCellValue(row.getCell(0));
-                String lastName = getCellValue(row.getCell(1));
-                String email = getCellValue(row.getCell(2));
-                String contact = getCellValue(row.getCell(3));
-                String address = getCellValue(row.getCell(4));
+            // 3️⃣ Match unmatched students in one statement
+            studentRepository.linkUnmatchedToParents(emails);
 
-                saveParentAndMatchStudents(firstName, lastName, email, contact, address);
+            // 4️⃣ Password setup tokens (only for new users)
+            return new SavedBatch(newParents.size(), tokenRepository.saveAll(newUsers.stream().map(this::newSetupToken).toList()));
+        });
+
+        for (PasswordResetToken token : saved.tokens()) {
+            try {
+                emailService.sendPasswordSetupEmail(token.getUser().getEmail(), token.getToken());
+            } catch (Exception e) {
+                System.err.println("Failed to send setup email: " + e.getMessage());
             }
         }
+        return saved.parents();
+    }
+
+    private record SavedBatch(int parents, List<PasswordResetToken> tokens) {
     }
 
-    // 🔁 Utility to extract string value
-    private String getCellValue(Cell cell) {
-        if (cell == null) return "";
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> String.valueOf((long) cell.getNumericCellValue()); // for contact
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            default -> "";
-        };
+    private PasswordResetToken newSetupToken(User user) {
+        PasswordResetToken resetToken = new PasswordResetToken();
+        resetToken.setToken(UUID.randomUUID().toString());
+        resetToken.setUser(user);
+        resetToken.setExpiryDate(LocalDateTime.now().plusDays(1));
+        return resetToken;
     }
 
     // 🔁 Common saving logic
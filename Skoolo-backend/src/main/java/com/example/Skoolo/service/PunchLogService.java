@@ -0,0 +1,158 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.dto.AttendanceRequestDto;
+import com.example.Skoolo.dto.ImportResultDTO;
+import com.example.Skoolo.service.importer.BatchWriter;
+import com.example.Skoolo.service.importer.ImportFingerprints;
+import com.example.Skoolo.service.importer.ImportPipeline;
+import com.example.Skoolo.service.importer.RowReader;
+import com.example.Skoolo.service.importer.RowValidator;
+import com.example.Skoolo.service.timetable.TimetableIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns gate-reader punch logs (RFID or biometric) into attendance. The file is streamed
+ * through the import pipeline; only the earliest punch per student per day is kept, so memory
+ * grows with student-days, not punches. Each student-day becomes "present", or "late" when the
+ * first punch came after the section's first period started (plus a grace period), and is saved
+ * through the same single-statement insert as a teacher's roll call. Days a teacher already
+ * marked are left as they are.
+ */
+@Service
+public class PunchLogService {
+
+    private static final int WRITE_CHUNK = 5_000;
+
+    // "2025-07-01 08:03", "2025-07-01T08:03:27"
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd['T'][' ']H:mm[:ss]");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("H:mm[:ss]");
+
+    private static final String ACTIVE_STUDENTS = """
+            SELECT id, section_id FROM students WHERE COALESCE(lower(status), 'active') = 'active'
+            """;
+
+    @Autowired private ImportPipeline importPipeline;
+    @Autowired private ImportFingerprints importFingerprints;
+    @Autowired private AttendanceService attendanceService;
+    @Autowired private TimetableIndex timetableIndex;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Value("${skoolo.punch.grace-minutes:5}")
+    private int graceMinutes;
+
+    // Columns: studentId, timestamp — or studentId, date, time
+    public ImportResultDTO processPunchFile(MultipartFile file, boolean force) throws Exception {
+        return importFingerprints.runOnce("punches", file, force, () -> {
+            Map<Long, Long> sectionByStudent = new HashMap<>();
+            jdbcTemplate.query(ACTIVE_STUDENTS, rs -> {
+                sectionByStudent.put(rs.getLong(1), (Long) rs.getObject(2, Long.class));
+            });
+
+            Map<StudentDay, LocalTime> firstPunch = new HashMap<>();
+            RowValidator<Punch> validator = row -> parsePunch(row, sectionByStudent);
+            BatchWriter<Punch> collector = batch -> {
+                int firstOfDay = 0;
+                for (Punch punch : batch) {
+                    LocalTime earlier = firstPunch.putIfAbsent(punch.day(), punch.time());
+                    if (earlier == null) {
+                        firstOfDay++;
+                    } else if (punch.time().isBefore(earlier)) {
+                        firstPunch.put(punch.day(), punch.time());
+                    }
+                }
+                return firstOfDay;
+            };
+
+            ImportResultDTO result;
+            try (RowReader reader = RowReader.open(file)) {
+                result = importPipeline.run(reader, validator, collector);
+            }
+
+            int inserted = save(firstPunch, sectionByStudent);
+            int accepted = result.getImported();
+            result.setImported(inserted);
+            result.setSkipped(result.getTotalRows() - result.getFailed() - inserted);
+            result.setMessage(accepted + " student-days found in the log, " + inserted + " saved, "
+                    + (accepted - inserted) + " already marked.");
+            return result;
+        });
+    }
+
+    private Punch parsePunch(String[] row, Map<Long, Long> sectionByStudent) {
+        String idStr = RowReader.column(row, 0);
+        if (idStr.isEmpty()) throw new RuntimeException("Student id is missing");
+
+        long studentId;
+        try {
+            studentId = Long.parseLong(idStr);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Student id must be a number, got '" + idStr + "'");
+        }
+        if (!sectionByStudent.containsKey(studentId)) {
+            throw new RuntimeException("No active student with id " + studentId);
+        }
+
+        LocalDateTime at = parseTimestamp(RowReader.column(row, 1), RowReader.column(row, 2));
+        return new Punch(new StudentDay(studentId, at.toLocalDate()), at.toLocalTime());
+    }
+
+    private static LocalDateTime parseTimestamp(String first, String second) {
+        try {
+            if (!second.isEmpty()) {
+                return LocalDate.parse(first).atTime(LocalTime.parse(second, TIME));
+            }
+            return LocalDateTime.parse(first, TIMESTAMP);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Punch time must be yyyy-MM-dd HH:mm[:ss], got '"
+                    + (first + " " + second).trim() + "'");
+        }
+    }
+
+    private int save(Map<StudentDay, LocalTime> firstPunch, Map<Long, Long> sectionByStudent) {
+        int inserted = 0;
+        List<AttendanceRequestDto> chunk = new ArrayList<>(Math.min(WRITE_CHUNK, firstPunch.size()));
+        for (Map.Entry<StudentDay, LocalTime> entry : firstPunch.entrySet()) {
+            StudentDay day = entry.getKey();
+            AttendanceRequestDto dto = new AttendanceRequestDto();
+            dto.setStudentId(day.studentId());
+            dto.setDate(day.date());
+            dto.setStatus(isLate(sectionByStudent.get(day.studentId()), day.date(), entry.getValue()) ? "late" : "present");
+            chunk.add(dto);
+            if (chunk.size() == WRITE_CHUNK) {
+                inserted += attendanceService.recordDeviceAttendance(chunk).getInserted();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            inserted += attendanceService.recordDeviceAttendance(chunk).getInserted();
+        }
+        return inserted;
+    }
+
+    // Without a first period on the timetable there is nothing to be late for
+    private boolean isLate(Long sectionId, LocalDate date, LocalTime firstPunch) {
+        if (sectionId == null) return false;
+        LocalTime start = timetableIndex.startOf(sectionId, date.getDayOfWeek(), "1");
+        return start != null && firstPunch.isAfter(start.plusMinutes(graceMinutes));
+    }
+
+    private record StudentDay(long studentId, LocalDate date) {
+    }
+
+    private record Punch(StudentDay day, LocalTime time) {
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.dto.ReportCardJobDTO;
+import com.example.Skoolo.service.reportcard.ReportCardRenderer;
+import com.example.Skoolo.service.reportcard.ReportCardRenderer.Card;
+import com.example.Skoolo.service.reportcard.ReportCardRenderer.MarkLine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Term-end report cards for a whole class or section. Everything the cards need is read up front
+ * in four set-based queries. Rendering is CPU-bound and runs on one worker per core, each rendering
+ * into its own reused buffer; the finished PDF is handed to a larger pool of upload workers, since
+ * Cloudinary and the database row are mostly waiting. At most a fixed number of rendered PDFs wait
+ * for upload at once, so memory stays bounded however big the class is. Progress can be polled and
+ * is pushed on /topic/report-cards/{jobId}.
+ */
+@Service
+public class ReportCardService {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_ERRORS = 100;
+    private static final int PROGRESS_EVERY = 50;
+
+    // Current (or upcoming) year: the class as it is today
+    private static final String STUDENTS = """
+            SELECT s.id, TRIM(COALESCE(s.first_name, '') || ' ' || COALESCE(s.last_name, '')),
+                   c.class_name, sec.section_name
+            FROM students s
+            LEFT JOIN classes c ON c.id = s.class_id
+            LEFT JOIN sections sec ON sec.id = s.section_id
+            WHERE s.class_id = ? AND (CAST(? AS bigint) IS NULL OR s.section_id = ?)
+              AND COALESCE(lower(s.status), 'active') = 'active'
+            ORDER BY sec.section_name, s.first_name, s.last_name, s.id
+            """;
+
+    // Past years: the class as class_history recorded it, including students who have since left
+    private static final String STUDENTS_IN_YEAR = """
+            SELECT s.id, TRIM(COALESCE(s.first_name, '') || ' ' || COALESCE(s.last_name, '')),
+                   c.class_name, sec.section_name
+            FROM class_history h
+            JOIN students s ON s.id = h.student_id
+            LEFT JOIN classes c ON c.id = h.class_id
+            LEFT JOIN sections sec ON sec.id = h.section_id
+            WHERE h.academic_year = ? AND h.class_id = ? AND (CAST(? AS bigint) IS NULL OR h.section_id = ?)
+            ORDER BY sec.section_name, s.first_name, s.last_name, s.id
+            """;
+
+    private static final String MARKS = """
+            SELECT m.student_id, m.exam_name, sub.subject_name, m.marks_obtained, m.max_marks, m.grade
+            FROM marks m
+            JOIN subjects sub ON sub.id = m.subject_id
+            WHERE m.student_id = ANY(?) AND m.academic_year = ?
+            ORDER BY m.student_id, m.exam_name, sub.subject_name
+            """;
+
+    // Read from the monthly rollup: twelve rows per student instead of ~200 attendance rows
+    private static final String ATTENDANCE = """
+            SELECT student_id, sum(present_count), sum(absent_count), sum(late_count), sum(leave_count)
+            FROM attendance_student_month
+            WHERE student_id = ANY(?) AND month_start BETWEEN ? AND ?
+            GROUP BY student_id
+            """;
+
+    private static final String HISTORY = """
+            SELECT student_id, result_status, remarks FROM class_history
+            WHERE student_id = ANY(?) AND academic_year = ?
+            """;
+
+    private static final String SAVE_CARD = """
+            INSERT INTO report_cards (student_id, academic_year, pdf_url, public_id, generated_at)
+            VALUES (?, ?, ?, ?, now())
+            ON CONFLICT (student_id, academic_year) DO UPDATE
+            SET pdf_url = EXCLUDED.pdf_url, public_id = EXCLUDED.public_id, generated_at = EXCLUDED.generated_at
+            """;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private CloudinaryService cloudinaryService;
+    @Autowired private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${skoolo.school-name:Skoolo}")
+    private String schoolName;
+
+    @Value("${skoolo.academic-year.start-month:6}")
+    private int yearStartMonth;
+
+    @Value("${skoolo.report-cards.max-pdf-kb:512}")
+    private int maxPdfKb;
+
+    private final ExecutorService renderers;
+    private final ExecutorService uploaders;
+    private final Semaphore awaitingUpload; // rendered PDFs not yet uploaded
+    private final ThreadLocal<ByteArrayOutputStream> buffers =
+            ThreadLocal.withInitial(() -> new ByteArrayOutputStream(BUFFER_BYTES));
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ReportCardService(@Value("${skoolo.report-cards.workers:0}") int workerCount,
+                             @Value("${skoolo.report-cards.upload-workers:16}") int uploadWorkerCount) {
+        int renderThreads = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        int uploadThreads = Math.max(1, uploadWorkerCount);
+        this.renderers = Executors.newFixedThreadPool(renderThreads, daemonThreads("report-card-render-"));
+        this.uploaders = Executors.newFixedThreadPool(uploadThreads, daemonThreads("report-card-upload-"));
+        this.awaitingUpload = new Semaphore(uploadThreads * 2);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderers.shutdownNow();
+        uploaders.shutdownNow();
+    }
+
+    /** Loads the class's data, queues one card per student and returns straight away. */
+    public ReportCardJobDTO generate(Long classId, Long sectionId, String academicYear) {
+        YearMonth from = firstMonth(academicYear);
+        List<Card> cards = loadCards(classId, sectionId, academicYear, from, from.plusMonths(11));
+        if (cards.isEmpty()) {
+            throw new IllegalArgumentException("No students in that class or section for " + academicYear);
+        }
+
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(LocalDateTime.now().minusDays(1)));
+        Job job = new Job(UUID.randomUUID().toString(), classId, sectionId, academicYear, cards.size());
+        jobs.put(job.id, job);
+        for (Card card : cards) {
+            renderers.submit(() -> render(job, card));
+        }
+        return job.snapshot();
+    }
+
+    public Optional<ReportCardJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::snapshot);
+    }
+
+    // Render worker: renders, then blocks until an upload slot is free, which throttles rendering to upload speed
+    private void render(Job job, Card card) {
+        ByteArrayOutputStream buffer = buffers.get();
+        byte[] pdf;
+        try {
+            buffer.reset();
+            ReportCardRenderer.render(card, schoolName, buffer);
+            if (buffer.size() > maxPdfKb * 1024) {
+                throw new IllegalStateException("PDF is " + buffer.size() / 1024 + " KB, over the " + maxPdfKb + " KB limit");
+            }
+            pdf = buffer.toByteArray();
+        } catch (Exception e) {
+            fail(job, card, e);
+            progress(job);
+            return;
+        } finally {
+            // A card that needed an oversized buffer does not get to keep it
+            if (buffer.size() > BUFFER_BYTES) buffers.remove();
+        }
+
+        awaitingUpload.acquireUninterruptibly();
+        try {
+            uploaders.submit(() -> store(job, card, pdf));
+        } catch (RejectedExecutionException e) {
+            awaitingUpload.release();
+            fail(job, card, e);
+            progress(job);
+        }
+    }
+
+    // Upload worker: mostly waiting on Cloudinary and the database
+    private void store(Job job, Card card, byte[] pdf) {
+        try {
+            Map<String, String> stored = cloudinaryService.uploadBytes(pdf,
+                    "report-cards/" + card.academicYear(), Long.toString(card.studentId()));
+            jdbcTemplate.update(SAVE_CARD, card.studentId(), card.academicYear(), stored.get("url"), stored.get("publicId"));
+            job.generated.incrementAndGet();
+        } catch (Exception e) {
+            fail(job, card, e);
+        } finally {
+            awaitingUpload.release();
+            progress(job);
+        }
+    }
+
+    private static void fail(Job job, Card card, Exception e) {
+        job.failed.incrementAndGet();
+        if (job.errors.size() < MAX_ERRORS) job.errors.add(card.studentName() + ": " + e.getMessage());
+    }
+
+    private void progress(Job job) {
+        int finished = job.finished.incrementAndGet();
+        boolean last = finished == job.total;
+        if (last) {
+            job.finishedAt = LocalDateTime.now();
+            System.out.println("📄 Report cards " + job.academicYear + " class " + job.classId + ": " + job.generated.get()
+                    + " generated, " + job.failed.get() + " failed in "
+                    + Duration.between(job.startedAt, job.finishedAt).toMillis() + " ms");
+        }
+        if (last || finished % PROGRESS_EVERY == 0) {
+            try {
+                messagingTemplate.convertAndSend("/topic/report-cards/" + job.id, job.snapshot());
+            } catch (Exception e) {
+                System.err.println("Failed to push report card progress: " + e.getMessage());
+            }
+        }
+    }
+
+    private List<Card> loadCards(Long classId, Long sectionId, String academicYear, YearMonth from, YearMonth to) {
+        Map<Long, String[]> students = new LinkedHashMap<>();
+        RowCallbackHandler roster = rs -> {
+            students.put(rs.getLong(1), new String[]{rs.getString(2), rs.getString(3), rs.getString(4)});
+        };
+        if (YearMonth.now().isAfter(to)) {
+            jdbcTemplate.query(STUDENTS_IN_YEAR, roster, academicYear, classId, sectionId, sectionId);
+        } else {
+            jdbcTemplate.query(STUDENTS, roster, classId, sectionId, sectionId);
+        }
+        if (students.isEmpty()) return List.of();
+        Long[] studentIds = students.keySet().toArray(Long[]::new);
+
+        Map<Long, List<MarkLine>> marks = new HashMap<>();
+        query(MARKS, studentIds, academicYear, rs -> marks.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>())
+                .add(new MarkLine(rs.getString(2), rs.getString(3), rs.getInt(4), rs.getInt(5), rs.getString(6))));
+
+        Map<Long, int[]> attendance = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ATTENDANCE);
+            ps.setArray(1, con.createArrayOf("bigint", studentIds));
+            ps.setObject(2, from.atDay(1));
+            ps.setObject(3, to.atDay(1));
+            return ps;
+        }, rs -> {
+            attendance.put(rs.getLong(1), new int[]{rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5)});
+        });
+
+        Map<Long, String[]> history = new HashMap<>();
+        query(HISTORY, studentIds, academicYear, rs -> history.put(rs.getLong(1), new String[]{rs.getString(2), rs.getString(3)}));
+
+        List<Card> cards = new ArrayList<>(students.size());
+        students.forEach((id, info) -> {
+            int[] days = attendance.getOrDefault(id, new int[4]);
+            String[] result = history.getOrDefault(id, new String[2]);
+            cards.add(new Card(id, info[0], info[1], info[2], academicYear, marks.getOrDefault(id, List.of()),
+                    days[0], days[1], days[2], days[3], result[0], result[1]));
+        });
+        return cards;
+    }
+
+    private void query(String sql, Long[] studentIds, String academicYear, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", studentIds));
+            ps.setString(2, academicYear);
+            return ps;
+        }, handler);
+    }
+
+    // "2025-2026" or "2025-26" -> the month the school year starts in
+    private YearMonth firstMonth(String academicYear) {
+        if (academicYear == null || !academicYear.trim().matches("\\d{4}.*")) {
+            throw new IllegalArgumentException("Academic year must start with a year, e.g. 2025-2026");
+        }
+        return YearMonth.of(Integer.parseInt(academicYear.trim().substring(0, 4)), yearStartMonth);
+    }
+
+    private static class Job {
+        final String id;
+        final Long classId;
+        final Long sectionId;
+        final String academicYear;
+        final int total;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicInteger generated = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger finished = new AtomicInteger();
+        final Queue<String> errors = new ConcurrentLinkedQueue<>();
+        volatile LocalDateTime finishedAt;
+
+        Job(String id, Long classId, Long sectionId, String academicYear, int total) {
+            this.id = id;
+            this.classId = classId;
+            this.sectionId = sectionId;
+            this.academicYear = academicYear;
+            this.total = total;
+        }
+
+        ReportCardJobDTO snapshot() {
+            return new ReportCardJobDTO(id, classId, sectionId, academicYear, finishedAt == null ? "RUNNING" : "DONE",
+                    total, generated.get(), failed.get(), startedAt, finishedAt, List.copyOf(errors));
+        }
+    }
+}
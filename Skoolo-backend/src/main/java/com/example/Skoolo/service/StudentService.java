@@ -1,5 +1,6 @@
 package com.example.Skoolo.service;
 
+import com.example.Skoolo.dto.ImportResultDTO;
 import com.example.Skoolo.dto.StudentAddRequest;
 import com.example.Skoolo.dto.StudentUpdateRequest;
 import com.example.Skoolo.model.ClassEntity;
@@ -10,22 +11,37 @@ import com.example.Skoolo.repo.ClassRepository;
 import com.example.Skoolo.repo.ParentRepository;
 import com.example.Skoolo.repo.SectionRepository;
 import com.example.Skoolo.repo.StudentRepository;
-import com.opencsv.CSVReader;
-import org.apache.poi.ss.usermodel.*;
+import com.example.Skoolo.service.importer.BatchWriter;
+import com.example.Skoolo.service.importer.ImportFingerprints;
+import com.example.Skoolo.service.importer.ImportPipeline;
+import com.example.Skoolo.service.importer.RowReader;
+import com.example.Skoolo.service.importer.RowValidator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 public class StudentService {
 
+    private static final Logger log = LoggerFactory.getLogger(StudentService.class);
+
     @Autowired
     private StudentRepository studentRepository;
 
@@ -38,148 +54,185 @@ public class StudentService {
     @Autowired
     private ParentRepository parentRepository;
 
-    // MAIN ENTRY
-    public void processStudentFile(MultipartFile file, Long classId, Long sectionId) throws Exception {
-        String filename = file.getOriginalFilename();
-        if (filename == null) throw new RuntimeException("File name is invalid");
+    @Autowired
+    private ImportPipeline importPipeline;
 
-        ClassEntity classEntity = classRepository.findById(classId)
-                .orElseThrow(() -> new RuntimeException("Class not found: " + classId));
-        Section section = sectionRepository.findById(sectionId)
-                .orElseThrow(() -> new RuntimeException("Section not found: " + sectionId));
+    @Autowired
+    private ImportFingerprints importFingerprints;
 
-        if (filename.endsWith(".csv")) {
-            processStudentCsv(file, classEntity, section);
-        } else if (filename.endsWith(".xlsx") || filename.endsWith(".xls")) {
-            processStudentExcel(file, classEntity, section);
-        } else {
-            throw new RuntimeException("Unsupported file type: " + filename);
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // findNaturalKeyCandidates compares lower(trim(first_name)); Hibernate renders the trim as
+    // TRIM(BOTH FROM ...), spelled the same way here so the planner recognises the expression
+    private static final String NATURAL_KEY_INDEX = """
+            CREATE INDEX IF NOT EXISTS idx_student_natural_key_ci
+            ON students (lower(trim(BOTH FROM first_name)), dob)
+            """;
+
+    /**
+     * The schema update can only index plain columns, and the case-insensitive natural-key match
+     * cannot use those, so the expression index is created here. The old plain-column index served
+     * nothing after the match became case-insensitive and is dropped. Without the index imports
+     * still work, only slower, so a failure is logged rather than stopping startup.
+     */
+    @PostConstruct
+    public void createNaturalKeyIndex() {
+        try {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_student_natural_key");
+            jdbcTemplate.execute(NATURAL_KEY_INDEX);
+        } catch (Exception e) {
+            log.warn("Student natural-key index not created, imports will scan students by dob: {}", e.getMessage());
         }
     }
 
+    // MAIN ENTRY
+    public ImportResultDTO processStudentFile(MultipartFile file, Long classId, Long sectionId,
+                                              boolean force, boolean dryRun) throws Exception {
+        ClassEntity classEntity = classRepository.findById(classId)
+                .orElseThrow(() -> new RuntimeException("Class not found: " + classId));
+        Section section = sectionRepository.findById(sectionId)
+                .orElseThrow(() -> new RuntimeException("Section not found: " + sectionId));
 
-    // CSV HANDLER
-    private void processStudentCsv(MultipartFile file, ClassEntity classEntity, Section section) throws Exception {
-        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            CSVReader csvReader = new CSVReader(reader);
-            String[] nextLine;
-            boolean isFirstLine = true;
+        Set<String> seenInFile = ConcurrentHashMap.newKeySet();
+        RowValidator<Student> validator = row -> parseStudentRow(row, classEntity, section, seenInFile);
 
-            while ((nextLine = csvReader.readNext()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
+        if (dryRun) {
+            BatchWriter<Student> predictor = predictStudentUpserts();
+            try (RowReader reader = RowReader.open(file)) {
+                return importPipeline.dryRun(reader, validator, predictor);
+            }
+        }
 
-                handleStudentData(
-                        nextLine[0], nextLine[1], nextLine[2], nextLine[3],
-                        nextLine[4], nextLine[5], nextLine[6], nextLine[7],
-                        classEntity, section
-                );
+        String scope = "students:" + classId + ":" + sectionId;
+        return importFingerprints.runOnce(scope, file, force, () -> {
+            try (RowReader reader = RowReader.open(file)) {
+                return importPipeline.run(reader, validator, this::upsertStudentBatch);
             }
+        });
+    }
+
+    // One query up front; afterwards every batch is checked against the snapshot only
+    private BatchWriter<Student> predictStudentUpserts() {
+        Map<String, String> hashByKey = new HashMap<>();
+        for (Object[] row : studentRepository.findImportKeys()) {
+            hashByKey.put(naturalKey((String) row[0], (String) row[1], (LocalDate) row[2], (String) row[3]), (String) row[4]);
         }
+        return batch -> (int) batch.stream()
+                .filter(s -> !s.getImportHash().equals(hashByKey.get(naturalKey(s))))
+                .count();
     }
 
-    // EXCEL HANDLER
-    private void processStudentExcel(MultipartFile file, ClassEntity classEntity, Section section) throws Exception {
-        Workbook workbook = WorkbookFactory.create(file.getInputStream());
-        Sheet sheet = workbook.getSheetAt(0);
-        boolean isFirstRow = true;
+    // Columns: firstName, lastName, dob, gender, contact, address, parentEmail, enrollmentDate
+    private Student parseStudentRow(String[] row, ClassEntity classEntity, Section section, Set<String> seenInFile) {
+        String firstName = RowReader.column(row, 0);
+        String lastName = RowReader.column(row, 1);
+        String dobStr = RowReader.column(row, 2);
+        String parentEmail = RowReader.column(row, 6);
+        String enrollDateStr = RowReader.column(row, 7);
 
-        for (Row row : sheet) {
-            if (isFirstRow) {
-                isFirstRow = false;
-                continue;
-            }
+        if (firstName.isEmpty()) throw new RuntimeException("First name is missing");
+        if (dobStr.isEmpty()) throw new RuntimeException("DOB is missing");
+        if (enrollDateStr.isEmpty()) throw new RuntimeException("Enrollment Date is missing");
+
+        LocalDate dob = parseDate(dobStr, "DOB");
+        LocalDate enrollDate = parseDate(enrollDateStr, "Enrollment Date");
 
-            String firstName = getCellValueAsString(row.getCell(0));
-            String lastName = getCellValueAsString(row.getCell(1));
-            String dobStr = getCellValueAsString(row.getCell(2));
-            String gender = getCellValueAsString(row.getCell(3));
-            String contact = getCellValueAsString(row.getCell(4));
-            String address = getCellValueAsString(row.getCell(5));
-            String parentEmail = getCellValueAsString(row.getCell(6));
-            String enrollDateStr = getCellValueAsString(row.getCell(7));
-
-            handleStudentData(firstName, lastName, dobStr, gender, contact,
-                    address, parentEmail, enrollDateStr, classEntity, section);
+        if (!seenInFile.add(naturalKey(firstName, lastName, dob, parentEmail))) {
+            throw new RuntimeException("Duplicate student in file: " + firstName + " " + lastName);
         }
 
-        workbook.close();
+        Student student = new Student();
+        student.setFirstName(firstName);
+        student.setLastName(lastName);
+        student.setDob(dob);
+        student.setGender(RowReader.column(row, 3));
+        student.setContactNumber(RowReader.column(row, 4));
+        student.setAddress(RowReader.column(row, 5));
+        student.setStatus("active");
+        student.setEnrollmentDate(enrollDate);
+        student.setParentEmail(parentEmail);
+        student.setCurrentClass(classEntity);
+        student.setCurrentSection(section);
+        student.setImportHash(ImportFingerprints.rowHash(firstName, lastName, dob, student.getGender(),
+                student.getContactNumber(), student.getAddress(), parentEmail, enrollDate,
+                classEntity.getId(), section.getId()));
+        return student;
     }
 
-    private void handleStudentData(String firstName, String lastName, String dobStr, String gender,
-                                   String contact, String address, String parentEmail, String enrollDateStr,
-                                   ClassEntity classEntity, Section section) {
+    // Case and surrounding spaces don't make a different student, in the file or against the database
+    private static String naturalKey(String firstName, String lastName, LocalDate dob, String parentEmail) {
+        return normalize(firstName) + "|" + normalize(lastName) + "|" + dob + "|" + normalize(parentEmail);
+    }
 
-        try {
-            if (dobStr == null || dobStr.trim().isEmpty()) throw new RuntimeException("DOB is missing");
-            if (enrollDateStr == null || enrollDateStr.trim().isEmpty()) throw new RuntimeException("Enrollment Date is missing");
-
-            LocalDate dob = LocalDate.parse(dobStr);
-            LocalDate enrollDate = LocalDate.parse(enrollDateStr);
-
-            Student student = new Student();
-            student.setFirstName(firstName);
-            student.setLastName(lastName);
-            student.setDob(dob);
-            student.setGender(gender);
-            student.setContactNumber(contact);
-            student.setAddress(address);
-            student.setStatus("active");
-            student.setEnrollmentDate(enrollDate);
-            student.setParentEmail(parentEmail);
-            student.setCurrentClass(classEntity);
-            student.setCurrentSection(section);
-
-            Optional<Parent> optionalParent = parentRepository.findByUserEmail(parentEmail);
-
-            if (optionalParent.isPresent()) {
-                Parent parent = optionalParent.get();
-                student.setParent(parent);
-                studentRepository.save(student);
-
-                List<Student> unmatchedStudents = studentRepository.findByParentIsNullAndParentEmail(parentEmail);
-                for (Student s : unmatchedStudents) {
-                    try {
-                        s.setParent(parent);
-                        studentRepository.save(s);
-                    } catch (Exception e) {
-                        System.err.println("Failed to match old student: " + s.getFirstName() + " " + s.getLastName());
-                    }
-                }
-            } else {
-                studentRepository.save(student);
-            }
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error saving student: " + firstName + " " + lastName + " – " + e.getMessage());
+    private static String naturalKey(Student s) {
+        return naturalKey(s.getFirstName(), s.getLastName(), s.getDob(), s.getParentEmail());
+    }
+
+    private LocalDate parseDate(String value, String field) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException(field + " must be yyyy-MM-dd, got '" + value + "'");
         }
     }
 
+    // Upsert on the (name, dob, parentEmail) natural key: unchanged rows are skipped,
+    // changed rows update the existing student, unknown rows are inserted.
+    private int upsertStudentBatch(List<Student> batch) {
+        return transactionTemplate.execute(status -> {
+            Map<String, Student> existingByKey = studentRepository.findNaturalKeyCandidates(
+                            batch.stream().map(s -> normalize(s.getFirstName())).collect(Collectors.toSet()),
+                            batch.stream().map(Student::getDob).collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(StudentService::naturalKey, s -> s, (a, b) -> a));
+
+            List<Student> toSave = new ArrayList<>();
+            for (Student incoming : batch) {
+                Student existing = existingByKey.get(naturalKey(incoming));
+                if (existing == null) {
+                    toSave.add(incoming);
+                } else if (!incoming.getImportHash().equals(existing.getImportHash())) {
+                    existing.setGender(incoming.getGender());
+                    existing.setContactNumber(incoming.getContactNumber());
+                    existing.setAddress(incoming.getAddress());
+                    existing.setEnrollmentDate(incoming.getEnrollmentDate());
+                    existing.setCurrentClass(incoming.getCurrentClass());
+                    existing.setCurrentSection(incoming.getCurrentSection());
+                    existing.setImportHash(incoming.getImportHash());
+                    toSave.add(existing);
+                }
+            }
+            if (toSave.isEmpty()) return 0;
 
+            Set<String> emails = toSave.stream()
+                    .map(Student::getParentEmail)
+                    .filter(email -> email != null && !email.isEmpty())
+                    .collect(Collectors.toSet());
 
-    // ✅ Excel-safe cell reader
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) return "";
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getLocalDateTimeCellValue().toLocalDate().toString(); // yyyy-MM-dd
-                } else {
-                    return String.valueOf((long) cell.getNumericCellValue()); // round off numbers like IDs
+            Map<String, Parent> parentsByEmail = emails.isEmpty() ? Map.of()
+                    : parentRepository.findByUserEmailIn(emails).stream()
+                    .collect(Collectors.toMap(p -> p.getUser().getEmail(), p -> p, (a, b) -> a));
+
+            for (Student student : toSave) {
+                if (student.getParent() == null) {
+                    student.setParent(parentsByEmail.get(student.getParentEmail()));
                 }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula(); // or evaluate
-            case BLANK:
-            case ERROR:
-            default:
-                return "";
-        }
+            }
+            studentRepository.saveAll(toSave);
+
+            if (!parentsByEmail.isEmpty()) {
+                studentRepository.linkUnmatchedToParents(parentsByEmail.keySet());
+            }
+            return toSave.size();
+        });
     }
 
     public List<Student> getAllStudents() {
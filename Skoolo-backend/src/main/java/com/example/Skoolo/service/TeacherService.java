@@ -1,25 +1,32 @@
 package com.example.Skoolo.service;
 
+import com.example.Skoolo.dto.ImportResultDTO;
 import com.example.Skoolo.dto.TeacherDTO;
 import com.example.Skoolo.dto.TeacherRequest;
 import com.example.Skoolo.model.*;
 import com.example.Skoolo.model.enums.Role;
 import com.example.Skoolo.repo.*;
-import com.opencsv.CSVReader;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import com.example.Skoolo.service.importer.BatchWriter;
+import com.example.Skoolo.service.importer.ImportFingerprints;
+import com.example.Skoolo.service.importer.ImportPipeline;
+import com.example.Skoolo.service.importer.RowReader;
+import com.example.Skoolo.service.importer.RowValidator;
+import com.example.Skoolo.service.timetable.TimetableIndex;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
@@ -33,80 +40,59 @@ public class TeacherService {
     private final SubjectRepository subjectRepository;
     private final TimetableRepository timetableRepository;
 
+    private final ImportPipeline importPipeline;
+    private final ImportFingerprints importFingerprints;
+    private final TransactionTemplate transactionTemplate;
+
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private TimetableIndex timetableIndex;
 
-    public void processTeacherFile(MultipartFile file) throws Exception {
-        String filename = file.getOriginalFilename();
-        if (filename == null) throw new RuntimeException("File name is invalid");
-
-        if (filename.endsWith(".csv")) {
-            processTeacherCsv(file);
-        } else if (filename.endsWith(".xlsx") || filename.endsWith(".xls")) {
-            processTeacherExcel(file);
-        } else {
-            throw new RuntimeException("Unsupported file type: " + filename);
-        }
-    }
-
-    private void processTeacherCsv(MultipartFile file) throws Exception {
-        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            CSVReader csvReader = new CSVReader(reader);
-            String[] nextLine;
-            boolean isFirstLine = true;
-
-            while ((nextLine = csvReader.readNext()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
 
-                String firstName = nextLine[0];
-                String lastName = nextLine[1];
-                String email = nextLine[2];
-                String contact = nextLine[3];
+    public ImportResultDTO processTeacherFile(MultipartFile file, boolean force, boolean dryRun) throws Exception {
+        Set<String> seenEmails = ConcurrentHashMap.newKeySet();
+        RowValidator<Teacher> validator = row -> parseTeacherRow(row, seenEmails);
 
-                saveTeacherAndUser(firstName, lastName, email, contact);
+        if (dryRun) {
+            BatchWriter<Teacher> predictor = predictTeacherUpserts();
+            try (RowReader reader = RowReader.open(file)) {
+                return importPipeline.dryRun(reader, validator, predictor);
             }
         }
-    }
 
-    private void processTeacherExcel(MultipartFile file) throws Exception {
-        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            boolean isFirstRow = true;
-
-            for (Row row : sheet) {
-                if (isFirstRow) {
-                    isFirstRow = false;
-                    continue;
-                }
-
-                String firstName = getCellValue(row.getCell(0));
-                String lastName = getCellValue(row.getCell(1));
-                String email = getCellValue(row.getCell(2));
-                String contact = getCellValue(row.getCell(3));
-
-                saveTeacherAndUser(firstName, lastName, email, contact);
+        return importFingerprints.runOnce("teachers", file, force, () -> {
+            try (RowReader reader = RowReader.open(file)) {
+                return importPipeline.run(reader, validator, this::upsertTeacherBatch);
             }
-        }
+        });
     }
 
-    private String getCellValue(Cell cell) {
-        if (cell == null) return "";
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue().trim();
-            case NUMERIC -> String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            default -> "";
-        };
+    private BatchWriter<Teacher> predictTeacherUpserts() {
+        Map<String, String> hashByEmail = new HashMap<>();
+        for (Object[] row : teacherRepository.findImportHashes()) {
+            hashByEmail.put((String) row[0], row[1] == null ? "" : (String) row[1]);
+        }
+        Set<String> allEmails = new HashSet<>(userRepository.findAllEmails());
+
+        return batch -> (int) batch.stream().filter(t -> {
+            String email = t.getUser().getEmail();
+            String storedHash = hashByEmail.get(email);
+            if (storedHash != null) return !storedHash.equals(t.getImportHash()); // update
+            return !allEmails.contains(email);                                     // insert
+        }).count();
     }
 
-    private void saveTeacherAndUser(String firstName, String lastName, String email, String contact) {
-        if (userRepository.existsByEmail(email)) return;
+    // Columns: firstName, lastName, email, contact
+    private Teacher parseTeacherRow(String[] row, Set<String> seenEmails) {
+        String firstName = RowReader.column(row, 0);
+        String lastName = RowReader.column(row, 1);
+        String email = RowReader.column(row, 2);
+
+        if (email.isEmpty()) throw new RuntimeException("Email is missing");
+        if (!seenEmails.add(email)) throw new RuntimeException("Duplicate email in file: " + email);
 
-        // 🔐 User account
         User user = new User();
         user.setFirstName(firstName);
         user.setLastName(lastName);
@@ -114,31 +100,70 @@ public class TeacherService {
         user.setRole(Role.TEACHER);
         user.setActive(true);
         user.setPasswordSet(false);
-        userRepository.save(user);
 
-        // 👨‍🏫 Teacher profile
         Teacher teacher = new Teacher();
         teacher.setUser(user);
         teacher.setFirstName(firstName);
         teacher.setLastName(lastName);
-        teacher.setContactNumber(contact);
-        teacherRepository.save(teacher);
+        teacher.setContactNumber(RowReader.column(row, 3));
+        teacher.setImportHash(ImportFingerprints.rowHash(firstName, lastName, email, teacher.getContactNumber()));
+        return teacher;
+    }
 
-        // 📧 Password setup email
-        String token = UUID.randomUUID().toString();
-        PasswordResetToken resetToken = new PasswordResetToken();
-        resetToken.setToken(token);
-        resetToken.setUser(user);
-        resetToken.setExpiryDate(LocalDateTime.now().plusDays(1));
-        tokenRepository.save(resetToken);
+    // Upsert keyed on email: unchanged rows are skipped, changed rows update the existing teacher
+    private int upsertTeacherBatch(List<Teacher> batch) {
+        int[] updated = {0};
+        List<PasswordResetToken> tokens = transactionTemplate.execute(status -> {
+            List<String> emails = batch.stream().map(t -> t.getUser().getEmail()).toList();
+            Map<String, Teacher> teachersByEmail = teacherRepository.findByUserEmailIn(emails).stream()
+                    .collect(Collectors.toMap(t -> t.getUser().getEmail(), t -> t, (a, b) -> a));
+            Set<String> existingUsers = new HashSet<>(userRepository.findExistingEmails(emails));
+
+            List<Teacher> fresh = new ArrayList<>();
+            List<Teacher> changed = new ArrayList<>();
+            for (Teacher incoming : batch) {
+                Teacher existing = teachersByEmail.get(incoming.getUser().getEmail());
+                if (existing != null) {
+                    if (incoming.getImportHash().equals(existing.getImportHash())) continue;
+                    existing.setFirstName(incoming.getFirstName());
+                    existing.setLastName(incoming.getLastName());
+                    existing.setContactNumber(incoming.getContactNumber());
+                    existing.setImportHash(incoming.getImportHash());
+                    existing.getUser().setFirstName(incoming.getFirstName());
+                    existing.getUser().setLastName(incoming.getLastName());
+                    changed.add(existing);
+                } else if (!existingUsers.contains(incoming.getUser().getEmail())) {
+                    fresh.add(incoming);
+                }
+                // else: the email belongs to a non-teacher account, leave it alone
+            }
 
-        try {
-            emailService.sendPasswordSetupEmail(email, token);
-        } catch (Exception e) {
-            System.err.println("Failed to send email to " + email + ": " + e.getMessage());
-            e.printStackTrace();
+            userRepository.saveAll(fresh.stream().map(Teacher::getUser).toList());
+            teacherRepository.saveAll(fresh);
+            teacherRepository.saveAll(changed);
+            updated[0] = changed.size();
+            return tokenRepository.saveAll(fresh.stream().map(t -> newSetupToken(t.getUser())).toList());
+        });
+
+        if (updated[0] > 0) timetableIndex.rebuild(); // renamed teachers appear on the timetable pages
+
+        // 📧 Emails go out only once the batch is committed
+        for (PasswordResetToken token : tokens) {
+            try {
+                emailService.sendPasswordSetupEmail(token.getUser().getEmail(), token.getToken());
+            } catch (Exception e) {
+                System.err.println("Failed to send email to " + token.getUser().getEmail() + ": " + e.getMessage());
+            }
         }
+        return tokens.size() + updated[0];
+    }
 
+    private PasswordResetToken newSetupToken(User user) {
+        PasswordResetToken resetToken = new PasswordResetToken();
+        resetToken.setToken(UUID.randomUUID().toString());
+        resetToken.setUser(user);
+        resetToken.setExpiryDate(LocalDateTime.now().plusDays(1));
+        return resetToken;
     }
 
     public void assignClassTeacher(Long teacherId, Long sectionId) {
@@ -1,19 +1,40 @@
 package com.example.Skoolo.service;
 
+import com.example.Skoolo.dto.ImportResultDTO;
 import com.example.Skoolo.dto.TimetableEntryDto;
 import com.example.Skoolo.model.*;
 import com.example.Skoolo.repo.*;
+import com.example.Skoolo.service.timetable.TeacherSchedules;
+import com.example.Skoolo.service.timetable.TimetableConflictException;
+import com.example.Skoolo.service.timetable.TimetableIndex;
+import com.example.Skoolo.service.timetable.TimetableSlot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.poi.ss.usermodel.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class TimetableService {
 
+    private static final Logger log = LoggerFactory.getLogger(TimetableService.class);
+
     @Autowired
     private ClassRepository classRepository;
 
@@ -32,57 +53,355 @@ public class TimetableService {
     @Autowired
     private TeacherSubjectAssignmentRepository teacherSubjectAssignmentRepository;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-    public void processTimetableFile(MultipartFile file) throws Exception {
-        String filename = file.getOriginalFilename();
-        if (filename == null || !filename.contains("-")) {
-            throw new RuntimeException("Invalid filename. Format must be: 'Class 1-A.xlsx'");
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TimetableIndex timetableIndex;
+
+    // Sheet validation and per-section write transactions; kept off the common pool since the writes block on JDBC
+    private final ExecutorService sheetWorkers;
+
+    public TimetableService(@Value("${skoolo.timetable.import-workers:4}") int workers) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sheetWorkers = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+            Thread t = new Thread(r, "timetable-import-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sheetWorkers.shutdownNow();
+    }
+
+    // Two rows for one (section, day, period) predate uk_timetable_section_slot; the last one saved is kept
+    private static final String DELETE_DUPLICATE_SLOTS = """
+            DELETE FROM timetables a USING timetables b
+            WHERE a.section_id = b.section_id AND a.day_of_week = b.day_of_week AND a.period = b.period
+              AND a.id < b.id
+            RETURNING a.section_id, a.day_of_week, a.period, a.id
+            """;
+
+    private static final String ONE_ROW_PER_SLOT = "uk_timetable_section_slot";
+
+    /**
+     * replaceSectionGrid and updateTimetable assume a section has at most one row per (day, period),
+     * which uk_timetable_section_slot guarantees. The schema update skips the constraint with a warning
+     * while duplicates exist, so before serving requests this removes them, reports every row dropped,
+     * and adds the constraint; startup fails if it still cannot be added.
+     */
+    @PostConstruct
+    public void enforceOneRowPerSlot() {
+        Boolean present = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)", Boolean.class, ONE_ROW_PER_SLOT);
+        if (Boolean.TRUE.equals(present)) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("LOCK TABLE timetables IN SHARE ROW EXCLUSIVE MODE");
+                jdbcTemplate.query(DELETE_DUPLICATE_SLOTS, rs -> {
+                    log.warn("Dropped duplicate timetable row {} for section {} {} period {}",
+                            rs.getLong(4), rs.getLong(1), rs.getString(2), rs.getString(3));
+                });
+                jdbcTemplate.execute("ALTER TABLE timetables ADD CONSTRAINT " + ONE_ROW_PER_SLOT
+                        + " UNIQUE (section_id, day_of_week, period)");
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot enforce one timetable row per section, day and period ("
+                    + ONE_ROW_PER_SLOT + "); grid imports and edits rely on it", e);
         }
+    }
+
 
-        String[] parts = filename.replace(".xlsx", "").split("-");
-        String className = parts[0].trim();
-        String sectionName = parts[1].trim();
+    /**
+     * Whole-school timetable import: one sheet per section, sheet named like "Class 1-A".
+     * A single-sheet workbook may still carry the section in the filename ("Class 1-A.xlsx").
+     * Every sheet is validated completely, and the upload as a whole is checked for teacher
+     * double bookings, before any section's grid is replaced; a sheet with errors leaves that
+     * section's existing timetable untouched. With {@code dryRun} nothing is written at all.
+     */
+    public Map<String, ImportResultDTO> processTimetableFile(MultipartFile file, boolean dryRun) throws Exception {
+        String filename = file.getOriginalFilename();
+        if (filename == null) throw new RuntimeException("File name is invalid");
+
+        // Dictionaries are loaded once per upload instead of once per row
+        Map<String, Subject> subjectsByName = loadSubjectDictionary();
+        Map<String, Section> sectionsByName = sectionRepository.findAllWithClass().stream()
+                .collect(Collectors.toMap(
+                        s -> sectionKey(s.getClassEntity().getClassName(), s.getSectionName()),
+                        s -> s, (a, b) -> a));
+
+        // POI is not thread-safe, so cells are read sequentially; validation and writes run per sheet on sheetWorkers
+        List<SheetGrid> sheets = new ArrayList<>();
+        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
+            for (Sheet sheet : workbook) {
+                String label = sheet.getSheetName();
+                if (workbook.getNumberOfSheets() == 1 && !sectionsByName.containsKey(sectionKey(label))) {
+                    label = filename.replaceAll("\\.xlsx?$", "");
+                }
+                sheets.add(new SheetGrid(label, readGrid(sheet)));
+            }
+        }
 
-        ClassEntity classEntity = classRepository.findByClassName(className)
-                .orElseThrow(() -> new RuntimeException("Class not found: " + className));
-        Section section = sectionRepository.findBySectionNameAndClassEntity(sectionName, classEntity)
-                .orElseThrow(() -> new RuntimeException("Section not found: " + sectionName));
+        Map<String, ParsedSheet> parsed = new ConcurrentHashMap<>();
+        forEachSheet(sheets, sheet ->
+                parsed.put(sheet.label(), parseSheet(sheet, sectionsByName.get(sectionKey(sheet.label())), subjectsByName)));
+        List<ParsedSheet> ordered = sheets.stream().map(sheet -> parsed.get(sheet.label())).toList();
+        rejectDuplicateSections(ordered);
+        rejectDoubleBookedSheets(ordered);
+
+        forEachSheet(ordered, sheet -> writeSheet(sheet, dryRun));
+        Map<String, ImportResultDTO> results = new LinkedHashMap<>();
+        ordered.forEach(sheet -> results.put(sheet.label(), sheet.result()));
+        if (!dryRun) timetableIndex.rebuild(); // once for the whole workbook, after every sheet committed
+        return results;
+    }
 
-        Workbook workbook = WorkbookFactory.create(file.getInputStream());
-        Sheet sheet = workbook.getSheetAt(0);
+    // Runs the action for every sheet on the bounded sheet pool and waits for all of them
+    private <T> void forEachSheet(List<T> sheets, Consumer<T> action) {
+        CompletableFuture.allOf(sheets.stream()
+                        .map(sheet -> CompletableFuture.runAsync(() -> action.accept(sheet), sheetWorkers))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+    }
 
-        String currentDay = null;
-        for (Row row : sheet) {
-            if (row.getRowNum() == 0) continue; // Skip header
+    private ParsedSheet parseSheet(SheetGrid sheet, Section section, Map<String, Subject> subjectsByName) {
+        long started = System.currentTimeMillis();
+        ImportResultDTO result = new ImportResultDTO();
+        result.setTotalRows(sheet.rows().size());
 
-            String dayCell = getCellAsString(row.getCell(0));
-            if (!dayCell.isEmpty()) currentDay = dayCell.toUpperCase();
+        if (section == null) {
+            result.getErrors().add(new ImportResultDTO.RowError(0,
+                    "No class/section matches '" + sheet.label() + "'. Format must be: 'Class 1-A'"));
+        }
 
-            String period = getCellAsString(row.getCell(1));
-            String startTime = getCellAsString(row.getCell(2));
-            String endTime = getCellAsString(row.getCell(3));
-            String subjectName = getCellAsString(row.getCell(4));
+        List<Timetable> periods = new ArrayList<>();
+        Map<String, Integer> rowBySlot = new HashMap<>();
+        String currentDay = null;
+        for (String[] row : sheet.rows()) {
+            int rowNumber = Integer.parseInt(row[GRID_WIDTH]);
+            if (!row[0].isEmpty()) currentDay = row[0].toUpperCase();
+            String period = row[1];
+            String subjectName = row[4];
 
             if (currentDay == null || subjectName.isEmpty()) {
-                throw new RuntimeException("Missing day or subject at row " + (row.getRowNum() + 1));
+                result.getErrors().add(new ImportResultDTO.RowError(rowNumber, "Missing day or subject"));
+                continue;
+            }
+            Subject subject = subjectsByName.get(subjectName.toLowerCase());
+            if (subject == null) {
+                result.getErrors().add(new ImportResultDTO.RowError(rowNumber, "Subject not found: " + subjectName));
+                continue;
+            }
+            if (rowBySlot.putIfAbsent(slotKey(currentDay, period), rowNumber) != null) {
+                result.getErrors().add(new ImportResultDTO.RowError(rowNumber,
+                        "Period " + period + " on " + currentDay + " appears twice"));
+                continue;
             }
-
-            Subject subject = subjectRepository.findBySubjectNameIgnoreCase(subjectName)
-                    .orElseThrow(() -> new RuntimeException("Subject not found: " + subjectName + " at row " + (row.getRowNum() + 1)));
 
             Timetable timetable = new Timetable();
             timetable.setDayOfWeek(currentDay);
             timetable.setPeriod(period);
-            timetable.setStartTime(startTime);
-            timetable.setEndTime(endTime);
+            timetable.setStartTime(row[2]);
+            timetable.setEndTime(row[3]);
             timetable.setSubject(subject);
-            timetable.setClassEntity(classEntity);
-            timetable.setSection(section);
+            periods.add(timetable);
+        }
+        return new ParsedSheet(sheet.label(), section, periods, rowBySlot, result, started);
+    }
+
+    // "Class 1-A" and "Class 1 - A" name the same section; two writes to one grid would race on the
+    // sheet pool, so only the first sheet for a section is kept
+    private void rejectDuplicateSections(List<ParsedSheet> sheets) {
+        Map<Long, String> firstSheet = new HashMap<>();
+        for (ParsedSheet sheet : sheets) {
+            if (sheet.section() == null) continue;
+            String first = firstSheet.putIfAbsent(sheet.section().getId(), sheet.label());
+            if (first != null) {
+                sheet.result().getErrors().add(new ImportResultDTO.RowError(0,
+                        "Sheet '" + sheet.label() + "' duplicates the section of sheet '" + first + "'"));
+            }
+        }
+    }
+
+    /**
+     * Checks every valid sheet against the rest of the school at once, as if the whole upload had
+     * already been written: each period gets the teacher {@link #replaceSectionGrid} would give it,
+     * and a sheet that would put a teacher in two places at the same time is rejected with one row
+     * error per clash. A rejected sheet keeps its section's current grid, which can in turn clash
+     * with another sheet, so this repeats until no sheet changes; sheets earlier in the workbook win.
+     */
+    private void rejectDoubleBookedSheets(List<ParsedSheet> sheets) {
+        Map<Long, ParsedSheet> bySection = new LinkedHashMap<>();
+        for (ParsedSheet sheet : sheets) {
+            if (sheet.section() != null && sheet.result().getErrors().isEmpty()) bySection.putIfAbsent(sheet.section().getId(), sheet);
+        }
+        if (bySection.isEmpty()) return;
 
-            timetableRepository.save(timetable);
+        Map<Long, Map<Long, Long>> teacherBySubject = new HashMap<>(); // section -> subject -> teacher
+        for (Object[] row : teacherSubjectAssignmentRepository.findAllKeys()) {
+            teacherBySubject.computeIfAbsent((Long) row[0], id -> new HashMap<>()).putIfAbsent((Long) row[1], (Long) row[2]);
         }
 
-        workbook.close();
+        Map<Long, List<TeacherSchedules.Cell>> replacements = new LinkedHashMap<>();
+        bySection.forEach((sectionId, sheet) -> {
+            Map<String, TimetableSlot> stored = new HashMap<>();
+            for (TimetableSlot slot : timetableIndex.forSection(null, sectionId)) {
+                stored.put(slotKey(slot.dayOfWeek(), slot.period()), slot);
+            }
+            String label = sectionLabel(sheet.section());
+            List<TeacherSchedules.Cell> cells = new ArrayList<>();
+            for (Timetable period : sheet.periods()) {
+                Long subjectId = period.getSubject().getId();
+                TimetableSlot current = stored.get(slotKey(period.getDayOfWeek(), period.getPeriod()));
+                Long teacherId = current != null && current.subject() != null && subjectId.equals(current.subject().id())
+                        ? (current.teacher() != null ? current.teacher().id() : null)
+                        : teacherBySubject.getOrDefault(sectionId, Map.of()).get(subjectId);
+                cells.add(new TeacherSchedules.Cell(sectionId, label, period.getDayOfWeek(), period.getPeriod(),
+                        teacherId, period.getSubject().getSubjectName()));
+            }
+            replacements.put(sectionId, cells);
+        });
+
+        TeacherSchedules schedules = timetableIndex.schedules();
+        while (!replacements.isEmpty()) {
+            List<TeacherSchedules.Conflict> conflicts = schedules.check(replacements);
+            if (conflicts.isEmpty()) break;
+            for (TeacherSchedules.Conflict conflict : conflicts) {
+                ParsedSheet sheet = bySection.get(conflict.cell().sectionId());
+                int rowNumber = sheet.rowBySlot().getOrDefault(slotKey(conflict.cell().dayOfWeek(), conflict.cell().period()), 0);
+                sheet.result().getErrors().add(new ImportResultDTO.RowError(rowNumber, conflict.getMessage()));
+                replacements.remove(conflict.cell().sectionId());
+            }
+        }
+    }
+
+    private void writeSheet(ParsedSheet sheet, boolean dryRun) {
+        ImportResultDTO result = sheet.result();
+        if (dryRun) {
+            // A sheet with any error is rejected whole, so a real run would import none of it
+            result.setImported(result.getErrors().isEmpty() ? sheet.periods().size() : 0);
+            result.setMessage("Dry run: nothing was written.");
+        } else if (result.getErrors().isEmpty()) {
+            try {
+                int written = transactionTemplate.execute(status -> replaceSectionGrid(sheet.section(), sheet.periods()));
+                result.setImported(written);
+                result.setSkipped(sheet.periods().size() - written);
+            } catch (Exception e) {
+                result.getErrors().add(new ImportResultDTO.RowError(0, "Failed to save timetable: " + e.getMessage()));
+            }
+        }
+        result.setFailed(result.getErrors().size());
+        result.setElapsedMillis(System.currentTimeMillis() - sheet.started());
+    }
+
+    /**
+     * Makes the section's stored grid equal to {@code periods} in one transaction:
+     * unchanged cells are left alone, changed cells are updated in place, new cells are
+     * inserted and cells missing from {@code periods} are deleted. Writes go out as JDBC
+     * batches. Returns the number of cells inserted or updated.
+     */
+    private int replaceSectionGrid(Section section, List<Timetable> periods) {
+        Long classId = section.getClassEntity().getId();
+        Map<String, Timetable> stored = new HashMap<>();
+        for (Timetable existing : timetableRepository.findByClassEntityIdAndSectionId(classId, section.getId())) {
+            stored.put(slotKey(existing.getDayOfWeek(), existing.getPeriod()), existing);
+        }
+
+        // New or re-subjected cells pick up the teacher already assigned to that subject in this section
+        Map<Long, Teacher> teacherBySubject = new HashMap<>();
+        for (TeacherSubjectAssignment assignment : teacherSubjectAssignmentRepository.findBySection_Id(section.getId())) {
+            teacherBySubject.putIfAbsent(assignment.getSubject().getId(), assignment.getTeacher());
+        }
+
+        List<Timetable> changed = new ArrayList<>();
+        for (Timetable incoming : periods) {
+            Timetable current = stored.remove(slotKey(incoming.getDayOfWeek(), incoming.getPeriod()));
+            if (current == null) {
+                incoming.setClassEntity(section.getClassEntity());
+                incoming.setSection(section);
+                incoming.setTeacher(teacherBySubject.get(incoming.getSubject().getId()));
+                changed.add(incoming);
+                continue;
+            }
+
+            boolean sameSubject = current.getSubject() != null
+                    && current.getSubject().getId().equals(incoming.getSubject().getId());
+            if (sameSubject
+                    && Objects.equals(current.getStartTime(), incoming.getStartTime())
+                    && Objects.equals(current.getEndTime(), incoming.getEndTime())) {
+                continue; // unchanged cell
+            }
+            if (!sameSubject) {
+                current.setSubject(incoming.getSubject());
+                current.setTeacher(teacherBySubject.get(incoming.getSubject().getId()));
+            }
+            current.setStartTime(incoming.getStartTime());
+            current.setEndTime(incoming.getEndTime());
+            changed.add(current);
+        }
+
+        timetableRepository.deleteAllInBatch(stored.values()); // periods no longer in the grid
+        timetableRepository.saveAll(changed);
+        return changed.size();
+    }
+
+    private List<String[]> readGrid(Sheet sheet) {
+        List<String[]> rows = new ArrayList<>();
+        for (Row row : sheet) {
+            if (row.getRowNum() == 0) continue; // Skip header
+
+            String[] cells = new String[GRID_WIDTH + 1];
+            boolean blank = true;
+            for (int i = 0; i < GRID_WIDTH; i++) {
+                cells[i] = getCellAsString(row.getCell(i));
+                blank &= cells[i].isEmpty();
+            }
+            if (blank) continue;
+            cells[GRID_WIDTH] = String.valueOf(row.getRowNum() + 1);
+            rows.add(cells);
+        }
+        return rows;
+    }
+
+    private Map<String, Subject> loadSubjectDictionary() {
+        return subjectRepository.findAll().stream()
+                .filter(s -> s.getSubjectName() != null)
+                .collect(Collectors.toMap(s -> s.getSubjectName().trim().toLowerCase(), s -> s, (a, b) -> a));
+    }
+
+    // "Class 1-A" -> "class 1-a"
+    private static String sectionKey(String label) {
+        int dash = label.lastIndexOf('-');
+        if (dash < 0) return label.trim().toLowerCase();
+        return sectionKey(label.substring(0, dash), label.substring(dash + 1));
+    }
+
+    private static String sectionKey(String className, String sectionName) {
+        return (className.trim() + "-" + sectionName.trim()).toLowerCase();
+    }
+
+    private static String sectionLabel(Section section) {
+        return section.getClassEntity().getClassName() + "-" + section.getSectionName();
+    }
+
+    private static String slotKey(String dayOfWeek, String period) {
+        return dayOfWeek.toUpperCase() + "#" + period;
+    }
+
+    // Day, period, start, end, subject (+ the spreadsheet row number in the last slot)
+    private static final int GRID_WIDTH = 5;
+
+    private record SheetGrid(String label, List<String[]> rows) {
+    }
+
+    // A validated sheet waiting to be written; rowBySlot maps "DAY#period" back to the spreadsheet row
+    private record ParsedSheet(String label, Section section, List<Timetable> periods, Map<String, Integer> rowBySlot,
+                               ImportResultDTO result, long started) {
     }
 
     private String getCellAsString(Cell cell) {
@@ -97,41 +416,121 @@ public class TimetableService {
         }
     }
 
-    public List<Timetable> getTimetableForSection(Long classId, Long sectionId) {
-        return timetableRepository.findByClassEntityIdAndSectionId(classId, sectionId);
+    public List<TimetableSlot> getTimetableForSection(Long classId, Long sectionId) {
+        return timetableIndex.forSection(classId, sectionId);
     }
 
-    public void updateTimetable(List<TimetableEntryDto> entries) {
+    // Distinct subjects on the section's timetable, in first-seen order
+    public List<TimetableSlot.SubjectRef> getSubjectsForSection(Long classId, Long sectionId) {
+        Map<Long, TimetableSlot.SubjectRef> subjects = new LinkedHashMap<>();
+        for (TimetableSlot slot : timetableIndex.forSection(classId, sectionId)) {
+            if (slot.subject() != null) subjects.putIfAbsent(slot.subject().id(), slot.subject());
+        }
+        return new ArrayList<>(subjects.values());
+    }
+
+    /**
+     * Applies edits from the section timetable editor. Each section's stored grid, its teacher
+     * assignments and the subject dictionary are read once, cells are diffed in memory and only
+     * changed ones are written, in one transaction with batched updates. Entries carry the version
+     * they were loaded with: if any edited cell has changed since, or changes while this runs,
+     * nothing is saved and an {@link OptimisticLockingFailureException} is thrown. Edits that would
+     * double-book a teacher throw a {@link TimetableConflictException}, also saving nothing. Cells that do
+     * not exist yet are ignored; the grid itself comes from the timetable upload. Returns the
+     * number of cells changed.
+     */
+    public int updateTimetable(List<TimetableEntryDto> entries) {
+        Map<String, Subject> subjectsByName = loadSubjectDictionary();
+        Map<Long, List<TimetableEntryDto>> bySection = new LinkedHashMap<>();
         for (TimetableEntryDto dto : entries) {
-            Optional<Timetable> existingOpt = timetableRepository
-                    .findByDayOfWeekAndPeriodAndClassEntityIdAndSectionId(
-                            dto.getDayOfWeek(),
-                            dto.getPeriod(),
-                            dto.getClassId(),
-                            dto.getSectionId()
-                    );
-
-            if (existingOpt.isPresent()) {
-                Timetable existing = existingOpt.get();
-
-                // ✅ Try to find subject by name, or create a new one
-                Subject subject = subjectRepository.findBySubjectName(dto.getSubjectName());
-                if (subject == null) {
-                    subject = new Subject();
-                    subject.setSubjectName(dto.getSubjectName());
-                    subject = subjectRepository.save(subject); // Save and assign
-                }
+            if (dto.getSectionId() == null || dto.getDayOfWeek() == null || dto.getPeriod() == null) continue;
+            bySection.computeIfAbsent(dto.getSectionId(), id -> new ArrayList<>()).add(dto);
+        }
 
-                existing.setSubject(subject);
-                existing.setStartTime(dto.getStartTime());
-                existing.setEndTime(dto.getEndTime());
+        int changed = transactionTemplate.execute(status -> {
+            List<Subject> newSubjects = new ArrayList<>();
+            List<Timetable> changedCells = new ArrayList<>();
+            bySection.forEach((sectionId, edits) ->
+                    diffSectionGrid(edits.get(0).getClassId(), sectionId, edits, subjectsByName, newSubjects, changedCells));
+            rejectDoubleBookings(changedCells);
+
+            subjectRepository.saveAll(newSubjects);
+            timetableRepository.saveAll(changedCells);
+            timetableRepository.flush(); // surfaces version conflicts here rather than at commit
+            return changedCells.size();
+        });
+        if (changed > 0) timetableIndex.rebuild();
+        return changed;
+    }
 
-                timetableRepository.save(existing);
+    private void diffSectionGrid(Long classId, Long sectionId, List<TimetableEntryDto> edits,
+                                 Map<String, Subject> subjectsByName, List<Subject> newSubjects,
+                                 List<Timetable> changedCells) {
+        Map<String, Timetable> stored = new HashMap<>();
+        for (Timetable existing : timetableRepository.findByClassEntityIdAndSectionId(classId, sectionId)) {
+            stored.put(slotKey(existing.getDayOfWeek(), existing.getPeriod()), existing);
+        }
+        Map<Long, Teacher> teacherBySubject = new HashMap<>();
+        for (TeacherSubjectAssignment assignment : teacherSubjectAssignmentRepository.findBySection_Id(sectionId)) {
+            teacherBySubject.putIfAbsent(assignment.getSubject().getId(), assignment.getTeacher());
+        }
+
+        for (TimetableEntryDto dto : edits) {
+            Timetable current = stored.get(slotKey(dto.getDayOfWeek(), dto.getPeriod()));
+            if (current == null) continue;
+            if (dto.getVersion() != null && dto.getVersion() != current.getVersion()) {
+                throw new OptimisticLockingFailureException("Period " + dto.getPeriod() + " on " + current.getDayOfWeek()
+                        + " was changed by someone else. Reload the timetable and try again.");
+            }
+
+            // Blank clears the cell; unknown names become new subjects, as before
+            String name = dto.getSubjectName() == null ? "" : dto.getSubjectName().trim();
+            Subject subject = name.isEmpty() ? null : subjectsByName.computeIfAbsent(name.toLowerCase(), key -> {
+                Subject created = new Subject();
+                created.setSubjectName(name);
+                newSubjects.add(created);
+                return created;
+            });
+
+            Long currentSubjectId = current.getSubject() != null ? current.getSubject().getId() : null;
+            boolean sameSubject = subject == null ? currentSubjectId == null
+                    : subject.getId() != null && subject.getId().equals(currentSubjectId);
+            if (sameSubject
+                    && Objects.equals(current.getStartTime(), dto.getStartTime())
+                    && Objects.equals(current.getEndTime(), dto.getEndTime())) {
+                continue; // unchanged cell
+            }
+            if (!sameSubject) {
+                current.setSubject(subject);
+                current.setTeacher(subject != null && subject.getId() != null ? teacherBySubject.get(subject.getId()) : null);
             }
+            current.setStartTime(dto.getStartTime());
+            current.setEndTime(dto.getEndTime());
+            changedCells.add(current);
         }
     }
 
+    // Checks stored cells about to be saved against every other booking their teachers have
+    private void rejectDoubleBookings(List<Timetable> cells) {
+        Map<Long, List<TeacherSchedules.Cell>> bySection = new LinkedHashMap<>();
+        for (Timetable cell : cells) {
+            if (cell.getSection() == null || cell.getDayOfWeek() == null) continue;
+            String label = (cell.getClassEntity() != null ? cell.getClassEntity().getClassName() + "-" : "")
+                    + cell.getSection().getSectionName();
+            bySection.computeIfAbsent(cell.getSection().getId(), id -> new ArrayList<>()).add(new TeacherSchedules.Cell(
+                    cell.getSection().getId(), label, cell.getDayOfWeek(), cell.getPeriod(),
+                    cell.getTeacher() != null ? cell.getTeacher().getId() : null,
+                    cell.getSubject() != null ? cell.getSubject().getSubjectName() : null));
+        }
+        List<TeacherSchedules.Conflict> conflicts = timetableIndex.schedules().check(bySection);
+        if (!conflicts.isEmpty()) throw new TimetableConflictException(conflicts);
+    }
 
+    public List<TeacherSchedules.Conflict> getDoubleBookings() {
+        return timetableIndex.schedules().doubleBookings();
+    }
+
+    // Throws TimetableConflictException, saving nothing, if the teacher is busy elsewhere in any of the subject's periods
     public void assignTeacherToSubjectInSection(Long classId, Long sectionId, Long subjectId, Long teacherId) {
 
         // 1. Assign in timetable
@@ -145,6 +544,7 @@ public class TimetableService {
         for (Timetable entry : entries) {
             entry.setTeacher(teacher);
         }
+        rejectDoubleBookings(entries);
         timetableRepository.saveAll(entries);
 
         // 2. Save mapping to teacher_subject_assignments table
@@ -167,21 +567,20 @@ public class TimetableService {
 
             teacherSubjectAssignmentRepository.save(assignment);
         }
+        timetableIndex.rebuild();
     }
 
 
     public List<TimetableEntryDto> getTimetableForTeacher(Long teacherId) {
-        List<Timetable> entries = timetableRepository.findByTeacherId(teacherId);
-
-        return entries.stream().map(entry -> {
+        return timetableIndex.forTeacher(teacherId).stream().map(slot -> {
             TimetableEntryDto dto = new TimetableEntryDto();
-            dto.setDayOfWeek(entry.getDayOfWeek());
-            dto.setPeriod(entry.getPeriod());
-            dto.setStartTime(entry.getStartTime());
-            dto.setEndTime(entry.getEndTime());
-            dto.setSubjectName(entry.getSubject().getSubjectName());
-            dto.setClassName(entry.getClassEntity().getClassName());
-            dto.setSectionName(entry.getSection().getSectionName());
+            dto.setDayOfWeek(slot.dayOfWeek());
+            dto.setPeriod(slot.period());
+            dto.setStartTime(slot.startTime());
+            dto.setEndTime(slot.endTime());
+            dto.setSubjectName(slot.subject() != null ? slot.subject().subjectName() : null);
+            dto.setClassName(slot.classEntity() != null ? slot.classEntity().className() : null);
+            dto.setSectionName(slot.section() != null ? slot.section().sectionName() : null);
             return dto;
         }).toList();
     }
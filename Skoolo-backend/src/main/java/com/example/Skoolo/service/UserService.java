@@ -1,78 +1,78 @@
 package com.example.Skoolo.service;
 
+import com.example.Skoolo.dto.ImportResultDTO;
 import com.example.Skoolo.model.User;
 import com.example.Skoolo.model.enums.Role;
 import com.example.Skoolo.repo.UserRepository;
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
+import com.example.Skoolo.service.importer.ImportPipeline;
+import com.example.Skoolo.service.importer.RowReader;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ImportPipeline importPipeline;
 
-    public void processCsv(MultipartFile file) throws IOException, CsvValidationException {
-        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream()));
-             CSVReader csvReader = new CSVReader(reader)) {
-
-            String[] nextLine;
-            boolean isFirstLine = true;
-
-            while ((nextLine = csvReader.readNext()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue; // Skip header
-                }
+    // Handles both .csv and .xlsx/.xls uploads
+    public ImportResultDTO processUserFile(MultipartFile file, boolean dryRun) throws Exception {
+        Set<String> seenEmails = ConcurrentHashMap.newKeySet();
+        try (RowReader reader = RowReader.open(file)) {
+            if (dryRun) {
+                Set<String> existing = new HashSet<>(userRepository.findAllEmails());
+                return importPipeline.dryRun(reader,
+                        row -> parseUserRow(row, seenEmails),
+                        batch -> (int) batch.stream().filter(u -> !existing.contains(u.getEmail())).count());
+            }
+            return importPipeline.run(reader,
+                    row -> parseUserRow(row, seenEmails),
+                    this::saveUserBatch);
+        }
+    }
 
-                User user = new User();
-                user.setFirstName(nextLine[0]);
-                user.setLastName(nextLine[1]);
-                user.setEmail(nextLine[2]);
-                user.setRole(Role.valueOf(nextLine[3].toUpperCase()));
+    // Columns: firstName, lastName, email, role
+    private User parseUserRow(String[] row, Set<String> seenEmails) {
+        String email = RowReader.column(row, 2);
+        String roleStr = RowReader.column(row, 3);
 
-                user.setPassword(null); // password will be set later by user
-                user.setActive(false);  // optionally mark user as inactive until password is set
+        if (email.isEmpty()) throw new RuntimeException("Email is missing");
 
-                userRepository.save(user);
-            }
+        Role role;
+        try {
+            role = Role.valueOf(roleStr.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid role: '" + roleStr + "'");
         }
-    }
 
-    public void processExcel(MultipartFile file) throws IOException {
-        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            boolean isFirstRow = true;
+        if (!seenEmails.add(email)) throw new RuntimeException("Duplicate email in file: " + email);
 
-            for (Row row : sheet) {
-                if (isFirstRow) {
-                    isFirstRow = false;
-                    continue; // Skip header
-                }
+        User user = new User();
+        user.setFirstName(RowReader.column(row, 0));
+        user.setLastName(RowReader.column(row, 1));
+        user.setEmail(email);
+        user.setRole(role);
 
-                User user = new User();
-                user.setFirstName(row.getCell(0).getStringCellValue());
-                user.setLastName(row.getCell(1).getStringCellValue());
-                user.setEmail(row.getCell(2).getStringCellValue());
-                user.setRole(Role.valueOf(row.getCell(3).getStringCellValue().toUpperCase()));
+        user.setPassword(null); // password will be set later by user
+        user.setActive(false);  // optionally mark user as inactive until password is set
+        return user;
+    }
 
-                user.setPassword(null); // user sets password later
-                user.setActive(false);  // optional
+    private int saveUserBatch(List<User> batch) {
+        Set<String> existing = new HashSet<>(userRepository.findExistingEmails(
+                batch.stream().map(User::getEmail).toList()));
 
-                userRepository.save(user);
-            }
-        }
+        List<User> fresh = batch.stream()
+                .filter(u -> !existing.contains(u.getEmail()))
+                .toList();
+        userRepository.saveAll(fresh);
+        return fresh.size();
     }
 }
@@ -0,0 +1,233 @@
+package com.example.Skoolo.service.attendance;
+
+import com.example.Skoolo.model.StudentMonthlyAttendance;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bit-packed attendance history of one student over a run of months, mirroring the
+ * {@code status_bits}/{@code marked_days} columns of {@code attendance_student_month}.
+ *
+ * <p>Each month is one {@code long} holding a 2-bit status per day (day d at bits 2(d-1)..2(d-1)+1)
+ * and one {@code int} mask of the days that have a record at all; four statuses plus "not marked"
+ * do not fit in two bits, and weekends/holidays must not break streaks. Every query first turns
+ * the packed vector into a per-status day mask, then works with plain bit operations.
+ */
+public final class AttendanceBitmap {
+
+    public static final int PRESENT = 0;
+    public static final int LATE = 1;
+    public static final int ABSENT = 2;
+    public static final int LEAVE = 3;
+
+    private static final String CODES = "PTAL"; // present, tardy, absent, leave
+    private static final long LOW_BITS = 0x5555_5555_5555_5555L;
+    private static final long HIGH_BITS = 0xAAAA_AAAA_AAAA_AAAAL;
+    private static final int EVERY_SEVENTH_DAY = 1 | 1 << 7 | 1 << 14 | 1 << 21 | 1 << 28;
+
+    private final YearMonth first;
+    private final long[] statusBits;
+    private final int[] markedDays;
+
+    public AttendanceBitmap(YearMonth first, YearMonth last) {
+        int months = (int) ChronoUnit.MONTHS.between(first, last) + 1;
+        if (months <= 0) {
+            throw new IllegalArgumentException("Range must end on or after " + first);
+        }
+        this.first = first;
+        this.statusBits = new long[months];
+        this.markedDays = new int[months];
+    }
+
+    public static AttendanceBitmap of(YearMonth first, YearMonth last, List<StudentMonthlyAttendance> months) {
+        AttendanceBitmap bitmap = new AttendanceBitmap(first, last);
+        for (StudentMonthlyAttendance month : months) {
+            int index = bitmap.index(YearMonth.from(month.getMonthStart()));
+            if (index < 0) continue;
+            bitmap.statusBits[index] = month.getStatusBits();
+            bitmap.markedDays[index] = month.getMarkedDays();
+        }
+        return bitmap;
+    }
+
+    /** Copy that only keeps the records between {@code from} and {@code to}, inclusive. */
+    public AttendanceBitmap within(LocalDate from, LocalDate to) {
+        AttendanceBitmap clipped = new AttendanceBitmap(first, first.plusMonths(statusBits.length - 1));
+        for (int i = 0; i < statusBits.length; i++) {
+            YearMonth month = first.plusMonths(i);
+            int firstDay = month.equals(YearMonth.from(from)) ? from.getDayOfMonth() : 1;
+            int lastDay = month.equals(YearMonth.from(to)) ? to.getDayOfMonth() : 31;
+            boolean inRange = !month.isBefore(YearMonth.from(from)) && !month.isAfter(YearMonth.from(to));
+            int keep = inRange ? (int) ((1L << lastDay) - (1L << (firstDay - 1))) : 0;
+            clipped.statusBits[i] = statusBits[i];
+            clipped.markedDays[i] = markedDays[i] & keep;
+        }
+        return clipped;
+    }
+
+    /** Maps a stored status (present, late, absent, leave) to its 2-bit code, or -1 if unknown. */
+    public static int code(String status) {
+        if (status == null) return -1;
+        return switch (status.trim().toLowerCase()) {
+            case "present" -> PRESENT;
+            case "late" -> LATE;
+            case "absent" -> ABSENT;
+            case "leave" -> LEAVE;
+            default -> -1;
+        };
+    }
+
+    public static String status(int code) {
+        return switch (code) {
+            case PRESENT -> "present";
+            case LATE -> "late";
+            case ABSENT -> "absent";
+            case LEAVE -> "leave";
+            default -> null;
+        };
+    }
+
+    public void set(LocalDate date, int code) {
+        int index = index(YearMonth.from(date));
+        if (index < 0 || code < 0) return;
+        int shift = 2 * (date.getDayOfMonth() - 1);
+        statusBits[index] = (statusBits[index] & ~(3L << shift)) | ((long) code << shift);
+        markedDays[index] |= 1 << (date.getDayOfMonth() - 1);
+    }
+
+    public String statusOn(LocalDate date) {
+        int index = index(YearMonth.from(date));
+        int day = date.getDayOfMonth() - 1;
+        if (index < 0 || (markedDays[index] & 1 << day) == 0) return null;
+        return status((int) (statusBits[index] >>> 2 * day) & 3);
+    }
+
+    public int count(int... codes) {
+        int total = 0;
+        for (int i = 0; i < statusBits.length; i++) {
+            total += Integer.bitCount(dayMask(i, codes));
+        }
+        return total;
+    }
+
+    /** How often one of {@code codes} fell on {@code dow}, e.g. absences on Mondays. */
+    public int countOn(DayOfWeek dow, int... codes) {
+        int total = 0;
+        for (int i = 0; i < statusBits.length; i++) {
+            int days = dayMask(i, codes);
+            if (days != 0) total += Integer.bitCount(days & weekdayMask(first.plusMonths(i), dow));
+        }
+        return total;
+    }
+
+    public Map<DayOfWeek, Integer> countByWeekday(int... codes) {
+        Map<DayOfWeek, Integer> counts = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek dow : DayOfWeek.values()) {
+            counts.put(dow, countOn(dow, codes));
+        }
+        return counts;
+    }
+
+    /** Longest run of consecutive marked days with one of {@code codes}; unmarked days are skipped, not breaks. */
+    public int longestStreak(int... codes) {
+        BitSet run = markedDaySequence(codes);
+        int longest = 0;
+        for (int start = run.nextSetBit(0); start >= 0; start = run.nextSetBit(start)) {
+            int end = run.nextClearBit(start);
+            longest = Math.max(longest, end - start);
+            start = end;
+        }
+        return longest;
+    }
+
+    /** Run of {@code codes} ending at the most recent marked day (0 if that day had another status). */
+    public int currentStreak(int... codes) {
+        int length = totalMarked();
+        if (length == 0) return 0;
+        BitSet run = markedDaySequence(codes);
+        return length - 1 - run.previousClearBit(length - 1);
+    }
+
+    public LocalDate lastDayWith(int... codes) {
+        for (int i = statusBits.length - 1; i >= 0; i--) {
+            int days = dayMask(i, codes);
+            if (days != 0) {
+                return first.plusMonths(i).atDay(32 - Integer.numberOfLeadingZeros(days));
+            }
+        }
+        return null;
+    }
+
+    /** One character per day of the month: P, T (late), A, L (leave) or '-' when not marked. */
+    public String monthView(YearMonth month) {
+        int index = index(month);
+        StringBuilder view = new StringBuilder(month.lengthOfMonth());
+        for (int day = 0; day < month.lengthOfMonth(); day++) {
+            if (index < 0 || (markedDays[index] & 1 << day) == 0) {
+                view.append('-');
+            } else {
+                view.append(CODES.charAt((int) (statusBits[index] >>> 2 * day) & 3));
+            }
+        }
+        return view.toString();
+    }
+
+    public YearMonth getFirst() {
+        return first;
+    }
+
+    public int months() {
+        return statusBits.length;
+    }
+
+    // Days of month i whose status is one of codes, as a 31-bit mask
+    private int dayMask(int i, int... codes) {
+        int marked = markedDays[i];
+        if (marked == 0) return 0;
+        int low = (int) Long.compress(statusBits[i], LOW_BITS);
+        int high = (int) Long.compress(statusBits[i], HIGH_BITS);
+        int days = 0;
+        for (int code : codes) {
+            days |= ((code & 1) != 0 ? low : ~low) & ((code & 2) != 0 ? high : ~high);
+        }
+        return days & marked;
+    }
+
+    // Concatenates every month's marked days in order; bit k is set when the k-th marked day has one of codes
+    private BitSet markedDaySequence(int... codes) {
+        BitSet sequence = new BitSet();
+        int offset = 0;
+        for (int i = 0; i < statusBits.length; i++) {
+            int packed = Integer.compress(dayMask(i, codes), markedDays[i]);
+            for (int bits = packed; bits != 0; bits &= bits - 1) {
+                sequence.set(offset + Integer.numberOfTrailingZeros(bits));
+            }
+            offset += Integer.bitCount(markedDays[i]);
+        }
+        return sequence;
+    }
+
+    private int totalMarked() {
+        int total = 0;
+        for (int marked : markedDays) total += Integer.bitCount(marked);
+        return total;
+    }
+
+    private static int weekdayMask(YearMonth month, DayOfWeek dow) {
+        int firstMatch = (dow.getValue() - month.atDay(1).getDayOfWeek().getValue() + 7) % 7;
+        int monthDays = (1 << month.lengthOfMonth()) - 1;
+        return (EVERY_SEVENTH_DAY << firstMatch) & monthDays;
+    }
+
+    private int index(YearMonth month) {
+        long index = ChronoUnit.MONTHS.between(first, month);
+        return index >= 0 && index < statusBits.length ? (int) index : -1;
+    }
+}
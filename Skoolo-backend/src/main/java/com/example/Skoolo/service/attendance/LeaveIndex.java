@@ -0,0 +1,109 @@
+package com.example.Skoolo.service.attendance;
+
+import com.example.Skoolo.repo.LeaveRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approved leave held in memory as per-student interval lists: sorted, merged day ranges
+ * stored as two parallel arrays of epoch days. "Is this student on leave on this date" and
+ * "does this range overlap approved leave" are one binary search each. Each student's entry is
+ * immutable and replaced wholesale by {@link #refresh(Long)}, so readers never see a partial update.
+ */
+@Component
+public class LeaveIndex {
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    private volatile Map<Long, Intervals> byStudent;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            reload();
+        } catch (Exception e) {
+            System.err.println("⚠️ Leave index not built at startup, will retry on first use: " + e.getMessage());
+        }
+    }
+
+    public synchronized void reload() {
+        Map<Long, List<long[]>> ranges = new HashMap<>();
+        for (Object[] row : leaveRequestRepository.findApprovedIntervals()) {
+            ranges.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(range(row));
+        }
+        Map<Long, Intervals> index = new ConcurrentHashMap<>();
+        ranges.forEach((studentId, list) -> index.put(studentId, Intervals.of(list)));
+        byStudent = index;
+    }
+
+    /** Re-reads one student's approved leave, e.g. after an approval or cancellation. */
+    public synchronized void refresh(Long studentId) {
+        List<long[]> list = new ArrayList<>();
+        for (Object[] row : leaveRequestRepository.findApprovedIntervals(studentId)) {
+            list.add(range(row));
+        }
+        Map<Long, Intervals> index = index();
+        if (list.isEmpty()) {
+            index.remove(studentId);
+        } else {
+            index.put(studentId, Intervals.of(list));
+        }
+    }
+
+    public boolean onLeave(Long studentId, LocalDate date) {
+        return overlaps(studentId, date, date);
+    }
+
+    public boolean overlaps(Long studentId, LocalDate start, LocalDate end) {
+        Intervals intervals = index().get(studentId);
+        return intervals != null && intervals.overlaps(start.toEpochDay(), end.toEpochDay());
+    }
+
+    private Map<Long, Intervals> index() {
+        Map<Long, Intervals> index = byStudent;
+        if (index == null) {
+            reload();
+            index = byStudent;
+        }
+        return index;
+    }
+
+    private static long[] range(Object[] row) {
+        return new long[]{((LocalDate) row[1]).toEpochDay(), ((LocalDate) row[2]).toEpochDay()};
+    }
+
+    record Intervals(long[] starts, long[] ends) {
+
+        // Sorts and merges so starts and ends are both strictly increasing
+        static Intervals of(List<long[]> ranges) {
+            ranges.sort(Comparator.comparingLong(r -> r[0]));
+            long[] starts = new long[ranges.size()];
+            long[] ends = new long[ranges.size()];
+            int n = 0;
+            for (long[] r : ranges) {
+                if (n > 0 && r[0] <= ends[n - 1] + 1) {
+                    ends[n - 1] = Math.max(ends[n - 1], r[1]);
+                } else {
+                    starts[n] = r[0];
+                    ends[n] = r[1];
+                    n++;
+                }
+            }
+            return new Intervals(Arrays.copyOf(starts, n), Arrays.copyOf(ends, n));
+        }
+
+        boolean overlaps(long from, long to) {
+            // last interval starting on or before 'to'
+            int i = Arrays.binarySearch(starts, to);
+            if (i < 0) i = -i - 2;
+            return i >= 0 && ends[i] >= from;
+        }
+    }
+}
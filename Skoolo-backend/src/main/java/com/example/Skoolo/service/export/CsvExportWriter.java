@@ -0,0 +1,32 @@
+package com.example.Skoolo.service.export;
+
+import com.opencsv.CSVWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+class CsvExportWriter implements ExportWriter {
+
+    private final CSVWriter csvWriter;
+
+    CsvExportWriter(OutputStream out) {
+        this.csvWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void writeRow(Object... values) {
+        String[] line = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            line[i] = values[i] == null ? "" : values[i].toString();
+        }
+        csvWriter.writeNext(line, false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        csvWriter.flush(); // the servlet container owns the response stream
+    }
+}
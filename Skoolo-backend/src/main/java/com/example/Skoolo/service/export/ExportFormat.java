@@ -0,0 +1,36 @@
+package com.example.Skoolo.service.export;
+
+import java.io.OutputStream;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public ExportWriter open(OutputStream out, String sheetName) {
+        return this == CSV ? new CsvExportWriter(out) : new XlsxExportWriter(out, sheetName);
+    }
+
+    public static ExportFormat of(String value) {
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + value + " (use csv or xlsx)");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.Skoolo.service.export;
+
+import java.io.IOException;
+
+/** Row-at-a-time tabular writer; implementations never hold more than a small window of rows. */
+public interface ExportWriter extends AutoCloseable {
+
+    void writeRow(Object... values) throws IOException;
+
+    /** Flushes whatever is buffered to the response; does not close the underlying stream. */
+    @Override
+    void close() throws IOException;
+}
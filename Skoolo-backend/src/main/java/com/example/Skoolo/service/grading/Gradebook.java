@@ -0,0 +1,158 @@
+package com.example.Skoolo.service.grading;
+
+import com.example.Skoolo.dto.GradebookDTO;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pivots one section's exam marks into a students x subjects matrix of primitive ints and derives
+ * totals, ranks, percentiles and per-subject statistics from it. Rows are fed in with
+ * {@link #add} in any order; nothing is boxed per cell until the payload is built.
+ */
+public final class Gradebook {
+
+    private static final int MISSING = -1;
+
+    private final Map<Long, Integer> studentIndex = new HashMap<>();
+    private final Map<Long, Integer> subjectIndex = new HashMap<>();
+    private long[] studentIds = new long[64];
+    private String[] studentNames = new String[64];
+    private long[] subjectIds = new long[16];
+    private String[] subjectNames = new String[16];
+    private int[] cells = new int[256]; // (student, subject, obtained, max) per mark
+    private int cellCount;
+
+    public void add(long studentId, String studentName, long subjectId, String subjectName, int obtained, int max) {
+        int s = studentIndex.computeIfAbsent(studentId, id -> {
+            int i = studentIndex.size();
+            if (i == studentIds.length) {
+                studentIds = Arrays.copyOf(studentIds, i * 2);
+                studentNames = Arrays.copyOf(studentNames, i * 2);
+            }
+            studentIds[i] = id;
+            studentNames[i] = studentName;
+            return i;
+        });
+        int j = subjectIndex.computeIfAbsent(subjectId, id -> {
+            int i = subjectIndex.size();
+            if (i == subjectIds.length) {
+                subjectIds = Arrays.copyOf(subjectIds, i * 2);
+                subjectNames = Arrays.copyOf(subjectNames, i * 2);
+            }
+            subjectIds[i] = id;
+            subjectNames[i] = subjectName;
+            return i;
+        });
+        if (cellCount + 4 > cells.length) cells = Arrays.copyOf(cells, cells.length * 2);
+        cells[cellCount++] = s;
+        cells[cellCount++] = j;
+        cells[cellCount++] = obtained;
+        cells[cellCount++] = max;
+    }
+
+    public GradebookDTO build(GradingTable gradingTable) {
+        int students = studentIndex.size();
+        int subjects = subjectIndex.size();
+
+        int[][] obtained = new int[students][subjects];
+        for (int[] row : obtained) Arrays.fill(row, MISSING);
+        int[] maxMarks = new int[subjects];
+        int[] total = new int[students];
+        int[] maxTotal = new int[students];
+        int[] entered = new int[subjects];
+        double[] subjectSum = new double[subjects];
+        double[][] subjectPercents = new double[subjects][students];
+
+        // Single pass over the marks fills the matrix and every running sum
+        for (int c = 0; c < cellCount; c += 4) {
+            int s = cells[c], j = cells[c + 1], got = cells[c + 2], max = cells[c + 3];
+            if (obtained[s][j] != MISSING || max <= 0) continue;
+            obtained[s][j] = got;
+            if (maxMarks[j] == 0) maxMarks[j] = max;
+            total[s] += got;
+            maxTotal[s] += max;
+            double percent = got * 100.0 / max;
+            subjectSum[j] += percent;
+            subjectPercents[j][entered[j]++] = percent;
+        }
+
+        GradebookDTO dto = new GradebookDTO();
+        dto.setMaxMarks(maxMarks);
+        dto.setMarks(boxed(obtained));
+
+        GradebookDTO.Subjects subjectColumns = dto.getSubjects();
+        subjectColumns.setIds(Arrays.copyOf(subjectIds, subjects));
+        subjectColumns.setNames(Arrays.copyOf(subjectNames, subjects));
+        subjectColumns.setEntered(entered);
+        double[] average = new double[subjects], highest = new double[subjects], lowest = new double[subjects],
+                median = new double[subjects];
+        for (int j = 0; j < subjects; j++) {
+            int n = entered[j];
+            if (n == 0) continue;
+            double[] sorted = Arrays.copyOf(subjectPercents[j], n);
+            Arrays.sort(sorted);
+            average[j] = round(subjectSum[j] / n);
+            lowest[j] = round(sorted[0]);
+            highest[j] = round(sorted[n - 1]);
+            median[j] = round(n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2);
+        }
+        subjectColumns.setAverage(average);
+        subjectColumns.setHighest(highest);
+        subjectColumns.setLowest(lowest);
+        subjectColumns.setMedian(median);
+
+        double[] percentage = new double[students];
+        String[] grade = new String[students];
+        for (int s = 0; s < students; s++) {
+            percentage[s] = maxTotal[s] == 0 ? 0 : total[s] * 100.0 / maxTotal[s];
+            grade[s] = maxTotal[s] == 0 ? null : gradingTable.grade(percentage[s]);
+        }
+
+        // Ranks and percentiles from one sort of the student indexes by percentage
+        int[] rank = new int[students];
+        double[] percentile = new double[students];
+        Integer[] order = new Integer[students];
+        for (int s = 0; s < students; s++) order[s] = s;
+        Arrays.sort(order, (a, b) -> Double.compare(percentage[b], percentage[a]));
+        for (int i = 0; i < students; ) {
+            int tieEnd = i;
+            while (tieEnd + 1 < students && percentage[order[tieEnd + 1]] == percentage[order[i]]) tieEnd++;
+            int ties = tieEnd - i + 1;
+            int below = students - tieEnd - 1;
+            for (int k = i; k <= tieEnd; k++) {
+                rank[order[k]] = i + 1;
+                percentile[order[k]] = round((below + 0.5 * ties) * 100.0 / students);
+            }
+            i = tieEnd + 1;
+        }
+
+        GradebookDTO.Students studentColumns = dto.getStudents();
+        studentColumns.setIds(Arrays.copyOf(studentIds, students));
+        studentColumns.setNames(Arrays.copyOf(studentNames, students));
+        studentColumns.setTotal(total);
+        studentColumns.setMaxTotal(maxTotal);
+        for (int s = 0; s < students; s++) percentage[s] = round(percentage[s]);
+        studentColumns.setPercentage(percentage);
+        studentColumns.setGrade(grade);
+        studentColumns.setRank(rank);
+        studentColumns.setPercentile(percentile);
+        return dto;
+    }
+
+    private static Integer[][] boxed(int[][] matrix) {
+        Integer[][] boxed = new Integer[matrix.length][];
+        for (int s = 0; s < matrix.length; s++) {
+            boxed[s] = new Integer[matrix[s].length];
+            for (int j = 0; j < matrix[s].length; j++) {
+                boxed[s][j] = matrix[s][j] == MISSING ? null : matrix[s][j];
+            }
+        }
+        return boxed;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.Skoolo.service.grading;
+
+import com.example.Skoolo.model.GradeBand;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A grading scheme compiled into two parallel arrays: ascending cut points and the grade each
+ * one starts. Looking up a percentage is one binary search for the last cut point at or below it.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class GradingTable {
+
+    /** The bands that were hardcoded before schemes could be configured. */
+    public static final GradingTable DEFAULT = of(List.of(
+            new GradeBand(0, "F"), new GradeBand(35, "D"), new GradeBand(45, "C"),
+            new GradeBand(60, "B"), new GradeBand(75, "A"), new GradeBand(90, "A+")));
+
+    private final double[] cutPoints;
+    private final String[] grades;
+
+    private GradingTable(double[] cutPoints, String[] grades) {
+        this.cutPoints = cutPoints;
+        this.grades = grades;
+    }
+
+    public static GradingTable of(List<GradeBand> bands) {
+        validate(bands);
+        GradeBand[] sorted = bands.toArray(GradeBand[]::new);
+        Arrays.sort(sorted, Comparator.comparingDouble(GradeBand::getMinPercent));
+        double[] cutPoints = new double[sorted.length];
+        String[] grades = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            cutPoints[i] = sorted[i].getMinPercent();
+            grades[i] = sorted[i].getGrade().trim();
+        }
+        return new GradingTable(cutPoints, grades);
+    }
+
+    /** Throws when the bands cannot grade every percentage from 0 to 100 unambiguously. */
+    public static void validate(List<GradeBand> bands) {
+        if (bands == null || bands.isEmpty()) {
+            throw new IllegalArgumentException("A grading scheme needs at least one band");
+        }
+        boolean startsAtZero = false;
+        double[] seen = new double[bands.size()];
+        for (int i = 0; i < bands.size(); i++) {
+            GradeBand band = bands.get(i);
+            if (band.getGrade() == null || band.getGrade().isBlank()) {
+                throw new IllegalArgumentException("Every band needs a grade");
+            }
+            if (band.getMinPercent() < 0 || band.getMinPercent() > 100) {
+                throw new IllegalArgumentException("Band minimums must be between 0 and 100, got " + band.getMinPercent());
+            }
+            startsAtZero |= band.getMinPercent() == 0;
+            seen[i] = band.getMinPercent();
+        }
+        if (!startsAtZero) {
+            throw new IllegalArgumentException("One band must start at 0%");
+        }
+        Arrays.sort(seen);
+        for (int i = 1; i < seen.length; i++) {
+            if (seen[i] == seen[i - 1]) {
+                throw new IllegalArgumentException("Two bands start at " + seen[i] + "%");
+            }
+        }
+    }
+
+    public String grade(int marks, int max) {
+        return grade((double) marks / max * 100);
+    }
+
+    public String grade(double percent) {
+        int i = Arrays.binarySearch(cutPoints, percent);
+        if (i < 0) i = -i - 2; // last cut point below percent
+        return grades[Math.max(i, 0)];
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.Skoolo.service.importer;
+
+import java.util.List;
+
+/**
+ * Persists one batch of validated rows and returns how many were actually written;
+ * the rest of the batch is reported as skipped. Always called from a single thread.
+ */
+@FunctionalInterface
+public interface BatchWriter<T> {
+    int write(List<T> batch);
+}
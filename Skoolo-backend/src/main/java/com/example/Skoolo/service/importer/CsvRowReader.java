@@ -0,0 +1,39 @@
+package com.example.Skoolo.service.importer;
+
+import com.opencsv.CSVReader;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+class CsvRowReader implements RowReader {
+
+    private final CSVReader csvReader;
+    private int rowNumber = 1; // header
+
+    CsvRowReader(InputStream in) throws Exception {
+        this.csvReader = new CSVReader(new BufferedReader(new InputStreamReader(in)));
+        csvReader.readNext(); // skip header
+    }
+
+    @Override
+    public String[] next() throws Exception {
+        String[] line = csvReader.readNext();
+        if (line == null) return null;
+        rowNumber++;
+        for (int i = 0; i < line.length; i++) {
+            line[i] = line[i] == null ? "" : line[i].trim();
+        }
+        return line;
+    }
+
+    @Override
+    public int rowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws Exception {
+        csvReader.close();
+    }
+}
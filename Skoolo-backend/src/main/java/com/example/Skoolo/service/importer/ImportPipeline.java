@@ -0,0 +1,232 @@
+package com.example.Skoolo.service.importer;
+
+import com.example.Skoolo.dto.ImportResultDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared bulk-import engine: parse → validate → persist as concurrent stages.
+ *
+ * <ul>
+ *   <li>parse runs on the calling thread and reads the file row by row,</li>
+ *   <li>validate runs on {@code workers} threads (date/enum parsing, duplicate checks),</li>
+ *   <li>persist runs on a single thread and hands fixed-size batches to the {@link BatchWriter}.</li>
+ * </ul>
+ *
+ * The stages are connected by bounded queues, so a slow database blocks validation,
+ * which in turn blocks parsing — memory stays flat no matter how big the upload is.
+ * A bad row never aborts the import; it is recorded in the returned report instead.
+ */
+@Component
+public class ImportPipeline {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int QUEUE_CAPACITY = 2_000;
+    private static final long END_OFFER_SECONDS = 30;
+
+    private final int workers;
+    private final ExecutorService executor;
+
+    public ImportPipeline(@Value("${skoolo.import.workers:0}") int workers) {
+        this.workers = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        // Cached pool: every import owns (workers + 1) threads for its lifetime, so two
+        // concurrent uploads can never starve each other's persist stage.
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "import-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public <T> ImportResultDTO run(RowReader reader, RowValidator<T> validator, BatchWriter<T> writer) throws Exception {
+        return run(reader, validator, writer, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Same parse and validate path as {@link #run}, but batches go to {@code predictor}, which
+     * checks them against in-memory snapshots and reports how many rows would be written.
+     */
+    public <T> ImportResultDTO dryRun(RowReader reader, RowValidator<T> validator, BatchWriter<T> predictor) throws Exception {
+        ImportResultDTO result = run(reader, validator, predictor, DEFAULT_BATCH_SIZE);
+        result.setMessage("Dry run: nothing was written. 'imported' counts the rows that would be inserted or updated.");
+        return result;
+    }
+
+    public <T> ImportResultDTO run(RowReader reader, RowValidator<T> validator, BatchWriter<T> writer,
+                                   int batchSize) throws Exception {
+        long started = System.currentTimeMillis();
+        BlockingQueue<Item<String[]>> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Item<T>> validated = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Tally tally = new Tally();
+
+        List<Future<?>> stages = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            stages.add(executor.submit(() -> validateStage(parsed, validated, validator, tally)));
+        }
+        stages.add(executor.submit(() -> persistStage(validated, writer, batchSize, tally)));
+
+        Exception parseFailure = null;
+        try {
+            String[] raw;
+            while ((raw = reader.next()) != null) {
+                if (isBlank(raw)) continue;
+                tally.total.incrementAndGet();
+                parsed.put(new Item<>(reader.rowNumber(), raw)); // blocks when validators fall behind
+            }
+        } catch (Exception e) {
+            parseFailure = e;
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                parsed.put(Item.end());
+            }
+        }
+
+        try {
+            for (Future<?> stage : stages) {
+                stage.get();
+            }
+        } catch (InterruptedException e) {
+            // The request is going away; don't leave the stages blocked on queues nobody will touch again
+            stages.forEach(stage -> stage.cancel(true));
+            throw e;
+        }
+        if (parseFailure != null) {
+            throw new RuntimeException("Failed to read file after row " + reader.rowNumber()
+                    + ": " + parseFailure.getMessage(), parseFailure);
+        }
+
+        ImportResultDTO result = new ImportResultDTO();
+        result.setTotalRows(tally.total.get());
+        result.setImported(tally.imported.get());
+        result.setSkipped(tally.skipped.get());
+        List<ImportResultDTO.RowError> errors = new ArrayList<>(tally.errors);
+        errors.sort(Comparator.comparingInt(ImportResultDTO.RowError::getRow));
+        result.setErrors(errors);
+        result.setFailed(errors.size());
+        result.setElapsedMillis(System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private <T> void validateStage(BlockingQueue<Item<String[]>> in, BlockingQueue<Item<T>> out,
+                                   RowValidator<T> validator, Tally tally) {
+        try {
+            while (true) {
+                Item<String[]> item = in.take();
+                if (item.isEnd()) break;
+                try {
+                    T value = validator.validate(item.value());
+                    if (value == null) {
+                        tally.skipped.incrementAndGet();
+                    } else {
+                        out.put(new Item<>(item.row(), value));
+                    }
+                } catch (InterruptedException e) {
+                    tally.error(item.row(), "Validation interrupted");
+                    throw e;
+                } catch (Exception e) {
+                    tally.error(item.row(), e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // persistStage waits for one END per validator, however the validator stopped
+            signalEnd(out);
+        }
+    }
+
+    // Works from an interrupted thread too; gives up only if persist has stopped draining the queue
+    private static <T> void signalEnd(BlockingQueue<Item<T>> queue) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            queue.offer(Item.end(), END_OFFER_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> void persistStage(BlockingQueue<Item<T>> in, BatchWriter<T> writer, int batchSize, Tally tally) {
+        List<Item<T>> batch = new ArrayList<>(batchSize);
+        int finishedValidators = 0;
+        try {
+            while (finishedValidators < workers) {
+                Item<T> item = in.take();
+                if (item.isEnd()) {
+                    finishedValidators++;
+                    continue;
+                }
+                batch.add(item);
+                if (batch.size() >= batchSize) {
+                    flush(batch, writer, tally);
+                }
+            }
+            flush(batch, writer, tally);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> void flush(List<Item<T>> batch, BatchWriter<T> writer, Tally tally) {
+        if (batch.isEmpty()) return;
+        List<T> values = new ArrayList<>(batch.size());
+        for (Item<T> item : batch) values.add(item.value());
+
+        try {
+            int written = writer.write(values);
+            tally.imported.addAndGet(written);
+            tally.skipped.addAndGet(values.size() - written);
+        } catch (Throwable e) {
+            // One failing batch must not stall the pipeline; report every row in it
+            for (Item<T> item : batch) {
+                tally.error(item.row(), "Batch save failed: " + e.getMessage());
+            }
+        }
+        batch.clear();
+    }
+
+    private static boolean isBlank(String[] row) {
+        for (String cell : row) {
+            if (cell != null && !cell.isBlank()) return false;
+        }
+        return true;
+    }
+
+    private record Item<V>(int row, V value) {
+        private static final Item<?> END = new Item<>(-1, null);
+
+        @SuppressWarnings("unchecked")
+        static <V> Item<V> end() {
+            return (Item<V>) END;
+        }
+
+        boolean isEnd() {
+            return this == END;
+        }
+    }
+
+    private static class Tally {
+        final AtomicInteger total = new AtomicInteger();
+        final AtomicInteger imported = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final ConcurrentLinkedQueue<ImportResultDTO.RowError> errors = new ConcurrentLinkedQueue<>();
+
+        void error(int row, String message) {
+            errors.add(new ImportResultDTO.RowError(row, message));
+        }
+    }
+}
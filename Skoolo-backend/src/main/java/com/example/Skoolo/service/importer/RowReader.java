@@ -0,0 +1,39 @@
+package com.example.Skoolo.service.importer;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Forward-only reader over the data rows of an uploaded CSV or Excel file.
+ * CSV and .xlsx are streamed; only legacy .xls is loaded into memory.
+ * The header row is skipped, every cell is returned as a trimmed string.
+ */
+public interface RowReader extends AutoCloseable {
+
+    /** Next data row, or {@code null} when the file is exhausted. */
+    String[] next() throws Exception;
+
+    /** 1-based row number (as the admin sees it in the spreadsheet) of the last row returned. */
+    int rowNumber();
+
+    @Override
+    void close() throws Exception;
+
+    /** Cell at {@code index}, or "" when the row is shorter than expected. */
+    static String column(String[] row, int index) {
+        return index < row.length && row[index] != null ? row[index].trim() : "";
+    }
+
+    static RowReader open(MultipartFile file) throws Exception {
+        String filename = file.getOriginalFilename();
+        if (filename == null) throw new RuntimeException("File name is invalid");
+
+        if (filename.endsWith(".csv")) {
+            return new CsvRowReader(file.getInputStream());
+        } else if (filename.endsWith(".xlsx")) {
+            return new StreamingXlsxRowReader(file.getInputStream());
+        } else if (filename.endsWith(".xls")) {
+            return new WorkbookRowReader(file.getInputStream()); // legacy binary format has no streaming reader
+        }
+        throw new RuntimeException("Unsupported file type: " + filename);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.Skoolo.service.importer;
+
+/**
+ * Turns one raw spreadsheet row into the value that will be persisted.
+ * Throw to reject the row (the message ends up in the import report),
+ * return {@code null} to skip it silently.
+ * Runs concurrently on several pipeline workers, so it must be thread-safe.
+ */
+@FunctionalInterface
+public interface RowValidator<T> {
+    T validate(String[] row) throws Exception;
+}
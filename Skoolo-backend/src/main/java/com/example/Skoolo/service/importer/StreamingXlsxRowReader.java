@@ -0,0 +1,132 @@
+package com.example.Skoolo.service.importer;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * SAX-based .xlsx reader: the sheet XML is streamed on a background thread and rows are
+ * handed over through a small bounded queue, so only a few rows are ever materialised
+ * (the usermodel {@link WorkbookRowReader} builds the whole workbook in memory first).
+ */
+class StreamingXlsxRowReader implements RowReader {
+
+    private static final ParsedRow END = new ParsedRow(-1, null, null);
+
+    private final OPCPackage pkg;
+    private final BlockingQueue<ParsedRow> rows = new ArrayBlockingQueue<>(1_024);
+    private final Thread parser;
+    private int rowNumber = 1;
+
+    StreamingXlsxRowReader(InputStream in) throws Exception {
+        this.pkg = OPCPackage.open(in);
+        XSSFReader xssfReader = new XSSFReader(pkg);
+        ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+        StylesTable styles = xssfReader.getStylesTable();
+        InputStream firstSheet = xssfReader.getSheetsData().next();
+
+        this.parser = new Thread(() -> {
+            try (firstSheet) {
+                XMLReader xml = XMLHelper.newXMLReader();
+                xml.setContentHandler(new XSSFSheetXMLHandler(styles, strings, new RowCollector(), new IsoDataFormatter(), false));
+                xml.parse(new InputSource(firstSheet));
+                rows.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                try {
+                    rows.put(new ParsedRow(-1, null, e));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt(); // reader already closed, nobody is waiting
+                }
+            }
+        }, "xlsx-reader");
+        parser.setDaemon(true);
+        parser.start();
+    }
+
+    @Override
+    public String[] next() throws Exception {
+        ParsedRow row = rows.take();
+        if (row.failure() != null) throw row.failure();
+        if (row == END) return null;
+        rowNumber = row.rowNum() + 1;
+        return row.cells();
+    }
+
+    @Override
+    public int rowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws Exception {
+        parser.interrupt();
+        pkg.revert(); // read-only, nothing to save
+    }
+
+    private class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private String[] current;
+        private int width;
+
+        @Override
+        public void startRow(int rowNum) {
+            current = new String[16];
+            width = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) return; // header
+            String[] cells = Arrays.copyOf(current, width);
+            for (int i = 0; i < width; i++) {
+                if (cells[i] == null) cells[i] = "";
+            }
+            try {
+                rows.put(new ParsedRow(rowNum, cells, null)); // blocks while the pipeline is busy
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reader closed");
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = new CellReference(cellReference).getCol();
+            if (col >= current.length) current = Arrays.copyOf(current, Math.max(col + 1, current.length * 2));
+            current[col] = formattedValue == null ? "" : formattedValue.trim();
+            width = Math.max(width, col + 1);
+        }
+    }
+
+    // Same conventions as WorkbookRowReader.cellAsString: ISO dates, integral numbers without decimals
+    private static class IsoDataFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                return String.valueOf((long) value);
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString);
+        }
+    }
+
+    private record ParsedRow(int rowNum, String[] cells, Exception failure) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.Skoolo.service.importer;
+
+import org.apache.poi.ss.usermodel.*;
+
+import java.io.InputStream;
+import java.util.Iterator;
+
+class WorkbookRowReader implements RowReader {
+
+    private final Workbook workbook;
+    private final Iterator<Row> rows;
+    private int rowNumber = 1;
+
+    WorkbookRowReader(InputStream in) throws Exception {
+        this.workbook = WorkbookFactory.create(in);
+        this.rows = workbook.getSheetAt(0).iterator();
+        if (rows.hasNext()) rows.next(); // skip header
+    }
+
+    @Override
+    public String[] next() {
+        if (!rows.hasNext()) return null;
+        Row row = rows.next();
+        rowNumber = row.getRowNum() + 1;
+
+        int width = Math.max(row.getLastCellNum(), 0);
+        String[] values = new String[width];
+        for (int i = 0; i < width; i++) {
+            values[i] = cellAsString(row.getCell(i));
+        }
+        return values;
+    }
+
+    @Override
+    public int rowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws Exception {
+        workbook.close();
+    }
+
+    // ✅ Excel-safe cell reader (dates come back as yyyy-MM-dd, numbers without decimals)
+    static String cellAsString(Cell cell) {
+        if (cell == null) return "";
+        CellType type = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+        return switch (type) {
+            case STRING -> cell.getStringCellValue().trim();
+            case NUMERIC -> DateUtil.isCellDateFormatted(cell)
+                    ? cell.getLocalDateTimeCellValue().toLocalDate().toString()
+                    : String.valueOf((long) cell.getNumericCellValue());
+            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
+            default -> "";
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.Skoolo.service.marks;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+
+/**
+ * Each student's marks held in memory as an immutable list, least recently used students evicted
+ * beyond {@code skoolo.marks.cache-size}. Misses for several students are loaded in one query.
+ * Every write path that touches marks calls {@link #invalidate(Collection)} with the students it
+ * wrote; inside a transaction the eviction runs after commit, so a reader can never re-cache the
+ * rows that are about to change. A load that overlaps any invalidation is returned but not cached.
+ */
+@Component
+public class StudentMarksCache {
+
+    private static final String STUDENT_MARKS = """
+            SELECT m.student_id, m.id, sub.subject_name, m.exam_name, m.marks_obtained, m.max_marks,
+                   m.grade, m.academic_year
+            FROM marks m
+            JOIN subjects sub ON sub.id = m.subject_id
+            WHERE m.student_id = ANY(?)
+            ORDER BY m.student_id, m.academic_year, m.exam_name, sub.subject_name
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, List<MarkRow>> byStudent;
+    private long invalidations; // guarded by byStudent
+
+    public StudentMarksCache(@Value("${skoolo.marks.cache-size:20000}") int maxStudents) {
+        this.byStudent = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<MarkRow>> eldest) {
+                return size() > maxStudents;
+            }
+        };
+    }
+
+    /** Marks of each student, in the order given; students without marks map to an empty list. */
+    public Map<Long, List<MarkRow>> get(Collection<Long> studentIds) {
+        Map<Long, List<MarkRow>> found = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long stamp;
+        synchronized (byStudent) {
+            for (Long id : studentIds) {
+                List<MarkRow> rows = byStudent.get(id);
+                if (rows == null) missing.add(id);
+                found.put(id, rows);
+            }
+            stamp = invalidations;
+        }
+        if (missing.isEmpty()) return found;
+
+        Map<Long, List<MarkRow>> loaded = load(missing);
+        synchronized (byStudent) {
+            boolean current = stamp == invalidations;
+            for (Long id : missing) {
+                List<MarkRow> rows = loaded.getOrDefault(id, List.of());
+                if (current) byStudent.put(id, rows);
+                found.put(id, rows);
+            }
+        }
+        return found;
+    }
+
+    /** Drops the given students once the surrounding transaction (if any) has committed. */
+    public void invalidate(Collection<Long> studentIds) {
+        if (studentIds.isEmpty()) return;
+        List<Long> ids = List.copyOf(studentIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+        } else {
+            evict(ids);
+        }
+    }
+
+    /** For changes that touch every student's rows, e.g. a subject rename. */
+    public void clear() {
+        synchronized (byStudent) {
+            invalidations++;
+            byStudent.clear();
+        }
+    }
+
+    private void evict(List<Long> ids) {
+        synchronized (byStudent) {
+            invalidations++;
+            ids.forEach(byStudent::remove);
+        }
+    }
+
+    Map<Long, List<MarkRow>> load(List<Long> studentIds) {
+        Map<Long, List<MarkRow>> loaded = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STUDENT_MARKS);
+            ps.setArray(1, con.createArrayOf("bigint", studentIds.toArray()));
+            return ps;
+        }, rs -> {
+            loaded.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(new MarkRow(rs.getLong(2),
+                    rs.getString(3), rs.getString(4), rs.getInt(5), rs.getInt(6), rs.getString(7), rs.getString(8)));
+        });
+        loaded.replaceAll((id, rows) -> List.copyOf(rows));
+        return loaded;
+    }
+
+    public record MarkRow(long markId, String subjectName, String examName, int marksObtained, int maxMarks,
+                          String grade, String academicYear) {
+    }
+}
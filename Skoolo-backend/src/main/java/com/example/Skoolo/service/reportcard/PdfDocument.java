@@ -0,0 +1,101 @@
+package com.example.Skoolo.service.reportcard;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Just enough PDF to print a report card: A4 pages of text in the two standard Helvetica faces
+ * (no fonts to embed), rules and shaded boxes. Text is Latin-1; anything else prints as '?'.
+ * One instance per document, used by one thread.
+ */
+final class PdfDocument {
+
+    static final float WIDTH = 595;  // A4 in points
+    static final float HEIGHT = 842;
+
+    private final List<StringBuilder> pages = new ArrayList<>();
+    private StringBuilder page;
+
+    PdfDocument() {
+        newPage();
+    }
+
+    void newPage() {
+        page = new StringBuilder(4096);
+        pages.add(page);
+    }
+
+    void text(float x, float y, float size, boolean bold, String text) {
+        page.append("BT /").append(bold ? "F2 " : "F1 ").append(size).append(" Tf ")
+                .append(x).append(' ').append(y).append(" Td (");
+        escape(text == null ? "" : text);
+        page.append(") Tj ET\n");
+    }
+
+    void line(float x1, float y1, float x2, float y2) {
+        page.append(x1).append(' ').append(y1).append(" m ").append(x2).append(' ').append(y2).append(" l S\n");
+    }
+
+    void shade(float x, float y, float width, float height, float gray) {
+        page.append(gray).append(" g ").append(x).append(' ').append(y).append(' ')
+                .append(width).append(' ').append(height).append(" re f 0 g\n");
+    }
+
+    /** Approximate width of {@code text} in Helvetica, for right-aligning numbers. */
+    static float width(String text, float size) {
+        return text.length() * size * 0.55f;
+    }
+
+    void writeTo(ByteArrayOutputStream out) {
+        int[] offsets = new int[4 + pages.size() * 2];
+        int object = 0;
+
+        write(out, "%PDF-1.4\n");
+        offsets[object++] = out.size();
+        write(out, "1 0 obj << /Type /Catalog /Pages 2 0 R >> endobj\n");
+
+        StringBuilder kids = new StringBuilder();
+        for (int i = 0; i < pages.size(); i++) kids.append(5 + i * 2).append(" 0 R ");
+        offsets[object++] = out.size();
+        write(out, "2 0 obj << /Type /Pages /Kids [" + kids + "] /Count " + pages.size() + " >> endobj\n");
+
+        offsets[object++] = out.size();
+        write(out, "3 0 obj << /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >> endobj\n");
+        offsets[object++] = out.size();
+        write(out, "4 0 obj << /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >> endobj\n");
+
+        for (int i = 0; i < pages.size(); i++) {
+            int pageObject = 5 + i * 2;
+            offsets[object++] = out.size();
+            write(out, pageObject + " 0 obj << /Type /Page /Parent 2 0 R /MediaBox [0 0 " + WIDTH + " " + HEIGHT + "]"
+                    + " /Resources << /Font << /F1 3 0 R /F2 4 0 R >> >> /Contents " + (pageObject + 1) + " 0 R >> endobj\n");
+
+            byte[] content = pages.get(i).toString().getBytes(StandardCharsets.ISO_8859_1);
+            offsets[object++] = out.size();
+            write(out, (pageObject + 1) + " 0 obj << /Length " + content.length + " >> stream\n");
+            out.writeBytes(content);
+            write(out, "endstream endobj\n");
+        }
+
+        int xref = out.size();
+        StringBuilder table = new StringBuilder("xref\n0 ").append(offsets.length + 1).append("\n0000000000 65535 f \n");
+        for (int offset : offsets) table.append(String.format("%010d 00000 n \n", offset));
+        table.append("trailer << /Size ").append(offsets.length + 1).append(" /Root 1 0 R >>\nstartxref\n")
+                .append(xref).append("\n%%EOF\n");
+        write(out, table.toString());
+    }
+
+    private void escape(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') page.append('\\');
+            page.append(c < 32 || c > 255 ? '?' : c);
+        }
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
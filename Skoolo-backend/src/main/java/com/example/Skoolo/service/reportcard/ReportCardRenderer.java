@@ -0,0 +1,109 @@
+package com.example.Skoolo.service.reportcard;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+/**
+ * Lays out one student's report card: marks grouped by exam, the year's attendance and the
+ * promotion result. Stateless; every call builds its own document.
+ */
+public final class ReportCardRenderer {
+
+    private static final float MARGIN = 50;
+    private static final float BOTTOM = 70;
+    private static final float ROW = 16;
+    private static final float[] COLUMNS = {MARGIN + 10, 330, 395, 455, 510}; // subject, obtained, max, %, grade
+
+    public record MarkLine(String examName, String subjectName, int obtained, int max, String grade) {
+    }
+
+    public record Card(long studentId, String studentName, String className, String sectionName, String academicYear,
+                       List<MarkLine> marks, int present, int absent, int late, int leave,
+                       String resultStatus, String remarks) {
+    }
+
+    private ReportCardRenderer() {
+    }
+
+    public static void render(Card card, String schoolName, ByteArrayOutputStream out) {
+        PdfDocument pdf = new PdfDocument();
+        float y = header(pdf, card, schoolName);
+
+        String exam = null;
+        for (MarkLine mark : card.marks()) {
+            if (!mark.examName().equals(exam)) {
+                if (y - 3 * ROW < BOTTOM) y = continued(pdf, card, schoolName);
+                exam = mark.examName();
+                y -= ROW;
+                pdf.text(MARGIN, y, 12, true, exam);
+                y -= ROW + 2;
+                pdf.shade(MARGIN, y - 4, PdfDocument.WIDTH - 2 * MARGIN, ROW, 0.9f);
+                pdf.text(COLUMNS[0], y, 10, true, "Subject");
+                pdf.text(COLUMNS[1], y, 10, true, "Marks");
+                pdf.text(COLUMNS[2], y, 10, true, "Max");
+                pdf.text(COLUMNS[3], y, 10, true, "%");
+                pdf.text(COLUMNS[4], y, 10, true, "Grade");
+            }
+            y -= ROW;
+            if (y < BOTTOM) y = continued(pdf, card, schoolName) - ROW;
+            pdf.text(COLUMNS[0], y, 10, false, mark.subjectName());
+            pdf.text(COLUMNS[1], y, 10, false, Integer.toString(mark.obtained()));
+            pdf.text(COLUMNS[2], y, 10, false, Integer.toString(mark.max()));
+            pdf.text(COLUMNS[3], y, 10, false, mark.max() > 0 ? percent(mark.obtained(), mark.max()) : "-");
+            pdf.text(COLUMNS[4], y, 10, false, mark.grade() == null ? "-" : mark.grade());
+        }
+        if (card.marks().isEmpty()) {
+            y -= ROW;
+            pdf.text(MARGIN, y, 10, false, "No marks recorded for " + card.academicYear() + ".");
+        }
+
+        if (y - 7 * ROW < BOTTOM) y = continued(pdf, card, schoolName);
+        y -= 2 * ROW;
+        pdf.text(MARGIN, y, 12, true, "Attendance");
+        pdf.line(MARGIN, y - 4, PdfDocument.WIDTH - MARGIN, y - 4);
+        int marked = card.present() + card.absent() + card.late() + card.leave();
+        y -= ROW + 4;
+        pdf.text(COLUMNS[0], y, 10, false, "Present " + card.present() + "   Late " + card.late()
+                + "   Absent " + card.absent() + "   Leave " + card.leave());
+        pdf.text(COLUMNS[3], y, 10, true, marked == 0 ? "-" : percent(card.present() + card.late(), marked));
+
+        y -= 2 * ROW;
+        pdf.text(MARGIN, y, 12, true, "Result");
+        pdf.line(MARGIN, y - 4, PdfDocument.WIDTH - MARGIN, y - 4);
+        y -= ROW + 4;
+        pdf.text(COLUMNS[0], y, 10, false, card.resultStatus() == null ? "Not yet decided" : card.resultStatus());
+        if (card.remarks() != null && !card.remarks().isBlank()) {
+            y -= ROW;
+            pdf.text(COLUMNS[0], y, 10, false, card.remarks());
+        }
+
+        pdf.writeTo(out);
+    }
+
+    private static float header(PdfDocument pdf, Card card, String schoolName) {
+        float y = PdfDocument.HEIGHT - MARGIN;
+        pdf.text(MARGIN, y, 18, true, schoolName);
+        String title = "Report Card " + card.academicYear();
+        pdf.text(PdfDocument.WIDTH - MARGIN - PdfDocument.width(title, 12), y, 12, true, title);
+        y -= 28;
+        pdf.text(MARGIN, y, 12, false, card.studentName());
+        String placement = "Class " + nullToDash(card.className()) + " - " + nullToDash(card.sectionName());
+        pdf.text(PdfDocument.WIDTH - MARGIN - PdfDocument.width(placement, 10), y, 10, false, placement);
+        y -= 8;
+        pdf.line(MARGIN, y, PdfDocument.WIDTH - MARGIN, y);
+        return y - 6;
+    }
+
+    private static float continued(PdfDocument pdf, Card card, String schoolName) {
+        pdf.newPage();
+        return header(pdf, card, schoolName);
+    }
+
+    private static String percent(int part, int whole) {
+        return Math.round(part * 1000.0 / whole) / 10.0 + "%";
+    }
+
+    private static String nullToDash(String value) {
+        return value == null ? "-" : value;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.Skoolo.service.timetable;
+
+import java.util.*;
+
+/**
+ * Each teacher's week as a bitset of (day, period) slots, kept per section so a proposed change
+ * can be checked by swapping out the sections it touches. Checking an assignment or a whole-school
+ * upload is a few word-wide ORs and one {@code intersects} per teacher; cells are only walked to
+ * build the report once a clash is known. Built with every timetable snapshot and immutable.
+ */
+public final class TeacherSchedules {
+
+    public static final TeacherSchedules EMPTY = of(List.of());
+
+    private final Map<String, Integer> slotIds;                 // "MONDAY#1" -> bit
+    private final Map<Long, Map<Long, BitSet>> slotsByTeacher;  // teacher -> section -> busy slots
+    private final Map<Long, Map<Integer, List<Cell>>> cellsByTeacher; // teacher -> bit -> cells, for reports
+    private final Map<Long, String> teacherNames;
+
+    private TeacherSchedules(Map<String, Integer> slotIds, Map<Long, Map<Long, BitSet>> slotsByTeacher,
+                             Map<Long, Map<Integer, List<Cell>>> cellsByTeacher, Map<Long, String> teacherNames) {
+        this.slotIds = slotIds;
+        this.slotsByTeacher = slotsByTeacher;
+        this.cellsByTeacher = cellsByTeacher;
+        this.teacherNames = teacherNames;
+    }
+
+    public static TeacherSchedules of(Collection<TimetableSlot> slots) {
+        Map<String, Integer> slotIds = new HashMap<>();
+        Map<Long, Map<Long, BitSet>> slotsByTeacher = new HashMap<>();
+        Map<Long, Map<Integer, List<Cell>>> cellsByTeacher = new HashMap<>();
+        Map<Long, String> teacherNames = new HashMap<>();
+        for (TimetableSlot slot : slots) {
+            Cell cell = Cell.of(slot);
+            if (cell.teacherId() == null || cell.sectionId() == null || cell.dayOfWeek() == null) continue;
+            int bit = slotIds.computeIfAbsent(key(cell.dayOfWeek(), cell.period()), k -> slotIds.size());
+            slotsByTeacher.computeIfAbsent(cell.teacherId(), id -> new HashMap<>())
+                    .computeIfAbsent(cell.sectionId(), id -> new BitSet()).set(bit);
+            cellsByTeacher.computeIfAbsent(cell.teacherId(), id -> new HashMap<>())
+                    .computeIfAbsent(bit, b -> new ArrayList<>()).add(cell);
+            teacherNames.putIfAbsent(cell.teacherId(), slot.teacher().getFullName());
+        }
+        return new TeacherSchedules(slotIds, slotsByTeacher, cellsByTeacher, teacherNames);
+    }
+
+    /**
+     * Clashes that {@code replacements} would create. Each entry replaces the given cells of one
+     * section (all of its cells for an upload, just the edited ones otherwise); cells without a
+     * teacher are ignored. Within the proposal, the first cell to claim a teacher's slot wins and
+     * later ones are reported against it.
+     */
+    public List<Conflict> check(Map<Long, List<Cell>> replacements) {
+        Map<String, Integer> ids = new HashMap<>(slotIds); // proposals may use slots no one has yet
+        Map<Long, List<Cell>> proposedByTeacher = new LinkedHashMap<>();
+        for (List<Cell> cells : replacements.values()) {
+            for (Cell cell : cells) {
+                if (cell.teacherId() != null) proposedByTeacher.computeIfAbsent(cell.teacherId(), id -> new ArrayList<>()).add(cell);
+            }
+        }
+
+        List<Conflict> conflicts = new ArrayList<>();
+        proposedByTeacher.forEach((teacherId, cells) -> {
+            BitSet elsewhere = new BitSet();
+            slotsByTeacher.getOrDefault(teacherId, Map.of()).forEach((sectionId, bits) -> {
+                if (!replacements.containsKey(sectionId)) elsewhere.or(bits);
+            });
+
+            BitSet proposed = new BitSet();
+            boolean clash = false;
+            for (Cell cell : cells) {
+                int bit = ids.computeIfAbsent(key(cell.dayOfWeek(), cell.period()), k -> ids.size());
+                clash |= proposed.get(bit);
+                proposed.set(bit);
+            }
+            if (!clash && !proposed.intersects(elsewhere)) return; // the common case
+
+            Map<Integer, Cell> claimed = new HashMap<>();
+            for (Cell cell : cells) {
+                int bit = ids.get(key(cell.dayOfWeek(), cell.period()));
+                Cell other = null;
+                if (elsewhere.get(bit)) {
+                    other = cellsByTeacher.get(teacherId).get(bit).stream()
+                            .filter(c -> !replacements.containsKey(c.sectionId()))
+                            .findFirst().orElse(null);
+                }
+                if (other == null) other = claimed.putIfAbsent(bit, cell);
+                if (other != null) conflicts.add(new Conflict(teacherId, teacherName(teacherId), cell, other));
+            }
+        });
+        return conflicts;
+    }
+
+    /** Teachers already booked in two sections at once in the stored timetable. */
+    public List<Conflict> doubleBookings() {
+        List<Conflict> conflicts = new ArrayList<>();
+        slotsByTeacher.forEach((teacherId, bySection) -> {
+            BitSet seen = new BitSet();
+            BitSet twice = new BitSet();
+            for (BitSet bits : bySection.values()) {
+                BitSet overlap = (BitSet) bits.clone();
+                overlap.and(seen);
+                twice.or(overlap);
+                seen.or(bits);
+            }
+            for (int bit = twice.nextSetBit(0); bit >= 0; bit = twice.nextSetBit(bit + 1)) {
+                List<Cell> cells = cellsByTeacher.get(teacherId).get(bit);
+                for (int i = 1; i < cells.size(); i++) {
+                    conflicts.add(new Conflict(teacherId, teacherName(teacherId), cells.get(i), cells.get(0)));
+                }
+            }
+        });
+        return conflicts;
+    }
+
+    private String teacherName(Long teacherId) {
+        String name = teacherNames.get(teacherId);
+        return name != null && !name.isBlank() ? name : "Teacher #" + teacherId;
+    }
+
+    private static String key(String dayOfWeek, String period) {
+        return dayOfWeek.trim().toUpperCase() + "#" + (period == null ? "" : period.trim());
+    }
+
+    /** One period of one section as far as double-booking goes. */
+    public record Cell(Long sectionId, String sectionLabel, String dayOfWeek, String period, Long teacherId,
+                       String subjectName) {
+
+        static Cell of(TimetableSlot slot) {
+            String label = (slot.classEntity() != null ? slot.classEntity().className() + "-" : "")
+                    + (slot.section() != null ? slot.section().sectionName() : "");
+            return new Cell(slot.section() != null ? slot.section().id() : null, label, slot.dayOfWeek(), slot.period(),
+                    slot.teacher() != null ? slot.teacher().id() : null,
+                    slot.subject() != null ? slot.subject().subjectName() : null);
+        }
+    }
+
+    /** {@code cell} would put the teacher in two places at once; {@code bookedIn} is the other place. */
+    public record Conflict(Long teacherId, String teacherName, Cell cell, Cell bookedIn) {
+
+        public String getMessage() {
+            return teacherName + " would teach " + describe(cell) + " but is already teaching " + describe(bookedIn)
+                    + " on " + cell.dayOfWeek() + " period " + cell.period();
+        }
+
+        private static String describe(Cell c) {
+            return (c.subjectName() != null ? c.subjectName() + " in " : "") + c.sectionLabel();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.Skoolo.service.timetable;
+
+import java.util.List;
+
+/** A timetable change was refused because it would double-book at least one teacher. */
+public class TimetableConflictException extends RuntimeException {
+
+    private final List<TeacherSchedules.Conflict> conflicts;
+
+    public TimetableConflictException(List<TeacherSchedules.Conflict> conflicts) {
+        super(conflicts.get(0).getMessage()
+                + (conflicts.size() > 1 ? " (and " + (conflicts.size() - 1) + " more clashes)" : ""));
+        this.conflicts = List.copyOf(conflicts);
+    }
+
+    public List<TeacherSchedules.Conflict> getConflicts() {
+        return conflicts;
+    }
+}
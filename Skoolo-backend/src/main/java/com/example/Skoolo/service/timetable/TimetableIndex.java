@@ -0,0 +1,178 @@
+package com.example.Skoolo.service.timetable;
+
+import com.example.Skoolo.repo.TimetableRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Whole-school timetable held in memory as an immutable snapshot, so "who teaches this section
+ * right now" and the section, teacher and parent timetable pages never touch the database.
+ * Every write path in TimetableService calls {@link #rebuild()} after its transaction commits;
+ * the new snapshot is built off to the side and published with a single volatile write, so
+ * readers see either the old grid or the new one. Each snapshot carries a version that goes up by
+ * one per rebuild, and the {@link TeacherSchedules} used to reject double bookings.
+ */
+@Component
+public class TimetableIndex {
+
+    @Autowired
+    private TimetableRepository timetableRepository;
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("H:mm[:ss]"); // "9:00" and "09:00:00"
+
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("⚠️ Timetable index not built at startup, will retry on first use: " + e.getMessage());
+        }
+    }
+
+    public synchronized void rebuild() {
+        Map<Long, Long> classBySection = new HashMap<>();
+        Map<Long, Map<DayOfWeek, List<Slot>>> slots = new HashMap<>();
+        Map<Long, List<TimetableSlot>> bySection = new HashMap<>();
+        Map<Long, List<TimetableSlot>> byTeacher = new HashMap<>();
+        List<TimetableSlot> all = new ArrayList<>();
+        for (Object[] row : timetableRepository.findAllSlots()) {
+            Long sectionId = (Long) row[0];
+            Long teacherId = (Long) row[6];
+            TimetableSlot view = view(row);
+            all.add(view);
+            if (sectionId != null) bySection.computeIfAbsent(sectionId, id -> new ArrayList<>()).add(view);
+            if (teacherId != null) byTeacher.computeIfAbsent(teacherId, id -> new ArrayList<>()).add(view);
+
+            DayOfWeek day = parseDay((String) row[2]);
+            if (sectionId == null || day == null) continue;
+
+            classBySection.putIfAbsent(sectionId, (Long) row[1]);
+            slots.computeIfAbsent(sectionId, id -> new EnumMap<>(DayOfWeek.class))
+                    .computeIfAbsent(day, d -> new ArrayList<>())
+                    .add(new Slot((String) row[3], parseTime((String) row[4]), parseTime((String) row[5]), teacherId));
+        }
+
+        Map<Long, Map<DayOfWeek, List<Slot>>> frozen = new HashMap<>();
+        slots.forEach((sectionId, days) -> {
+            Map<DayOfWeek, List<Slot>> frozenDays = new EnumMap<>(DayOfWeek.class);
+            days.forEach((day, list) -> frozenDays.put(day, List.copyOf(list)));
+            frozen.put(sectionId, Collections.unmodifiableMap(frozenDays));
+        });
+        bySection.replaceAll((id, list) -> List.copyOf(list));
+        byTeacher.replaceAll((id, list) -> List.copyOf(list));
+
+        long version = snapshot == null ? 1 : snapshot.version() + 1;
+        snapshot = new Snapshot(version, Collections.unmodifiableMap(classBySection), Collections.unmodifiableMap(frozen),
+                Map.copyOf(bySection), Map.copyOf(byTeacher), TeacherSchedules.of(all));
+    }
+
+    /** Increases by one every time a new timetable is published. */
+    public long version() {
+        return current().version();
+    }
+
+    /** Every teacher's bookings in this snapshot, for double-booking checks. */
+    public TeacherSchedules schedules() {
+        return current().schedules();
+    }
+
+    /** Every period of the section; empty when the section belongs to a different class. */
+    public List<TimetableSlot> forSection(Long classId, Long sectionId) {
+        if (sectionId == null) return List.of();
+        Snapshot current = current();
+        if (classId != null && !classId.equals(current.classBySection().get(sectionId))) {
+            return List.of();
+        }
+        return current.bySection().getOrDefault(sectionId, List.of());
+    }
+
+    public List<TimetableSlot> forTeacher(Long teacherId) {
+        if (teacherId == null) return List.of();
+        return current().byTeacher().getOrDefault(teacherId, List.of());
+    }
+
+    /** Teacher of {@code period} ("1", "2", ...) for the section on {@code day}, if any. */
+    public Optional<Long> teacherFor(Long classId, Long sectionId, DayOfWeek day, String period) {
+        return slotsFor(classId, sectionId, day).stream()
+                .filter(slot -> slot.period().equals(period))
+                .findFirst()
+                .map(Slot::teacherId);
+    }
+
+    /** Teacher of whichever period is running at {@code time}, if any. */
+    public Optional<Long> teacherAt(Long classId, Long sectionId, DayOfWeek day, LocalTime time) {
+        return slotsFor(classId, sectionId, day).stream()
+                .filter(slot -> slot.start() != null && slot.end() != null
+                        && !time.isBefore(slot.start()) && time.isBefore(slot.end()))
+                .findFirst()
+                .map(Slot::teacherId);
+    }
+
+    public LocalTime startOf(Long sectionId, DayOfWeek day, String period) {
+        for (Slot slot : current().slots().getOrDefault(sectionId, Map.of()).getOrDefault(day, List.of())) {
+            if (slot.period().equals(period)) return slot.start();
+        }
+        return null;
+    }
+
+    private List<Slot> slotsFor(Long classId, Long sectionId, DayOfWeek day) {
+        Snapshot current = current();
+        if (classId != null && !classId.equals(current.classBySection().get(sectionId))) {
+            return List.of();
+        }
+        return current.slots().getOrDefault(sectionId, Map.of()).getOrDefault(day, List.of());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // Columns as documented on TimetableRepository.findAllSlots
+    private static TimetableSlot view(Object[] row) {
+        return new TimetableSlot((Long) row[7], (String) row[2], (String) row[3], (String) row[4], (String) row[5],
+                row[1] != null ? new TimetableSlot.ClassRef((Long) row[1], (String) row[8]) : null,
+                row[0] != null ? new TimetableSlot.SectionRef((Long) row[0], (String) row[9]) : null,
+                row[10] != null ? new TimetableSlot.SubjectRef((Long) row[10], (String) row[11]) : null,
+                row[6] != null ? new TimetableSlot.TeacherRef((Long) row[6], (String) row[12], (String) row[13]) : null,
+                (Long) row[14]);
+    }
+
+    private static DayOfWeek parseDay(String day) {
+        try {
+            return day == null ? null : DayOfWeek.valueOf(day.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static LocalTime parseTime(String time) {
+        try {
+            return time == null || time.isBlank() ? null : LocalTime.parse(time.trim(), TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private record Slot(String period, LocalTime start, LocalTime end, Long teacherId) {
+    }
+
+    private record Snapshot(long version, Map<Long, Long> classBySection, Map<Long, Map<DayOfWeek, List<Slot>>> slots,
+                            Map<Long, List<TimetableSlot>> bySection, Map<Long, List<TimetableSlot>> byTeacher,
+                            TeacherSchedules schedules) {
+    }
+}
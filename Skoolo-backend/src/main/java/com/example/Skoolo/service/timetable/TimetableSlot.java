@@ -0,0 +1,26 @@
+package com.example.Skoolo.service.timetable;
+
+/**
+ * One period of the school timetable as served to the UI. Serialises with the same nested
+ * {@code classEntity / section / subject / teacher} shape the section grid has always read,
+ * but only carries the fields it uses. Immutable, so snapshots can share instances across readers.
+ */
+public record TimetableSlot(Long id, String dayOfWeek, String period, String startTime, String endTime,
+                            ClassRef classEntity, SectionRef section, SubjectRef subject, TeacherRef teacher,
+                            long version) {
+
+    public record ClassRef(Long id, String className) {
+    }
+
+    public record SectionRef(Long id, String sectionName) {
+    }
+
+    public record SubjectRef(Long id, String subjectName) {
+    }
+
+    public record TeacherRef(Long id, String firstName, String lastName) {
+        public String getFullName() {
+            return (firstName != null ? firstName : "") + (lastName != null ? " " + lastName : "");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.Skoolo.model;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Saves a thousand students and users through a real Hibernate session with the import settings,
+ * over a stub JDBC connection that records what reaches the driver: the inserts must go out as
+ * full JDBC batches, not one statement per row as they did with IDENTITY ids.
+ */
+class BatchedInsertTest {
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final AtomicInteger singleInserts = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong(1);
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(call -> statement(call.getArgument(0)));
+        when(connection.prepareStatement(anyString(), anyInt())).thenAnswer(call -> statement(call.getArgument(0)));
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.connection.datasource", dataSource)
+                .applySetting("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect")
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .applySetting("hibernate.hbm2ddl.auto", "none")
+                .applySetting("hibernate.jdbc.batch_size", "500")
+                .applySetting("hibernate.order_inserts", "true")
+                .applySetting("hibernate.generate_statistics", "true")
+                .build();
+        MetadataSources sources = new MetadataSources(registry);
+        for (Class<?> entity : entities()) sources.addAnnotatedClass(entity);
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sessionFactory != null) sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Test
+    void importSizedSavesGoOutAsJdbcBatches() {
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < 1_000; i++) {
+                User user = new User();
+                user.setEmail("student" + i + "@example.com");
+                session.persist(user);
+                Student student = new Student();
+                student.setFirstName("Student" + i);
+                student.setUser(user);
+                session.persist(student);
+            }
+        });
+
+        Statistics stats = sessionFactory.getStatistics();
+        assertEquals(2_000, stats.getEntityInsertCount());
+        assertEquals(0, singleInserts.get());
+        assertEquals(List.of(500, 500, 500, 500), batchSizes);
+        // Two batched inserts plus one sequence call per 500 ids (and the pooled optimizer's first one)
+        assertTrue(stats.getPrepareStatementCount() <= 8, "statements prepared: " + stats.getPrepareStatementCount());
+    }
+
+    private PreparedStatement statement(String sql) throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        AtomicInteger pending = new AtomicInteger();
+        doAnswer(call -> pending.incrementAndGet()).when(ps).addBatch();
+        when(ps.executeBatch()).thenAnswer(call -> {
+            batchSizes.add(pending.get());
+            int[] counts = new int[pending.getAndSet(0)];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        when(ps.executeUpdate()).thenAnswer(call -> {
+            if (sql.startsWith("insert")) singleInserts.incrementAndGet();
+            return 1;
+        });
+        when(ps.executeQuery()).thenAnswer(call -> nextval());
+        return ps;
+    }
+
+    // A one-row result holding the next sequence value, stepping by the allocation size like the real sequence
+    private ResultSet nextval() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        long value = sequence.getAndAdd(500);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getLong(1)).thenReturn(value);
+        when(rs.getObject(1)).thenReturn(value);
+        return rs;
+    }
+
+    // Every entity in this package, so the associations resolve as they do in the application
+    private static List<Class<?>> entities() throws Exception {
+        Path dir = Path.of(Student.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .resolve(Student.class.getPackageName().replace('.', '/'));
+        List<Class<?>> entities = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".class") && !f.toString().contains("$")).toList()) {
+                String name = file.getFileName().toString().replace(".class", "");
+                Class<?> type = Class.forName(Student.class.getPackageName() + "." + name);
+                if (type.isAnnotationPresent(jakarta.persistence.Entity.class)) entities.add(type);
+            }
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.Skoolo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AbsenceAlertServiceTest {
+
+    private static final int WINDOW_DAYS = 30;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AbsenceAlertService service = spy(new AbsenceAlertService(mock(PlatformTransactionManager.class)));
+    private final List<AbsenceAlertService.Match> recorded = new ArrayList<>();
+    private LocalDate today;
+
+    // Student 1 has been absent every school day since long before the window; student 2 only since this Monday
+    private static final LocalDate LONG_STREAK_START = LocalDate.of(2026, 1, 5);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "consecutiveDays", 3);
+        ReflectionTestUtils.setField(service, "minPercentage", 0.0);
+        ReflectionTestUtils.setField(service, "windowDays", WINDOW_DAYS);
+        ReflectionTestUtils.setField(service, "minMarkedDays", 1);
+
+        doAnswer(call -> {
+            RowCallbackHandler handler = call.getArgument(1);
+            for (Object[] row : windowRows()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn((Long) row[0]);
+                when(rs.getDate(2)).thenReturn(java.sql.Date.valueOf((LocalDate) row[1]));
+                when(rs.getString(3)).thenReturn((String) row[2]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        doReturn(Map.of(1L, LONG_STREAK_START)).when(service).streakStarts(anyMap());
+        doAnswer(call -> {
+            recorded.addAll(call.getArgument(0));
+            return List.of();
+        }).when(service).record(anyList());
+    }
+
+    @Test
+    void streakLongerThanTheWindowKeepsOneKey() {
+        today = LocalDate.of(2026, 3, 19); // Thursday
+        service.detect(today);
+        today = today.plusDays(1);
+        service.detect(today);
+
+        assertEquals(List.of(LONG_STREAK_START.toString(), LONG_STREAK_START.toString()), keys(1L));
+
+        // a streak that began inside the window needs no look-back and keeps its own start
+        assertEquals(List.of("2026-03-16", "2026-03-16"), keys(2L));
+        verify(service, times(2)).streakStarts(argThat(cutoffs -> cutoffs.keySet().equals(Set.of(1L))));
+    }
+
+    private List<String> keys(long studentId) {
+        return recorded.stream()
+                .filter(m -> m.studentId() == studentId && m.rule().equals(AbsenceAlertService.CONSECUTIVE_ABSENCES))
+                .map(AbsenceAlertService.Match::periodKey)
+                .toList();
+    }
+
+    // What the scan query returns for the window ending today: school days only, ordered by student and date
+    private List<Object[]> windowRows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long student = 1; student <= 2; student++) {
+            for (LocalDate day = today.minusDays(WINDOW_DAYS - 1); !day.isAfter(today); day = day.plusDays(1)) {
+                if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) continue;
+                boolean absent = student == 1 || !day.isBefore(LocalDate.of(2026, 3, 16));
+                rows.add(new Object[]{student, day, absent ? "absent" : "present"});
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.dto.AttendanceBulkResultDTO;
+import com.example.Skoolo.dto.AttendanceRequestDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Simulates the 8:45am rush: 200 teachers submitting a roll call at the same moment.
+ * Needs a real Postgres (JDBC_DATABASE_URL) with at least one teacher and some students;
+ * it writes to dates far in the future and removes them afterwards.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "JDBC_DATABASE_URL", matches = ".+")
+class AttendanceBulkLoadTest {
+
+    private static final int ROLL_CALLS = 200;
+    private static final int CLASS_SIZE = 45;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2999, 1, 1);
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM attendance WHERE date >= ?", FIRST_DAY);
+        jdbcTemplate.update("DELETE FROM attendance_student_month WHERE month_start >= ?", FIRST_DAY);
+        jdbcTemplate.update("DELETE FROM attendance_section_day WHERE day >= ?", FIRST_DAY);
+    }
+
+    @Test
+    void concurrentRollCallsInsertOncePerStudentAndDay() throws Exception {
+        List<Long> studentIds = jdbcTemplate.queryForList("SELECT id FROM students ORDER BY id LIMIT " + CLASS_SIZE, Long.class);
+        List<Long> teacherIds = jdbcTemplate.queryForList("SELECT id FROM teachers LIMIT 1", Long.class);
+        assumeTrue(!studentIds.isEmpty() && !teacherIds.isEmpty(), "needs seeded students and a teacher");
+        Long teacherId = teacherIds.get(0);
+
+        List<AttendanceBulkResultDTO> firstRound = rollCalls(studentIds, teacherId);
+
+        assertEquals(ROLL_CALLS * studentIds.size(), firstRound.stream().mapToInt(AttendanceBulkResultDTO::getInserted).sum());
+        Integer stored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance WHERE date >= ?", Integer.class, FIRST_DAY);
+        assertEquals(ROLL_CALLS * studentIds.size(), stored);
+        Integer rolledUp = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(present_count), 0) FROM attendance_student_month WHERE month_start >= ?", Integer.class, FIRST_DAY);
+        assertEquals(ROLL_CALLS * studentIds.size(), rolledUp);
+
+        // Teachers pressing "submit" twice must not create duplicates
+        List<AttendanceBulkResultDTO> secondRound = rollCalls(studentIds, teacherId);
+        assertEquals(0, secondRound.stream().mapToInt(AttendanceBulkResultDTO::getInserted).sum());
+        assertEquals(ROLL_CALLS * studentIds.size(), secondRound.stream().mapToInt(AttendanceBulkResultDTO::getSkipped).sum());
+    }
+
+    private List<AttendanceBulkResultDTO> rollCalls(List<Long> studentIds, Long teacherId) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(ROLL_CALLS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<AttendanceBulkResultDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < ROLL_CALLS; i++) {
+                List<AttendanceRequestDto> payload = rollCall(studentIds, FIRST_DAY.plusDays(i));
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return attendanceService.markAttendanceBulk(payload, teacherId);
+                }));
+            }
+            start.countDown();
+
+            List<AttendanceBulkResultDTO> results = new ArrayList<>();
+            for (Future<AttendanceBulkResultDTO> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<AttendanceRequestDto> rollCall(List<Long> studentIds, LocalDate date) {
+        List<AttendanceRequestDto> payload = new ArrayList<>(studentIds.size());
+        for (Long studentId : studentIds) {
+            AttendanceRequestDto dto = new AttendanceRequestDto();
+            dto.setStudentId(studentId);
+            dto.setDate(date);
+            dto.setStatus("present");
+            payload.add(dto);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.Skoolo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AttendanceServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AttendanceService service = new AttendanceService();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionTemplate", new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void duplicateDaysAreRemovedBeforeTheConstraintIsAdded() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("uk_attendance_student_date"))).thenReturn(false);
+        when(jdbcTemplate.update(startsWith("DELETE FROM attendance a USING"))).thenReturn(3);
+
+        service.enforceOneRowPerDay();
+
+        InOrder order = inOrder(transactionManager, jdbcTemplate);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(jdbcTemplate).execute("LOCK TABLE attendance IN SHARE ROW EXCLUSIVE MODE");
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM attendance a USING"));
+        order.verify(jdbcTemplate).execute(
+                "ALTER TABLE attendance ADD CONSTRAINT uk_attendance_student_date UNIQUE (student_id, date)");
+        // The rollups counted the removed rows, so they are rebuilt in the same transaction
+        order.verify(jdbcTemplate).update("DELETE FROM attendance_student_month");
+        order.verify(transactionManager, atLeastOnce()).commit(any()); // the rebuild joins the outer transaction
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    @Test
+    void startupFailsWhenTheConstraintCannotBeAdded() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("uk_attendance_student_date"))).thenReturn(false);
+        doThrow(new IllegalStateException("permission denied")).when(jdbcTemplate).execute(startsWith("ALTER TABLE"));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, service::enforceOneRowPerDay);
+        assertTrue(error.getMessage().contains("uk_attendance_student_date"));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void existingConstraintIsLeftAlone() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("uk_attendance_student_date"))).thenReturn(true);
+
+        service.enforceOneRowPerDay();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(transactionManager);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.dto.ImportResultDTO;
+import com.example.Skoolo.model.Parent;
+import com.example.Skoolo.model.User;
+import com.example.Skoolo.repo.*;
+import com.example.Skoolo.service.importer.ImportPipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ParentServiceTest {
+
+    private static final String CSV = """
+            firstName,lastName,email,contact,address
+            Asha,Rao,asha@example.com,555-0101,Main St
+            Ravi,Nair,ravi@example.com,555-0102,Hill Rd
+            Meena,Iyer,meena@example.com,555-0103,Lake View
+            """;
+
+    private final ParentRepository parentRepository = mock(ParentRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordResetTokenRepository tokenRepository = mock(PasswordResetTokenRepository.class);
+    private final ImportPipeline importPipeline = new ImportPipeline(2);
+    private ParentService service;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        service = new ParentService(parentRepository, userRepository, mock(StudentRepository.class), tokenRepository,
+                importPipeline, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(service, "emailService", mock(EmailService.class));
+        when(tokenRepository.saveAll(anyList())).thenAnswer(call -> call.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        importPipeline.shutdown();
+    }
+
+    @Test
+    void reUploadedParentsCountAsSkipped() throws Exception {
+        // Ravi already has an account and a parent record from an earlier upload
+        User ravi = new User();
+        ravi.setEmail("ravi@example.com");
+        Parent existing = new Parent();
+        existing.setUser(ravi);
+        when(userRepository.findByEmailIn(anyList())).thenReturn(List.of(ravi));
+        when(parentRepository.findByUserEmailIn(anyList())).thenReturn(List.of(existing));
+
+        ImportResultDTO dryRun = service.processParentCsv(csv(), true);
+        ImportResultDTO result = service.processParentCsv(csv(), false);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getSkipped());
+        assertEquals(result.getImported(), dryRun.getImported());
+        assertEquals(result.getSkipped(), dryRun.getSkipped());
+        verify(parentRepository).saveAll(argThat(parents -> ((List<Parent>) parents).size() == 2));
+    }
+
+    private static MockMultipartFile csv() {
+        return new MockMultipartFile("file", "parents.csv", "text/csv", CSV.getBytes(StandardCharsets.UTF_8));
+    }
+}
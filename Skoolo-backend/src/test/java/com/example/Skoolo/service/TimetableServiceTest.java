@@ -0,0 +1,137 @@
+package com.example.Skoolo.service;
+
+import com.example.Skoolo.dto.ImportResultDTO;
+import com.example.Skoolo.model.ClassEntity;
+import com.example.Skoolo.model.Section;
+import com.example.Skoolo.model.Subject;
+import com.example.Skoolo.repo.SectionRepository;
+import com.example.Skoolo.repo.SubjectRepository;
+import com.example.Skoolo.repo.TeacherSubjectAssignmentRepository;
+import com.example.Skoolo.service.timetable.TeacherSchedules;
+import com.example.Skoolo.service.timetable.TimetableIndex;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TimetableServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final TimetableService service = new TimetableService(1);
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionTemplate", new TransactionTemplate(transactionManager));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void onlyTheFirstSheetForASectionIsImported() throws Exception {
+        ClassEntity classEntity = new ClassEntity();
+        classEntity.setClassName("Class 1");
+        Section section = new Section();
+        section.setId(7L);
+        section.setSectionName("A");
+        section.setClassEntity(classEntity);
+        Subject maths = new Subject();
+        maths.setId(3L);
+        maths.setSubjectName("Maths");
+        TimetableIndex timetableIndex = mock(TimetableIndex.class);
+        when(timetableIndex.schedules()).thenReturn(TeacherSchedules.of(List.of()));
+        ReflectionTestUtils.setField(service, "sectionRepository", repository(SectionRepository.class, r -> when(r.findAllWithClass()).thenReturn(List.of(section))));
+        ReflectionTestUtils.setField(service, "subjectRepository", repository(SubjectRepository.class, r -> when(r.findAll()).thenReturn(List.of(maths))));
+        ReflectionTestUtils.setField(service, "teacherSubjectAssignmentRepository", mock(TeacherSubjectAssignmentRepository.class));
+        ReflectionTestUtils.setField(service, "timetableIndex", timetableIndex);
+
+        Map<String, ImportResultDTO> results = service.processTimetableFile(workbook("Class 1-A", "Class 1 - A"), true);
+
+        assertEquals(1, results.get("Class 1-A").getImported());
+        assertTrue(results.get("Class 1-A").getErrors().isEmpty());
+        ImportResultDTO duplicate = results.get("Class 1 - A");
+        assertEquals(0, duplicate.getImported());
+        assertEquals("Sheet 'Class 1 - A' duplicates the section of sheet 'Class 1-A'", duplicate.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void duplicateSlotsAreRemovedBeforeTheConstraintIsAdded() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("uk_timetable_section_slot"))).thenReturn(false);
+
+        service.enforceOneRowPerSlot();
+
+        InOrder order = inOrder(transactionManager, jdbcTemplate);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(jdbcTemplate).execute("LOCK TABLE timetables IN SHARE ROW EXCLUSIVE MODE");
+        order.verify(jdbcTemplate).query(startsWith("DELETE FROM timetables a USING"), any(RowCallbackHandler.class));
+        order.verify(jdbcTemplate).execute(
+                "ALTER TABLE timetables ADD CONSTRAINT uk_timetable_section_slot UNIQUE (section_id, day_of_week, period)");
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void startupFailsWhenTheConstraintCannotBeAdded() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("uk_timetable_section_slot"))).thenReturn(false);
+        doThrow(new IllegalStateException("permission denied")).when(jdbcTemplate).execute(startsWith("ALTER TABLE"));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, service::enforceOneRowPerSlot);
+        assertTrue(error.getMessage().contains("uk_timetable_section_slot"));
+        verify(transactionManager).rollback(any());
+    }
+
+    private static <R> R repository(Class<R> type, Consumer<R> stubbing) {
+        R repository = mock(type);
+        stubbing.accept(repository);
+        return repository;
+    }
+
+    // One Monday period per sheet, below the header row
+    private static MockMultipartFile workbook(String... sheetNames) throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (String name : sheetNames) {
+                Sheet sheet = workbook.createSheet(name);
+                String[][] rows = {{"Day", "Period", "Start", "End", "Subject"}, {"MONDAY", "1", "9:00", "9:45", "Maths"}};
+                for (int r = 0; r < rows.length; r++) {
+                    Row row = sheet.createRow(r);
+                    for (int c = 0; c < rows[r].length; c++) row.createCell(c).setCellValue(rows[r][c]);
+                }
+            }
+            workbook.write(out);
+            return new MockMultipartFile("file", "timetable.xlsx", null, out.toByteArray());
+        }
+    }
+
+    @Test
+    void existingConstraintIsLeftAlone() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("uk_timetable_section_slot"))).thenReturn(true);
+
+        service.enforceOneRowPerSlot();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(transactionManager);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.Skoolo.service.attendance;
+
+import com.example.Skoolo.model.Attendance;
+import com.example.Skoolo.model.Student;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.Skoolo.service.attendance.AttendanceBitmap.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttendanceBitmapTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceBitmapTest.class);
+
+    private static final YearMonth JUNE = YearMonth.of(2025, 6);
+    private static final YearMonth MARCH = YearMonth.of(2026, 3);
+    private static final String[] STATUSES = {"present", "late", "absent", "leave"};
+
+    @Test
+    void decodesStatusesStreaksAndWeekdays() {
+        AttendanceBitmap bitmap = new AttendanceBitmap(JUNE, MARCH);
+        // Fri 27 June, Mon 30 June, Tue 1 July: the weekend and the month boundary must not break the run
+        bitmap.set(LocalDate.of(2025, 6, 27), ABSENT);
+        bitmap.set(LocalDate.of(2025, 6, 30), ABSENT);
+        bitmap.set(LocalDate.of(2025, 7, 1), ABSENT);
+        bitmap.set(LocalDate.of(2025, 7, 2), LATE);
+        bitmap.set(LocalDate.of(2025, 7, 3), PRESENT);
+        bitmap.set(LocalDate.of(2025, 7, 31), LEAVE);
+        bitmap.set(LocalDate.of(2025, 8, 1), PRESENT);
+
+        assertEquals("absent", bitmap.statusOn(LocalDate.of(2025, 6, 30)));
+        assertEquals("leave", bitmap.statusOn(LocalDate.of(2025, 7, 31)));
+        assertNull(bitmap.statusOn(LocalDate.of(2025, 6, 28)));
+        assertEquals(3, bitmap.longestStreak(ABSENT));
+        assertEquals(1, bitmap.currentStreak(PRESENT, LATE));
+        assertEquals(LocalDate.of(2025, 7, 1), bitmap.lastDayWith(ABSENT));
+        assertEquals(1, bitmap.countOn(DayOfWeek.MONDAY, ABSENT));
+        assertEquals(1, bitmap.countByWeekday(ABSENT).get(DayOfWeek.FRIDAY));
+        assertEquals("ATP", bitmap.monthView(YearMonth.of(2025, 7)).substring(0, 3));
+        assertEquals('L', bitmap.monthView(YearMonth.of(2025, 7)).charAt(30));
+
+        AttendanceBitmap july = bitmap.within(LocalDate.of(2025, 6, 30), LocalDate.of(2025, 7, 31));
+        assertEquals(2, july.count(ABSENT));
+        assertEquals(1, july.count(LEAVE));
+        assertEquals(2, july.count(PRESENT, LATE));
+    }
+
+    @Test
+    void answersTheSameQuestionsAsTheRowModel() {
+        List<Attendance> rows = schoolYear(40, new Random(7));
+        AttendanceBitmap[] bitmaps = load(rows, 40);
+
+        int mondays = 0;
+        int[] absences = new int[40];
+        int[] longestAbsentRun = new int[40];
+        int run = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Attendance attendance = rows.get(i);
+            int student = (int) (attendance.getStudent().getId() - 1);
+            if (i > 0 && !rows.get(i - 1).getStudent().getId().equals(attendance.getStudent().getId())) run = 0;
+            boolean absent = "absent".equals(attendance.getStatus());
+            if (absent && attendance.getDate().getDayOfWeek() == DayOfWeek.MONDAY) mondays++;
+            if (absent) absences[student]++;
+            run = absent ? run + 1 : 0;
+            longestAbsentRun[student] = Math.max(longestAbsentRun[student], run);
+        }
+
+        int bitmapMondays = 0;
+        for (int student = 0; student < 40; student++) {
+            bitmapMondays += bitmaps[student].countOn(DayOfWeek.MONDAY, ABSENT);
+            assertEquals(absences[student], bitmaps[student].count(ABSENT), "absences of student " + (student + 1));
+            assertEquals(longestAbsentRun[student], bitmaps[student].longestStreak(ABSENT), "streak of student " + (student + 1));
+        }
+        assertEquals(mondays, bitmapMondays);
+    }
+
+    /**
+     * Not a rigorous JMH run, but enough to compare the two models on one school year:
+     * 3,000 students x 10 months of weekday attendance. Excluded from the unit suite; run with -Pbenchmark.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkAgainstRowModel() {
+        int students = 3_000;
+        Random random = new Random(42);
+
+        long before = usedHeap();
+        List<Attendance> rows = schoolYear(students, random);
+        long rowBytes = usedHeap() - before;
+
+        before = usedHeap();
+        AttendanceBitmap[] bitmaps = load(rows, students);
+        long bitmapBytes = usedHeap() - before;
+
+        // "How many absences fell on a Monday", for the whole school
+        long started = System.nanoTime();
+        int rowMondays = 0;
+        for (Attendance attendance : rows) {
+            if ("absent".equals(attendance.getStatus()) && attendance.getDate().getDayOfWeek() == DayOfWeek.MONDAY) rowMondays++;
+        }
+        long rowNanos = System.nanoTime() - started;
+
+        started = System.nanoTime();
+        int bitmapMondays = 0;
+        for (AttendanceBitmap bitmap : bitmaps) bitmapMondays += bitmap.countOn(DayOfWeek.MONDAY, ABSENT);
+        long bitmapNanos = System.nanoTime() - started;
+
+        log.info("{} rows: ~{} KB heap, Monday absences in {} us", rows.size(), rowBytes / 1024, rowNanos / 1000);
+        log.info("{} bitmaps: ~{} KB heap, Monday absences in {} us", students, bitmapBytes / 1024, bitmapNanos / 1000);
+        assertEquals(rowMondays, bitmapMondays);
+    }
+
+    // Weekday attendance from June to March, ordered by student then date; about 80% present
+    private static List<Attendance> schoolYear(int students, Random random) {
+        List<Attendance> rows = new ArrayList<>();
+        for (long id = 1; id <= students; id++) {
+            Student student = new Student();
+            student.setId(id);
+            for (LocalDate day = JUNE.atDay(1); !day.isAfter(MARCH.atEndOfMonth()); day = day.plusDays(1)) {
+                if (day.getDayOfWeek().getValue() > 5) continue;
+                Attendance attendance = new Attendance();
+                attendance.setId((long) rows.size());
+                attendance.setStudent(student);
+                attendance.setDate(day);
+                attendance.setStatus(STATUSES[random.nextInt(10) < 8 ? 0 : random.nextInt(4)]);
+                rows.add(attendance);
+            }
+        }
+        return rows;
+    }
+
+    private static AttendanceBitmap[] load(List<Attendance> rows, int students) {
+        AttendanceBitmap[] bitmaps = new AttendanceBitmap[students];
+        for (int i = 0; i < students; i++) bitmaps[i] = new AttendanceBitmap(JUNE, MARCH);
+        for (Attendance attendance : rows) {
+            bitmaps[(int) (attendance.getStudent().getId() - 1)].set(attendance.getDate(), code(attendance.getStatus()));
+        }
+        return bitmaps;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
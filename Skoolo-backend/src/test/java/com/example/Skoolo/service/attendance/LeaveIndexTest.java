@@ -0,0 +1,41 @@
+package com.example.Skoolo.service.attendance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveIndexTest {
+
+    @Test
+    void mergesRangesAndAnswersOverlaps() {
+        List<long[]> ranges = new ArrayList<>();
+        ranges.add(range("2025-07-10", "2025-07-12"));
+        ranges.add(range("2025-07-01", "2025-07-03"));
+        ranges.add(range("2025-07-04", "2025-07-05")); // adjacent to the first, merged
+        ranges.add(range("2025-07-11", "2025-07-20")); // overlapping, merged
+
+        LeaveIndex.Intervals intervals = LeaveIndex.Intervals.of(ranges);
+        assertEquals(2, intervals.starts().length);
+        assertEquals(day("2025-07-05"), intervals.ends()[0]);
+        assertEquals(day("2025-07-20"), intervals.ends()[1]);
+
+        assertTrue(intervals.overlaps(day("2025-07-01"), day("2025-07-01")));
+        assertTrue(intervals.overlaps(day("2025-07-15"), day("2025-07-15")));
+        assertFalse(intervals.overlaps(day("2025-07-06"), day("2025-07-09")));
+        assertTrue(intervals.overlaps(day("2025-07-06"), day("2025-07-10")));
+        assertFalse(intervals.overlaps(day("2025-06-01"), day("2025-06-30")));
+        assertFalse(intervals.overlaps(day("2025-07-21"), day("2025-08-01")));
+    }
+
+    private static long[] range(String start, String end) {
+        return new long[]{day(start), day(end)};
+    }
+
+    private static long day(String date) {
+        return LocalDate.parse(date).toEpochDay();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.Skoolo.service.grading;
+
+import com.example.Skoolo.dto.GradebookDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradebookTest {
+
+    @Test
+    void pivotsRanksAndSummarises() {
+        Gradebook gradebook = new Gradebook();
+        gradebook.add(1, "Asha", 10, "Maths", 90, 100);
+        gradebook.add(1, "Asha", 11, "Science", 40, 50);
+        gradebook.add(2, "Ben", 10, "Maths", 70, 100);
+        gradebook.add(2, "Ben", 11, "Science", 40, 50);
+        gradebook.add(3, "Chen", 11, "Science", 30, 50); // subjects in any order
+        gradebook.add(3, "Chen", 10, "Maths", 60, 100);
+        gradebook.add(3, "Chen", 10, "Maths", 99, 100); // duplicate cell, first one wins
+        gradebook.add(4, "Dev", 10, "Maths", 73, 100);
+        gradebook.add(4, "Dev", 11, "Science", 38, 50);
+
+        GradebookDTO dto = gradebook.build(GradingTable.DEFAULT);
+
+        assertArrayEquals(new long[]{1, 2, 3, 4}, dto.getStudents().getIds());
+        assertArrayEquals(new long[]{10, 11}, dto.getSubjects().getIds());
+        assertEquals(60, dto.getMarks()[2][0]);
+        assertArrayEquals(new int[]{130, 110, 90, 111}, dto.getStudents().getTotal());
+        assertArrayEquals(new double[]{86.7, 73.3, 60.0, 74.0}, dto.getStudents().getPercentage());
+        assertArrayEquals(new int[]{1, 3, 4, 2}, dto.getStudents().getRank());
+        assertArrayEquals(new double[]{87.5, 37.5, 12.5, 62.5}, dto.getStudents().getPercentile());
+        assertEquals("A", dto.getStudents().getGrade()[0]);
+
+        assertArrayEquals(new int[]{4, 4}, dto.getSubjects().getEntered());
+        assertEquals(73.3, dto.getSubjects().getAverage()[0]);
+        assertEquals(90.0, dto.getSubjects().getHighest()[0]);
+        assertEquals(60.0, dto.getSubjects().getLowest()[0]);
+        assertEquals(71.5, dto.getSubjects().getMedian()[0]);
+        assertArrayEquals(new int[]{100, 50}, dto.getMaxMarks());
+    }
+
+    @Test
+    void tiesShareARank() {
+        Gradebook gradebook = new Gradebook();
+        gradebook.add(1, "A", 10, "Maths", 80, 100);
+        gradebook.add(2, "B", 10, "Maths", 80, 100);
+        gradebook.add(3, "C", 10, "Maths", 50, 100);
+
+        GradebookDTO dto = gradebook.build(GradingTable.DEFAULT);
+        assertArrayEquals(new int[]{1, 1, 3}, dto.getStudents().getRank());
+        assertArrayEquals(new double[]{66.7, 66.7, 16.7}, dto.getStudents().getPercentile());
+    }
+}
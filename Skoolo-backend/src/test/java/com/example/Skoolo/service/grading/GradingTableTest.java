@@ -0,0 +1,41 @@
+package com.example.Skoolo.service.grading;
+
+import com.example.Skoolo.model.GradeBand;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradingTableTest {
+
+    @Test
+    void defaultMatchesTheOldHardcodedBands() {
+        assertEquals("A+", GradingTable.DEFAULT.grade(90, 100));
+        assertEquals("A", GradingTable.DEFAULT.grade(89, 100));
+        assertEquals("A", GradingTable.DEFAULT.grade(75, 100));
+        assertEquals("B", GradingTable.DEFAULT.grade(60, 100));
+        assertEquals("C", GradingTable.DEFAULT.grade(45, 100));
+        assertEquals("D", GradingTable.DEFAULT.grade(35, 100));
+        assertEquals("F", GradingTable.DEFAULT.grade(34, 100));
+        assertEquals("F", GradingTable.DEFAULT.grade(0, 100));
+        assertEquals("A", GradingTable.DEFAULT.grade(40, 50)); // 80%
+    }
+
+    @Test
+    void bandsMayArriveInAnyOrder() {
+        GradingTable table = GradingTable.of(List.of(
+                new GradeBand(50, "Pass"), new GradeBand(0, "Fail"), new GradeBand(85, "Distinction")));
+        assertEquals("Fail", table.grade(49.99));
+        assertEquals("Pass", table.grade(50));
+        assertEquals("Distinction", table.grade(100));
+    }
+
+    @Test
+    void rejectsSchemesThatLeaveGaps() {
+        assertThrows(IllegalArgumentException.class, () -> GradingTable.of(List.of(new GradeBand(10, "F"))));
+        assertThrows(IllegalArgumentException.class, () -> GradingTable.of(List.of(
+                new GradeBand(0, "F"), new GradeBand(0, "E"))));
+        assertThrows(IllegalArgumentException.class, () -> GradingTable.of(List.of()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.Skoolo.service.importer;
+
+import com.example.Skoolo.dto.ImportResultDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImportPipelineTest {
+
+    private final ImportPipeline pipeline = new ImportPipeline(4);
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void testRun_ShouldValidateAndPersistEveryRowInBatches() throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            rows.add(new String[]{String.valueOf(i)});
+        }
+        rows.set(42, new String[]{"not-a-number"});
+
+        List<Integer> saved = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        ImportResultDTO result = pipeline.run(new ListRowReader(rows),
+                row -> Integer.parseInt(row[0]),
+                batch -> {
+                    batchSizes.add(batch.size());
+                    saved.addAll(batch);
+                    return batch.size();
+                },
+                1_000);
+
+        assertEquals(10_000, result.getTotalRows());
+        assertEquals(9_999, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(44, result.getErrors().get(0).getRow()); // header is row 1
+        assertEquals(9_999, saved.size());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 1_000));
+    }
+
+    @Test
+    void testRun_FailingBatchShouldBeReportedNotAbortTheImport() throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(new String[]{String.valueOf(i)});
+        }
+
+        ImportResultDTO result = pipeline.run(new ListRowReader(rows),
+                row -> row[0],
+                batch -> {
+                    if (batch.contains("3")) throw new IllegalStateException("constraint violated");
+                    return batch.size() - 1; // pretend one row per batch already existed
+                },
+                5);
+
+        assertEquals(20, result.getTotalRows());
+        assertEquals(5, result.getFailed());
+        assertEquals(12, result.getImported());
+        assertEquals(3, result.getSkipped());
+    }
+
+    @Test
+    void testRun_InterruptedValidatorShouldNotStallPersist() {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(new String[]{String.valueOf(i)});
+        }
+
+        ImportResultDTO result = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> pipeline.run(new ListRowReader(rows),
+                row -> {
+                    if (row[0].equals("7")) throw new InterruptedException(); // this validator thread stops here
+                    return row[0];
+                },
+                List::size,
+                10));
+
+        assertEquals(100, result.getTotalRows());
+        assertEquals(99, result.getImported());
+        assertEquals(List.of(new ImportResultDTO.RowError(9, "Validation interrupted")), result.getErrors());
+    }
+
+    private static class ListRowReader implements RowReader {
+        private final List<String[]> rows;
+        private int index;
+
+        ListRowReader(List<String[]> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public String[] next() {
+            return index < rows.size() ? rows.get(index++) : null;
+        }
+
+        @Override
+        public int rowNumber() {
+            return index + 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.Skoolo.service.importer;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RowReaderTest {
+
+    @Test
+    void testStreamingXlsx_ShouldMatchCsvConventions() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Students");
+            sheet.createRow(0).createCell(0).setCellValue("firstName");
+
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("  John ");
+            Cell dob = row.createCell(2); // column 1 left empty on purpose
+            dob.setCellValue(LocalDate.of(2015, 6, 1));
+            dob.setCellStyle(dateStyle);
+            row.createCell(3).setCellValue(9876543210d);
+
+            sheet.createRow(3).createCell(0).setCellValue("Jane"); // row 3 (0-based) after a gap
+            workbook.write(out);
+        }
+
+        MockMultipartFile file = new MockMultipartFile("file", "students.xlsx", null, out.toByteArray());
+        try (RowReader reader = RowReader.open(file)) {
+            assertInstanceOf(StreamingXlsxRowReader.class, reader);
+
+            String[] first = reader.next();
+            assertArrayEquals(new String[]{"John", "", "2015-06-01", "9876543210"}, first);
+            assertEquals(2, reader.rowNumber());
+
+            assertEquals("Jane", reader.next()[0]);
+            assertEquals(4, reader.rowNumber());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testOpen_UnsupportedTypeShouldBeRejected() {
+        MockMultipartFile file = new MockMultipartFile("file", "students.pdf", null, new byte[0]);
+        RuntimeException e = assertThrows(RuntimeException.class, () -> RowReader.open(file));
+        assertTrue(e.getMessage().contains("Unsupported file type"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.Skoolo.service.marks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentMarksCacheTest {
+
+    @Test
+    void servesRepeatsFromMemoryUntilInvalidated() {
+        CountingCache cache = new CountingCache(2);
+
+        assertEquals(1, cache.get(List.of(1L, 2L)).get(1L).size());
+        assertEquals(List.of(), cache.get(List.of(2L)).get(2L)); // no marks is cached too
+        assertEquals(1, cache.loads);
+
+        cache.invalidate(List.of(1L));
+        cache.get(List.of(1L, 2L));
+        assertEquals(2, cache.loads);
+        assertEquals(List.of(1L), cache.lastMissing);
+
+        cache.get(List.of(2L));
+        cache.get(List.of(3L)); // evicts 1, the least recently used
+        assertEquals(3, cache.loads);
+        cache.get(List.of(2L));
+        assertEquals(3, cache.loads);
+        cache.get(List.of(1L));
+        assertEquals(4, cache.loads);
+    }
+
+    @Test
+    void loadOverlappingAnInvalidationIsNotCached() {
+        CountingCache cache = new CountingCache(10);
+        cache.duringLoad = () -> cache.invalidate(List.of(99L));
+
+        cache.get(List.of(1L));
+        cache.duringLoad = null;
+        cache.get(List.of(1L));
+        assertEquals(2, cache.loads);
+        cache.get(List.of(1L));
+        assertEquals(2, cache.loads);
+    }
+
+    private static class CountingCache extends StudentMarksCache {
+        int loads;
+        List<Long> lastMissing;
+        Runnable duringLoad;
+
+        CountingCache(int maxStudents) {
+            super(maxStudents);
+        }
+
+        @Override
+        Map<Long, List<MarkRow>> load(List<Long> studentIds) {
+            loads++;
+            lastMissing = studentIds;
+            if (duringLoad != null) duringLoad.run();
+            Map<Long, List<MarkRow>> rows = new HashMap<>();
+            if (studentIds.contains(1L)) {
+                rows.put(1L, List.of(new MarkRow(10, "Maths", "Midterm", 40, 50, "A", "2025-2026")));
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.Skoolo.service.reportcard;
+
+import com.example.Skoolo.service.reportcard.ReportCardRenderer.Card;
+import com.example.Skoolo.service.reportcard.ReportCardRenderer.MarkLine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportCardRendererTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportCardRendererTest.class);
+
+    @Test
+    void writesAWellFormedPdf() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportCardRenderer.render(card(1, 30), "Skoolo (Main) School", out); // long enough to need a second page
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+
+        assertTrue(pdf.startsWith("%PDF-1.4"));
+        assertTrue(pdf.endsWith("%%EOF\n"));
+        assertTrue(pdf.contains("/Count 2"));
+        assertTrue(pdf.contains("(Skoolo \\(Main\\) School)"));
+
+        // Every xref entry must point at the start of its object
+        int xref = Integer.parseInt(pdf.substring(pdf.lastIndexOf("startxref\n") + 10, pdf.lastIndexOf("\n%%EOF")));
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n").matcher(pdf.substring(xref));
+        int object = 1;
+        while (entries.find()) {
+            assertTrue(pdf.startsWith(object++ + " 0 obj", Integer.parseInt(entries.group(1))));
+        }
+        assertEquals(8, object - 1); // catalog, pages, two fonts, then page + content per page
+    }
+
+    @Test
+    void rendersTheSameBytesOnEveryThread() {
+        // The service renders on a pool, so concurrent renders must not share state
+        List<byte[]> sequential = IntStream.range(0, 50).mapToObj(ReportCardRendererTest::bytes).toList();
+        List<byte[]> parallel = IntStream.range(0, 50).parallel().mapToObj(ReportCardRendererTest::bytes).toList();
+        for (int i = 0; i < 50; i++) {
+            assertArrayEquals(sequential.get(i), parallel.get(i), "card " + i);
+        }
+    }
+
+    /** Throughput of a term's worth of cards. Excluded from the unit suite; run with -Pbenchmark. */
+    @Test
+    @Tag("benchmark")
+    void rendersAThousandCardsQuickly() {
+        long started = System.nanoTime();
+        long bytes = IntStream.range(0, 1_000).parallel().mapToLong(i -> bytes(i).length).sum();
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        log.info("1,000 report cards rendered in {} ms, {} KB", millis, bytes / 1024);
+        assertTrue(millis < 60_000);
+    }
+
+    private static byte[] bytes(int id) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        ReportCardRenderer.render(card(id, 8), "Skoolo", out);
+        return out.toByteArray();
+    }
+
+    private static Card card(long id, int subjects) {
+        List<MarkLine> marks = new ArrayList<>();
+        for (String exam : List.of("Midterm", "Final")) {
+            for (int s = 0; s < subjects; s++) {
+                marks.add(new MarkLine(exam, "Subject " + s, 40 + s % 60, 100, "B"));
+            }
+        }
+        return new Card(id, "Student " + id, "10", "A", "2025-2026", marks, 170, 12, 8, 3, "Promoted", "Well done");
+    }
+}
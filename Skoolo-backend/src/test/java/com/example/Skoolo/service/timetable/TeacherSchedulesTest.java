@@ -0,0 +1,67 @@
+package com.example.Skoolo.service.timetable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeacherSchedulesTest {
+
+    // Teacher 7 takes Maths in 1-A on Monday period 1 and Science in 1-B on Monday period 2
+    private final TeacherSchedules schedules = TeacherSchedules.of(List.of(
+            slot(10L, "A", "MONDAY", "1", 7L, "Maths"),
+            slot(11L, "B", "MONDAY", "2", 7L, "Science")));
+
+    @Test
+    void acceptsFreeSlotsAndMovesWithinTheReplacedSection() {
+        // 1-A's period 1 moves to period 3, and teacher 7 picks up 1-C period 1
+        assertEquals(List.of(), schedules.check(Map.of(
+                10L, List.of(cell(10L, "MONDAY", "3", 7L)),
+                12L, List.of(cell(12L, "monday", "1", 7L)))));
+    }
+
+    @Test
+    void reportsClashWithAnotherSection() {
+        List<TeacherSchedules.Conflict> conflicts = schedules.check(Map.of(12L, List.of(cell(12L, "MONDAY", "2", 7L))));
+
+        assertEquals(1, conflicts.size());
+        TeacherSchedules.Conflict conflict = conflicts.get(0);
+        assertEquals(11L, conflict.bookedIn().sectionId());
+        assertEquals("Ms Rao would teach Art in Class 1-C but is already teaching Science in Class 1-B on MONDAY period 2",
+                conflict.getMessage());
+    }
+
+    @Test
+    void reportsClashInsideTheProposal() {
+        List<TeacherSchedules.Conflict> conflicts = schedules.check(Map.of(
+                12L, List.of(cell(12L, "TUESDAY", "1", 8L)),
+                13L, List.of(cell(13L, "TUESDAY", "1", 8L))));
+
+        assertEquals(1, conflicts.size());
+        assertEquals("Teacher #8", conflicts.get(0).teacherName());
+        assertNotEquals(conflicts.get(0).cell().sectionId(), conflicts.get(0).bookedIn().sectionId());
+    }
+
+    @Test
+    void findsExistingDoubleBookings() {
+        TeacherSchedules booked = TeacherSchedules.of(List.of(
+                slot(10L, "A", "MONDAY", "1", 7L, "Maths"),
+                slot(11L, "B", "MONDAY", "1", 7L, "Science"),
+                slot(11L, "B", "MONDAY", "2", 7L, "Science")));
+
+        assertEquals(1, booked.doubleBookings().size());
+        assertEquals(List.of(), schedules.doubleBookings());
+    }
+
+    private static TimetableSlot slot(Long sectionId, String section, String day, String period, Long teacherId, String subject) {
+        return new TimetableSlot(null, day, period, null, null, new TimetableSlot.ClassRef(1L, "Class 1"),
+                new TimetableSlot.SectionRef(sectionId, section), new TimetableSlot.SubjectRef(1L, subject),
+                new TimetableSlot.TeacherRef(teacherId, "Ms", "Rao"), 0L);
+    }
+
+    private static TeacherSchedules.Cell cell(Long sectionId, String day, String period, Long teacherId) {
+        return new TeacherSchedules.Cell(sectionId, "Class 1-C", day, period, teacherId, "Art");
+    }
+}
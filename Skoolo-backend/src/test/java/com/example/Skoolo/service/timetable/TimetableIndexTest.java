@@ -0,0 +1,83 @@
+package com.example.Skoolo.service.timetable;
+
+import com.example.Skoolo.repo.TimetableRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TimetableIndexTest {
+
+    @Mock
+    private TimetableRepository timetableRepository;
+
+    @InjectMocks
+    private TimetableIndex timetableIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // section 10 belongs to class 1: Monday period 1 by teacher 7, period 2 by teacher 8
+        when(timetableRepository.findAllSlots()).thenReturn(List.of(
+                row(10L, 1L, "MONDAY", "1", "9:00", "09:45", 7L),
+                row(10L, 1L, "MONDAY", "2", "09:45", "10:30", 8L)));
+    }
+
+    @Test
+    void answersFromMemoryAfterOneLoad() {
+        assertEquals(Optional.of(7L), timetableIndex.teacherFor(1L, 10L, DayOfWeek.MONDAY, "1"));
+        assertEquals(Optional.of(8L), timetableIndex.teacherAt(1L, 10L, DayOfWeek.MONDAY, LocalTime.of(10, 0)));
+        assertEquals(Optional.empty(), timetableIndex.teacherAt(1L, 10L, DayOfWeek.MONDAY, LocalTime.of(11, 0)));
+        assertEquals(Optional.empty(), timetableIndex.teacherFor(2L, 10L, DayOfWeek.MONDAY, "1")); // wrong class
+        assertEquals(LocalTime.of(9, 0), timetableIndex.startOf(10L, DayOfWeek.MONDAY, "1"));
+
+        verify(timetableRepository, times(1)).findAllSlots();
+    }
+
+    @Test
+    void rebuildSwapsInTheNewGrid() {
+        timetableIndex.rebuild();
+        long before = timetableIndex.version();
+        when(timetableRepository.findAllSlots()).thenReturn(List.<Object[]>of(
+                row(10L, 1L, "MONDAY", "1", "09:00", "09:45", 9L)));
+        timetableIndex.rebuild();
+
+        assertEquals(before + 1, timetableIndex.version());
+        assertEquals(Optional.of(9L), timetableIndex.teacherFor(1L, 10L, DayOfWeek.MONDAY, "1"));
+        assertEquals(Optional.empty(), timetableIndex.teacherFor(1L, 10L, DayOfWeek.MONDAY, "2"));
+        assertEquals(1, timetableIndex.forTeacher(9L).size());
+        assertEquals(List.of(), timetableIndex.forTeacher(7L));
+    }
+
+    @Test
+    void servesSectionAndTeacherViewsInTheEntityShape() throws Exception {
+        List<TimetableSlot> section = timetableIndex.forSection(1L, 10L);
+        assertEquals(2, section.size());
+        assertEquals(List.of(), timetableIndex.forSection(2L, 10L)); // wrong class
+        assertEquals(List.of(), timetableIndex.forSection(1L, null));
+        assertEquals("2", timetableIndex.forTeacher(8L).get(0).period());
+
+        // The section grid reads subject.subjectName, teacher.id and teacher.fullName
+        JsonNode json = new ObjectMapper().valueToTree(section.get(0));
+        assertEquals("Maths", json.path("subject").path("subjectName").asText());
+        assertEquals(7L, json.path("teacher").path("id").asLong());
+        assertEquals("Teacher 7", json.path("teacher").path("fullName").asText());
+        assertEquals("Class 1", json.path("classEntity").path("className").asText());
+        verify(timetableRepository, times(1)).findAllSlots();
+    }
+
+    private static Object[] row(Long sectionId, Long classId, String day, String period, String start, String end,
+                                Long teacherId) {
+        return new Object[]{sectionId, classId, day, period, start, end, teacherId,
+                100L + Long.parseLong(period), "Class " + classId, "A", 3L, "Maths", "Teacher", String.valueOf(teacherId), 0L};
+    }
+}
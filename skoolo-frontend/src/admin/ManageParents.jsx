@@ -2,6 +2,7 @@ import React, { useEffect, useState } from 'react';
 import { Row, Col, Form, Button, Alert, Table } from 'react-bootstrap';
 import AdminSidebar from './AdminSidebar';
 import API from '../services/api';
+import { describeImport } from '../utils/importSummary';
 
 const ManageParents = () => {
   const [parent, setParent] = useState({ firstName: '', lastName: '', email: '', contactNumber: '', address: '' });
@@ -78,12 +79,13 @@ const extractClassesAndSections = (parentsData) => {
     API.post('/admin/upload-parents', formData, {
       headers: { 'Content-Type': 'multipart/form-data' }
     })
-      .then(() => {
-        setMessage('File uploaded successfully!');
+      .then((res) => {
+        // Rows can fail individually; show the counts and row errors rather than a blanket success
+        setMessage(describeImport(res.data));
         setUploadFile(null);
         fetchParents();
       })
-      .catch(() => setMessage('Failed to upload file.'));
+      .catch((err) => setMessage(err.response?.data || 'Failed to upload file.'));
   };
 
 // Filter parents based on search & filters
@@ -109,7 +111,7 @@ const filteredParents = parents.filter(p => {
       <Col md={10} className="text-white p-4 min-vh-100" style={{ backgroundColor: '#0d1117' }}>
         <h3 className="mb-4">Manage Parents</h3>
 
-        {message && <Alert variant="info">{message}</Alert>}
+        {message && <Alert variant="info" style={{ whiteSpace: 'pre-line' }}>{message}</Alert>}
 
         {/* Search & Filter */}
         <div className="mb-3 d-flex flex-wrap gap-2">
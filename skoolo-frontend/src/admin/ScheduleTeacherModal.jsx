@@ -200,7 +200,12 @@ const ScheduleTeacherModal = ({
         onSuccess();
         setTimeout(() => handleClose(), 1500); // Close after a short delay to show success
       })
-      .catch(() => {
+      .catch((error) => {
+        if (error.response?.status === 409) {
+          // Teacher is already booked elsewhere in one of these periods
+          setStatus(error.response.data.message);
+          return;
+        }
         setStatus('Failed to assign teacher. Please check the network and try again.');
       });
   };
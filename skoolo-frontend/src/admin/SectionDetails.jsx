@@ -7,6 +7,7 @@ import './style/SectionDetails.css'; // Updated styles linked here
 import AddStudentModal from './AddStudentModal'; // Assuming this path is correct
 import StudentTable from './StudentTable'; // Assuming this path is correct
 import TimetableTable from './TimetableTable'; // Assuming this path is correct
+import { describeImport, describeSheetImports } from '../utils/importSummary';
 
 const SectionDetails = () => {
   const { classId, sectionId } = useParams();
@@ -69,15 +70,17 @@ const SectionDetails = () => {
     const formData = new FormData();
     formData.append('file', file);
     try {
-      await API.post('/admin/upload-students', formData, {
+      const res = await API.post('/admin/upload-students', formData, {
+        params: { classId, sectionId },
         headers: { 'Content-Type': 'multipart/form-data' },
       });
+      alert(describeImport(res.data));
       const updated = await API.get(`/classes/${classId}/sections/${sectionId}/details`);
       setSectionStats(updated.data);
       setStudents(updated.data.students);
     } catch (err) {
       console.error('Upload failed:', err);
-      alert('Upload failed. Please try again.');
+      alert(err.response?.data || 'Upload failed. Please try again.');
     }
   };
 
@@ -85,14 +88,16 @@ const SectionDetails = () => {
     const formData = new FormData();
     formData.append('file', file);
     try {
-      await API.post('/admin/upload-timetable', formData, {
+      const upload = await API.post('/admin/upload-timetable', formData, {
         headers: { 'Content-Type': 'multipart/form-data' },
       });
+      alert(describeSheetImports(upload.data));
       const res = await API.get(`/classes/${classId}/sections/${sectionId}/timetable`);
       setTimetable(res.data);
     } catch (err) {
       console.error('Timetable upload failed:', err);
-      alert('Upload failed. Please try again.');
+      // 400 with per-sheet results when some sheets were rejected; those sections keep their old grid
+      alert(err.response?.data ? describeSheetImports(err.response.data) : 'Upload failed. Please try again.');
     }
   };
 
@@ -195,7 +200,15 @@ const SectionDetails = () => {
       alert('✅ Timetable updated successfully');
     } catch (error) {
       console.error('Update failed:', error);
-      alert('❌ Failed to update timetable.');
+      if (error.response?.status === 409) {
+        // Someone else edited these periods since the grid was loaded, or a teacher would be
+        // double-booked; show the reason and the grid as it is now
+        alert(`⚠️ ${error.response.data?.message ?? error.response.data}`);
+        const response = await API.get(`/classes/${classId}/sections/${sectionId}/timetable`);
+        setTimetable(response.data);
+      } else {
+        alert('❌ Failed to update timetable.');
+      }
     }
   };
 
@@ -1,7 +1,7 @@
 import React, { useEffect, useState } from "react";
 import API from "../services/api"; // adjust the import path accordingly
 import ParentSidebar from "./ParentSidebar";
-import { Spinner, Alert, Container } from "react-bootstrap"; // Using Alert and Container from Bootstrap
+import { Spinner, Alert, Container, Button } from "react-bootstrap"; // Using Alert and Container from Bootstrap
 import "./style/AttendancePage.css"; // Import the custom CSS
 
 const AttendancePage = () => {
@@ -9,6 +9,19 @@ const AttendancePage = () => {
   const [attendanceList, setAttendanceList] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
+  const [summary, setSummary] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+
+  // The API returns one page at a time (newest first) plus a per-child summary
+  const fetchPage = (cursor) => {
+    return API.get(`/parents/${parentId}/attendance`, { params: cursor ? { cursor } : {} })
+      .then((res) => {
+        const data = res.data || {};
+        setAttendanceList((prev) => (cursor ? [...prev, ...(data.records || [])] : data.records || []));
+        setSummary(data.summary || []);
+        setNextCursor(data.nextCursor || null);
+      });
+  };
 
   useEffect(() => {
     if (!parentId) {
@@ -17,11 +30,8 @@ const AttendancePage = () => {
       return;
     }
 
-    API.get(`/parents/${parentId}/attendance`)
-      .then((res) => {
-        setAttendanceList(res.data || []);
-        setLoading(false);
-      })
+    fetchPage(null)
+      .then(() => setLoading(false))
       .catch((err) => {
         setError("Failed to fetch attendance.");
         setLoading(false);
@@ -51,6 +61,13 @@ const AttendancePage = () => {
             </div>
           )}
 
+          {!loading && !error && summary.map((child) => (
+            <p key={child.studentId} className="loading-text">
+              {child.studentName}: {child.percentage}% attendance · current streak {child.currentStreak} day(s)
+              {child.lastAbsence && ` · last absent ${new Date(child.lastAbsence).toLocaleDateString('en-US', { month: 'short', day: 'numeric' })}`}
+            </p>
+          ))}
+
           {!loading && !error && attendanceList.length === 0 && (
             <div className="empty-state">
               <Alert variant="info" className="custom-alert">No attendance records found for your child.</Alert>
@@ -83,6 +100,13 @@ const AttendancePage = () => {
                   ))}
                 </tbody>
               </table>
+              {nextCursor && (
+                <div className="text-center my-3">
+                  <Button variant="outline-light" onClick={() => fetchPage(nextCursor).catch(console.error)}>
+                    Load more
+                  </Button>
+                </div>
+              )}
             </div>
           )}
         </Container>
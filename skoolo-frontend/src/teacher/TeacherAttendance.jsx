@@ -80,20 +80,19 @@ const TeacherAttendance = () => {
     const resAttendance = await API.get(
       `/attendance/class/${selectedClass.classId}/section/${selectedClass.sectionId}?date=${dateStr}`
     );
-    const existingAttendance = resAttendance.data;
+    const { markedBy, entries } = resAttendance.data;
 
-    if (existingAttendance.length > 0) {
+    if (entries.length > 0) {
+      // Roll call already taken: show exactly who was marked that day, even if the section has changed since
+      setStudents(entries.map((e) => ({ id: e.studentId, firstName: e.firstName, lastName: e.lastName })));
       setAttendanceMarked(true);
-      setMarkedByTeacherName(
-        existingAttendance[0].markedBy?.firstName + ' ' + existingAttendance[0].markedBy?.lastName || 'Unknown'
-      );
+      setMarkedByTeacherName(markedBy || 'Unknown');
       setAttendance(
-        existingAttendance.map((a) => ({
-          studentId: a.student.id,
-          status: a.status,
+        entries.map((e) => ({
+          studentId: e.studentId,
+          status: (e.status || '').toLowerCase(), // older rows hold "Present", "Absent", ...
         }))
       );
-      setStudents(existingAttendance.map((a) => a.student));
     } else {
       const resStudents = await API.get(
         `/classes/${selectedClass.classId}/sections/${selectedClass.sectionId}/details`
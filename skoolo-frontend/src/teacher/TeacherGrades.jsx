@@ -34,6 +34,8 @@ const TeacherGrades = () => {
     const [message, setMessage] = useState('');
     const [messageType, setMessageType] = useState('info');
     const [submittedMarks, setSubmittedMarks] = useState({});
+    const [submittedRows, setSubmittedRows] = useState([]);
+    const [marksPage, setMarksPage] = useState({ page: 0, hasNext: false });
     const [expandedExam, setExpandedExam] = useState(null);
 
     // Animation variants for Framer Motion
@@ -68,16 +70,20 @@ const TeacherGrades = () => {
         fetchSubmittedMarks();
     }, [teacherId]);
 
-    const fetchSubmittedMarks = () => {
-        API.get(`/marks/by-teacher?teacherId=${teacherId}`)
+    // Pages of flat rows; later pages are appended and regrouped
+    const fetchSubmittedMarks = (page = 0) => {
+        API.get(`/marks/by-teacher?teacherId=${teacherId}&page=${page}`)
             .then((res) => {
+                const rows = page === 0 ? res.data.marks : [...submittedRows, ...res.data.marks];
                 const grouped = {};
-                res.data.forEach((mark) => {
-                    const key = `${mark.classEntity?.className}-${mark.section?.sectionName} | ${mark.examName} - ${mark.academicYear}`;
+                rows.forEach((mark) => {
+                    const key = `${mark.className}-${mark.sectionName} | ${mark.examName} - ${mark.academicYear}`;
                     if (!grouped[key]) grouped[key] = [];
                     grouped[key].push(mark);
                 });
+                setSubmittedRows(rows);
                 setSubmittedMarks(grouped);
+                setMarksPage({ page, hasNext: res.data.hasNext });
             })
             .catch((err) => console.error("Error fetching submitted marks:", err));
     };
@@ -185,8 +191,10 @@ const TeacherGrades = () => {
         setMessage(''); // Clear previous messages
 
         API.post('/marks', payload)
-            .then(() => {
-                setMessage('✅ Marks submitted successfully!');
+            .then((res) => {
+                const { inserted = 0, updated = 0, unchanged = 0, rejected = 0 } = res.data || {};
+                setMessage(`✅ Marks submitted: ${inserted} new, ${updated} updated, ${unchanged} unchanged`
+                    + (rejected ? `, ${rejected} rejected` : '') + '.');
                 setMessageType('success');
                 // Clear fields after successful submission
                 setSelectedAssignment(null);
@@ -206,6 +214,53 @@ const TeacherGrades = () => {
             });
     };
 
+    // Spreadsheet of the selected assignment's students, pre-filled with marks already saved for this exam
+    const handleDownloadSheet = () => {
+        const { subjectId, sectionId } = selectedAssignment.value;
+        const params = new URLSearchParams({
+            teacherId, examName: examName.trim(), academicYear, subjectId, sectionId, maxMarks: 100
+        });
+        API.get(`/marks/sheet?${params}`, { responseType: 'blob' })
+            .then((res) => {
+                const link = document.createElement('a');
+                link.href = window.URL.createObjectURL(res.data);
+                link.download = `marks-${examName.trim()}-${academicYear}.xlsx`;
+                link.click();
+                window.URL.revokeObjectURL(link.href);
+            })
+            .catch((err) => {
+                console.error("Error downloading mark sheet:", err);
+                setMessage('❌ Failed to download the mark sheet.');
+                setMessageType('danger');
+            });
+    };
+
+    const handleUploadSheet = (e) => {
+        const file = e.target.files[0];
+        e.target.value = '';
+        if (!file) return;
+        const formData = new FormData();
+        formData.append('file', file);
+        setLoading(true);
+        API.post(`/marks/sheet?teacherId=${teacherId}`, formData)
+            .then((res) => {
+                const { failed = 0, errors = [] } = res.data || {};
+                setMessage(`✅ ${res.data.message}` + (failed
+                    ? ` ${failed} rows failed: ` + errors.slice(0, 5).map(err => `row ${err.row}: ${err.message}`).join('; ')
+                    : ''));
+                setMessageType(failed ? 'warning' : 'success');
+                fetchSubmittedMarks();
+            })
+            .catch((err) => {
+                console.error("Error uploading mark sheet:", err);
+                setMessage(`❌ ${err.response?.data || 'Failed to upload the mark sheet.'}`);
+                setMessageType('danger');
+            })
+            .finally(() => {
+                setLoading(false);
+            });
+    };
+
     const getGradeClass = (grade) => {
         switch (grade) {
             case 'A': return 'grade-a';
@@ -430,6 +485,20 @@ const TeacherGrades = () => {
                                     </>
                                 )}
                             </Button>
+
+                            <div className="d-flex gap-2 mt-3">
+                                <Button
+                                    variant="outline-primary"
+                                    onClick={handleDownloadSheet}
+                                    disabled={loading || !examName.trim()}
+                                >
+                                    Download Sheet
+                                </Button>
+                                <Form.Label className={`btn btn-outline-primary mb-0 ${loading ? 'disabled' : ''}`}>
+                                    Upload Filled Sheet
+                                    <Form.Control type="file" accept=".xlsx,.xls,.csv" hidden onChange={handleUploadSheet} />
+                                </Form.Label>
+                            </div>
                         </motion.div>
                     )}
 
@@ -505,9 +574,9 @@ const TeacherGrades = () => {
                                                     </thead>
                                                     <tbody>
                                                         {marksArray.map((mark, idx) => (
-                                                            <tr key={mark.id || idx}>
+                                                            <tr key={mark.markId || idx}>
                                                                 <td>{idx + 1}</td>
-                                                                <td>{mark.student?.fullName}</td>
+                                                                <td>{mark.studentName}</td>
                                                                 <td>{mark.marksObtained}</td>
                                                                 <td>{mark.maxMarks}</td>
                                                                 <td className="grade-cell">
@@ -515,7 +584,7 @@ const TeacherGrades = () => {
                                                                         {mark.grade || 'N/A'}
                                                                     </span>
                                                                 </td>
-                                                                <td>{mark.subject?.subjectName}</td>
+                                                                <td>{mark.subjectName}</td>
                                                             </tr>
                                                         ))}
                                                     </tbody>
@@ -526,6 +595,13 @@ const TeacherGrades = () => {
                                 </motion.div>
                             ))
                         )}
+                        {marksPage.hasNext && (
+                            <div className="text-center">
+                                <Button variant="outline-primary" onClick={() => fetchSubmittedMarks(marksPage.page + 1)}>
+                                    Load more
+                                </Button>
+                            </div>
+                        )}
                     </div>
                 </motion.div>
             </Col>
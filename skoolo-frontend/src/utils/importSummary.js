@@ -0,0 +1,26 @@
+// Plain-text summaries of the backend's ImportResultDTO, for alerts and status messages
+const MAX_ERRORS_SHOWN = 10;
+
+export function describeImport(result) {
+  if (!result || typeof result !== 'object') return String(result ?? '');
+  const lines = [
+    `${result.imported} imported, ${result.skipped} unchanged, ${result.failed} failed (${result.totalRows} rows).`,
+  ];
+  if (result.message) lines.push(result.message);
+  const errors = result.errors || [];
+  errors
+    .slice(0, MAX_ERRORS_SHOWN)
+    .forEach((e) => lines.push(e.row > 0 ? `Row ${e.row}: ${e.message}` : e.message));
+  if (errors.length > MAX_ERRORS_SHOWN) {
+    lines.push(`...and ${errors.length - MAX_ERRORS_SHOWN} more errors.`);
+  }
+  return lines.join('\n');
+}
+
+// Timetable uploads return one result per sheet, keyed by sheet name
+export function describeSheetImports(results) {
+  if (!results || typeof results !== 'object') return String(results ?? '');
+  return Object.entries(results)
+    .map(([sheet, result]) => `${sheet}: ${describeImport(result)}`)
+    .join('\n\n');
+}